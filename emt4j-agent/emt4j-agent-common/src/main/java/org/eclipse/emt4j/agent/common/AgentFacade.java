@@ -19,12 +19,14 @@
 package org.eclipse.emt4j.agent.common;
 
 import org.eclipse.emt4j.agent.common.file.BinaryFileWriter;
+import org.eclipse.emt4j.agent.common.file.OverflowPolicy;
 import org.eclipse.emt4j.agent.common.file.Recorder;
 import org.eclipse.emt4j.agent.common.file.ReportRecorder;
+import org.eclipse.emt4j.agent.common.jdkdependent.CallSiteFilter;
+import org.eclipse.emt4j.agent.common.jdkdependent.CallerInfo;
 import org.eclipse.emt4j.agent.common.jdkdependent.CallerProvider;
 import org.eclipse.emt4j.agent.common.jdkdependent.GuessCallerInfo;
 import org.eclipse.emt4j.common.*;
-import org.eclipse.emt4j.common.classanalyze.ClassInspectorInstance;
 import org.eclipse.emt4j.common.rule.InstanceRuleManager;
 import org.eclipse.emt4j.common.util.ClassURL;
 
@@ -66,6 +68,7 @@ public class AgentFacade {
     static synchronized void init(String args, JdkDependConfig jdkDependConfig) throws IOException, IllegalAccessException, InstantiationException, ClassNotFoundException {
         parseArgs(args, jdkDependConfig.getFromVersion());
         initCallerProvider(jdkDependConfig.getCallerProviderClassName());
+        CallSiteFilter.setSampleRate(agentOption.getSampleRate());
         initInstanceRules(jdkDependConfig.getRuleClasses());
         CheckConfig checkConfig = new CheckConfig();
         checkConfig.setCheckMode(Feature.DEFAULT);
@@ -76,7 +79,8 @@ public class AgentFacade {
         //now agent only support arch independent check. so we set a default
         features.add(Feature.DEFAULT.getId());
 
-        recorder = new ReportRecorder(new BinaryFileWriter(getOutputFile(), agentOption.getFromVersion(), agentOption.getToVersion(), features));
+        recorder = new ReportRecorder(new BinaryFileWriter(getOutputFile(), agentOption.getFromVersion(), agentOption.getToVersion(), features),
+                agentOption.getRuleThreads(), agentOption.getQueueSize(), agentOption.getOverflowPolicy());
         recorder.init();
         loadedJarRecorder = new LoadedJarRecorder(recorder);
         SystemClassLoaderIReference.init();
@@ -115,6 +119,18 @@ public class AgentFacade {
                     case "priority":
                         agentOption.setPriority(kv[1]);
                         break;
+                    case "ruleThreads":
+                        agentOption.setRuleThreads(Integer.parseInt(kv[1]));
+                        break;
+                    case "sample":
+                        agentOption.setSampleRate(Double.parseDouble(kv[1]));
+                        break;
+                    case "queueSize":
+                        agentOption.setQueueSize(Integer.parseInt(kv[1]));
+                        break;
+                    case "overflow":
+                        agentOption.setOverflowPolicy(OverflowPolicy.of(kv[1]));
+                        break;
                     default:
                         throw new RuntimeException("Illegal agent parameters for : [" + param + "]");
                 }
@@ -132,21 +148,47 @@ public class AgentFacade {
         }
     }
 
+    /**
+     * Record the dependencies of a call captured by {@link CallerProvider#captureCaller(int, int, Object)}.
+     * The call site is only skipped next time if all of them are taken by the recorder.
+     */
+    public static void record(CallerInfo callerInfo, Dependency... dependencies) {
+        try {
+            boolean taken = true;
+            for (Dependency dependency : dependencies) {
+                taken &= recorder.record(dependency);
+            }
+            if (taken && callerInfo.getCallSite() != null) {
+                callerInfo.getCallSite().seen();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
     public static void recordLoadJar(ProtectionDomain protectionDomain) throws InterruptedException {
         loadedJarRecorder.recordJar(protectionDomain);
     }
 
+    /**
+     * Called when a class is being loaded, while the class loader may be locked, so it only captures
+     * what can't be got later (the callers) and keeps the bytecode. The class is parsed by the recorder.
+     */
     public static void recordLoadClass(String className, ProtectionDomain protectionDomain, byte[] classContent) throws InterruptedException {
         Optional<GuessCallerInfo> callerInfo = getCallerProvider().guessCallers(GUESS_CALLER_NUM);
         if (callerInfo.isPresent()) {
+            // the bytecode can't be read again: a generated class has no resource, and the resource of a class
+            // transformed by another agent is not what is loaded. The queue of the recorder is bounded, so keep it.
+            ClassBytecode classBytecode = ClassBytecode.of(classContent);
             Dependency dependency = DependencyBuilder.buildLoadClass(className, callerInfo.map(GuessCallerInfo::getStacktrace).orElse(null), protectionDomain);
             dependency.setNonJdkCallerClass(callerInfo.get().getCallerClasses());
-            dependency.setCurrClassBytecode(classContent);
+            dependency.setClassBytecode(classBytecode);
             recorder.record(dependency);
 
             dependency = dependency.clone();
             dependency.setTarget(new DependTarget.Class(className, DependType.WHOLE_CLASS));
-            dependency.setClassSymbol(ClassInspectorInstance.getInstance().getSymbolInClass(classContent));
+            dependency.setClassBytecode(classBytecode);
             recorder.record(dependency);
         }
     }
@@ -18,6 +18,8 @@
  ********************************************************************************/
 package org.eclipse.emt4j.agent.common;
 
+import org.eclipse.emt4j.agent.common.file.OverflowPolicy;
+import org.eclipse.emt4j.agent.common.file.ReportRecorder;
 import org.eclipse.emt4j.common.JdkMigrationException;
 import org.eclipse.emt4j.common.rule.ConfRuleFacade;
 
@@ -55,6 +57,28 @@ public class AgentOption {
      */
     private Locale locale = Locale.ENGLISH;
 
+    /**
+     * How many threads check the dependencies with the rules, 1 means all rules are called on the report thread.
+     * More threads help to keep up with the classes loaded when the application starts.
+     */
+    private int ruleThreads = 1;
+
+    /**
+     * The part of the calls to the checked JDK methods that are checked, in (0, 1].
+     * A call site that is seldom called may be missed if it's less than 1.
+     */
+    private double sampleRate = 1.0;
+
+    /**
+     * How many dependencies can wait to be checked
+     */
+    private int queueSize = ReportRecorder.DEFAULT_QUEUE_SIZE;
+
+    /**
+     * What to do with a dependency when the queue is full
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
     public String getOutputFile() {
         return outputFile;
     }
@@ -95,9 +119,50 @@ public class AgentOption {
         this.priority = priority;
     }
 
+    public int getRuleThreads() {
+        return ruleThreads;
+    }
+
+    public void setRuleThreads(int ruleThreads) {
+        this.ruleThreads = ruleThreads;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
     public void check() {
         if (ConfRuleFacade.findWays(fromVersion, toVersion) == null) {
             throw new JdkMigrationException("Not support from " + fromVersion + " to " + toVersion);
         }
+        if (ruleThreads < 1) {
+            throw new JdkMigrationException("ruleThreads should be at least 1, but it's " + ruleThreads);
+        }
+        if (!(sampleRate > 0 && sampleRate <= 1)) {
+            throw new JdkMigrationException("sample should be in (0, 1], but it's " + sampleRate);
+        }
+        if (queueSize < 1 || queueSize > (1 << 30)) {
+            throw new JdkMigrationException("queueSize should be in [1, 2^30], but it's " + queueSize);
+        }
     }
 }
@@ -25,6 +25,18 @@ public class Constant {
     public static final String COMMON_PACKAGE = "org.eclipse.emt4j.common";
     public static final String INIT_CLASS = "org.eclipse.emt4j.agent.common.AgentInit";
     public static final int FIRST_NON_AGENT_CALLER_INDEX = 4;
-    public static final int CALLEE_INDEX = FIRST_NON_AGENT_CALLER_INDEX - 1;
     public static final String AGENT_REPORT_WRITE_THREAD = "AgentReportWriteThread";
+    public static final String AGENT_RULE_THREAD = "AgentRuleThread";
+    /**
+     * At most how many frames are kept in the stacktrace of a dependency found by a callback.
+     */
+    public static final int MAX_STACKTRACE_DEPTH = 32;
+
+    /**
+     * @return true if the thread is started by the agent, what it calls should not be recorded.
+     */
+    public static boolean isAgentThread(Thread thread) {
+        String name = thread.getName();
+        return AGENT_REPORT_WRITE_THREAD.equals(name) || name.startsWith(AGENT_RULE_THREAD);
+    }
 }
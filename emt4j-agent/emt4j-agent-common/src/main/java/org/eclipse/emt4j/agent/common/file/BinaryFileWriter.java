@@ -65,6 +65,17 @@ public class BinaryFileWriter implements CheckResultFileWriter {
         oos.flush();
     }
 
+    /**
+     * The header at the beginning can't be changed, so write it again with the count in the body.
+     */
+    @Override
+    public void writeDropped(long dropped) throws IOException {
+        VariableHeader vh = getVariableHeader();
+        vh.setDroppedDependencies(dropped);
+        oos.writeObject(vh);
+        oos.flush();
+    }
+
     private VariableHeader getVariableHeader() {
         VariableHeader vh = new VariableHeader();
         vh.setFromVersion(fromVersion);
@@ -36,6 +36,14 @@ public interface CheckResultFileWriter {
 
     void write(Dependency dependency, ReportCheckResult checkResult, ExecutableRule rule) throws IOException;
 
+    /**
+     * Record how many dependencies are dropped so far, because the recorder couldn't keep up.
+     *
+     * @param dropped the total number of dropped dependencies
+     * @throws IOException if IO operation failed
+     */
+    void writeDropped(long dropped) throws IOException;
+
     /**
      * close writer.Now only when there occurs a exception,the <code>close</code> will be called.
      * Normal case will not call <code>close</code>,so need flush file for each writing.
@@ -0,0 +1,154 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.agent.common.file;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded queue that many threads put into and only one thread takes from.
+ * <p>
+ * A producer claims a slot by a CAS on the tail, then publishes the element by the sequence of the slot,
+ * so it neither allocates nor locks. The consumer parks when the queue is empty, and it's woken up by the
+ * next producer.
+ *
+ * @param <E> the type of the elements
+ */
+class MpscRingBuffer<E> {
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+
+    /**
+     * The sequence of each slot: equals to the position when the slot is free for the producer at the position,
+     * and the position + 1 after the element is published.
+     */
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * only accessed by the consumer
+     */
+    private long head;
+
+    private volatile Thread waitingConsumer;
+
+    /**
+     * @param capacity rounded up to a power of 2
+     */
+    MpscRingBuffer(int capacity) {
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false if the queue is full
+     */
+    boolean offer(E e) {
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) position & mask;
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (diff < 0) {
+                // the slot is not taken by the consumer yet
+                return false;
+            }
+        }
+        elements.lazySet(index, e);
+        sequences.set(index, position + 1);
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Only called by the consumer.
+     *
+     * @return the head of the queue, or null if it's empty
+     */
+    E poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E e = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.set(index, head + capacity);
+        head++;
+        return e;
+    }
+
+    /**
+     * Only called by the consumer.
+     *
+     * @return the head of the queue, or null if it's still empty after the timeout
+     */
+    E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E e = poll();
+        if (e != null) {
+            return e;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        waitingConsumer = Thread.currentThread();
+        try {
+            while (true) {
+                // check again after announcing the wait, so a producer that missed it has published already.
+                e = poll();
+                if (e != null) {
+                    return e;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waitingConsumer = null;
+        }
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
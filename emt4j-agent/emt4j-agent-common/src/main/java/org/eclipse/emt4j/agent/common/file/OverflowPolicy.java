@@ -0,0 +1,45 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.agent.common.file;
+
+import org.eclipse.emt4j.common.JdkMigrationException;
+
+/**
+ * What to do with a dependency when the queue of <code>ReportRecorder</code> is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * Drop the dependency and count it, the count is written to the header of the output file.
+     */
+    DROP,
+
+    /**
+     * Wait until the queue has room, the threads of the agent never wait.
+     */
+    BLOCK;
+
+    public static OverflowPolicy of(String name) {
+        for (OverflowPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(name)) {
+                return policy;
+            }
+        }
+        throw new JdkMigrationException("Unknown overflow policy : " + name + ", it should be drop or block");
+    }
+}
@@ -30,9 +30,10 @@ public interface Recorder {
      * Record the dependency
      *
      * @param dependency dependency
+     * @return false if the dependency is dropped
      * @throws InterruptedException if InterruptedException occurred
      */
-    void record(Dependency dependency) throws InterruptedException;
+    boolean record(Dependency dependency) throws InterruptedException;
 
     /**
      * initialize Recorder
@@ -21,29 +21,73 @@ package org.eclipse.emt4j.agent.common.file;
 import org.eclipse.emt4j.agent.common.Constant;
 import org.eclipse.emt4j.common.DependType;
 import org.eclipse.emt4j.common.Dependency;
+import org.eclipse.emt4j.common.DependencyDeduplicator;
+import org.eclipse.emt4j.common.JdkMigrationException;
+import org.eclipse.emt4j.common.classanalyze.ClassInspectorInstance;
 import org.eclipse.emt4j.common.rule.ExecutableRule;
-import org.eclipse.emt4j.common.rule.InstanceRuleManager;
+import org.eclipse.emt4j.common.rule.RuleEvaluator;
+import org.eclipse.emt4j.common.rule.RuleEvaluator.Evaluation;
 import org.eclipse.emt4j.common.rule.model.ReportCheckResult;
+import org.eclipse.emt4j.common.util.SymbolTable;
 
 import java.io.IOException;
-import java.util.HashSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * <code>ReportRecorder</code> implement an asynchronous <code>Recorder</code>.
  * For each dependency,there one to man rules need execute,and some rules do some cost time work.
- * When call record method,<code>ReportRecorder</code> put in a queue,then a background daemon thread
+ * When call record method,<code>ReportRecorder</code> put in a bounded queue,then a background daemon thread
  * take it,execute all rules,and write to file finally.
+ * The classes recorded when they are loaded are also parsed by the background thread.
+ * With more than one rule thread, the dependencies are parsed and checked by a pool of rule threads at the same time,
+ * and the background thread only writes the results, still in the order the dependencies are taken from the queue.
  */
 public class ReportRecorder implements Recorder {
 
+    public static final int DEFAULT_QUEUE_SIZE = 1 << 16;
+
+    /**
+     * How often the number of dropped dependencies is written when it changes.
+     */
+    private static final long DROPPED_WRITE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * How often the size of the symbol tables is checked, and how many symbols they can hold before they are cleared.
+     */
+    private static final long SYMBOL_TRIM_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int MAX_SYMBOLS = 1 << 16;
+
+    private static final long BLOCK_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * How many dependencies each rule thread can be given before the oldest one must be written.
+     */
+    private static final int PENDING_PER_RULE_THREAD = 4;
+
     /**
      * a temporary buffer that needs to process dependency.
      */
-    private BlockingQueue<Dependency> writeBuffer;
+    private final MpscRingBuffer<Dependency> writeBuffer;
+
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * The dependencies dropped because the buffer is full.
+     */
+    private final LongAdder dropped = new LongAdder();
 
     /**
      * main work thread
@@ -53,32 +97,85 @@ public class ReportRecorder implements Recorder {
     /**
      * Avoid duplicate dependency write more than one time.
      */
-    private Set<Integer> alreadyWritten = new HashSet<>();
+    private final DependencyDeduplicator alreadyWritten = new DependencyDeduplicator();
 
     private CheckResultFileWriter checkResultFileWriter;
 
+    /**
+     * the threads that check the dependencies, null if the main work thread checks them itself.
+     */
+    private final ExecutorService ruleExecutor;
+
+    private final int maxPending;
+
+    private final RuleEvaluator ruleEvaluator = new RuleEvaluator();
+
     public ReportRecorder(CheckResultFileWriter writer) {
-        this.writeBuffer = new LinkedBlockingQueue<>();
+        this(writer, 1, DEFAULT_QUEUE_SIZE, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * @param writer         where to write the results
+     * @param ruleThreads    how many threads check the dependencies, 1 means the main work thread checks them
+     * @param queueSize      how many dependencies can wait in the queue
+     * @param overflowPolicy what to do when the queue is full
+     */
+    public ReportRecorder(CheckResultFileWriter writer, int ruleThreads, int queueSize, OverflowPolicy overflowPolicy) {
+        this.writeBuffer = new MpscRingBuffer<>(queueSize);
+        this.overflowPolicy = overflowPolicy;
         this.checkResultFileWriter = writer;
+        if (ruleThreads > 1) {
+            AtomicInteger count = new AtomicInteger();
+            // the name must start with AGENT_RULE_THREAD, so what the rules call is not recorded again
+            this.ruleExecutor = Executors.newFixedThreadPool(ruleThreads, (r) -> {
+                Thread thread = new Thread(r, Constant.AGENT_RULE_THREAD + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.ruleExecutor = null;
+        }
+        this.maxPending = ruleThreads * PENDING_PER_RULE_THREAD;
     }
 
     /**
      * put in a queue, then a background thread will take it.
+     * If the queue is full, the dependency is dropped or the caller waits, see {@link OverflowPolicy}.
      *
      * @param dependency            dependency
+     * @return false if the dependency is dropped
      * @throws InterruptedException if InterruptedException occurred
      */
     @Override
-    public void record(Dependency dependency) throws InterruptedException {
-        if (dependency != null) {
-            writeBuffer.put(dependency);
+    public boolean record(Dependency dependency) throws InterruptedException {
+        if (dependency != null && !writeBuffer.offer(dependency)) {
+            // a thread of the agent waiting for itself would never wake up
+            if (overflowPolicy == OverflowPolicy.BLOCK && !Constant.isAgentThread(Thread.currentThread())) {
+                do {
+                    LockSupport.parkNanos(this, BLOCK_WAIT_NANOS);
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                } while (!writeBuffer.offer(dependency));
+            } else {
+                dropped.increment();
+                return false;
+            }
         }
+        return true;
+    }
+
+    /**
+     * @return how many dependencies are dropped so far
+     */
+    public long getDropped() {
+        return dropped.sum();
     }
 
     /**
      * Start a daemon thread, the thread will take each dependency from the queue,
-     * then provide dependency as a parameter to all rules.
-     * If the check failed, write the result to the file.
+     * then provide dependency as a parameter to all rules, or hand it to a rule thread.
+     * If the check failed, write the result to the file in the order the dependencies are taken.
      *
      * @return true if success
      * @throws IOException if IO operation failed
@@ -87,20 +184,60 @@ public class ReportRecorder implements Recorder {
     public boolean init() throws IOException {
         checkResultFileWriter.begin();
         writeThread = new Thread(() -> {
+            // one scope for the life of the recorder, so the symbols are shared by the checks
+            SymbolTable.openScope();
             try {
+                long writtenDropped = 0;
+                long lastDroppedWrite = System.nanoTime();
+                long lastSymbolTrim = lastDroppedWrite;
+                Deque<Future<List<Result>>> pending = new ArrayDeque<>();
                 while (true) {
-                    Dependency dependency = writeBuffer.take();
-                    int hashCode = dependency.hashCode();
-                    if (alreadyWritten.contains(hashCode)) {
-                        continue;
+                    Dependency dependency = pending.isEmpty() ? writeBuffer.poll(1, TimeUnit.SECONDS) : writeBuffer.poll();
+                    if (dependency != null && alreadyWritten.firstSeen(dependency)) {
+                        FutureTask<List<Result>> task = new FutureTask<>(() -> check(dependency));
+                        if (ruleExecutor == null) {
+                            task.run();
+                            write(join(task));
+                        } else {
+                            ruleExecutor.execute(task);
+                            pending.add(task);
+                        }
+                    }
+                    while (!pending.isEmpty() && (pending.peek().isDone() || pending.size() > maxPending)) {
+                        write(join(pending.poll()));
+                    }
+                    // nothing new to hand out, so wait for the oldest one
+                    if (dependency == null && !pending.isEmpty()) {
+                        write(join(pending.poll()));
+                    }
+                    long now = System.nanoTime();
+                    if (now - lastDroppedWrite >= DROPPED_WRITE_INTERVAL_NANOS) {
+                        long currentDropped = dropped.sum();
+                        if (currentDropped != writtenDropped) {
+                            checkResultFileWriter.writeDropped(currentDropped);
+                            writtenDropped = currentDropped;
+                        }
+                        lastDroppedWrite = now;
+                    }
+                    // the class symbols are not used after the check, so the tables don't grow with the loaded classes
+                    if (now - lastSymbolTrim >= SYMBOL_TRIM_INTERVAL_NANOS) {
+                        if (SymbolTable.scopedSize() > MAX_SYMBOLS) {
+                            while (!pending.isEmpty()) {
+                                write(join(pending.poll()));
+                            }
+                            SymbolTable.clearScoped();
+                        }
+                        lastSymbolTrim = now;
                     }
-                    publish(dependency);
-                    alreadyWritten.add(hashCode);
                 }
             } catch (Throwable e) {
                 System.err.println("Write report thread occur exception,so exit");
                 e.printStackTrace();
             } finally {
+                SymbolTable.closeScope();
+                if (ruleExecutor != null) {
+                    ruleExecutor.shutdown();
+                }
                 try {
                     checkResultFileWriter.close();
                 } catch (Exception e) {
@@ -113,49 +250,96 @@ public class ReportRecorder implements Recorder {
         return true;
     }
 
-    private void publish(Dependency dependency) throws IOException {
+    /**
+     * A loaded class is parsed here instead of on the thread that loads it.
+     *
+     * @return false if the bytecode is not available any more, then the dependency can't be checked
+     */
+    private boolean resolveClassSymbol(Dependency dependency) {
+        if (dependency.getDependType() == DependType.WHOLE_CLASS && dependency.getClassSymbol() == null) {
+            try {
+                byte[] bytecode = dependency.getCurrClassBytecode();
+                if (bytecode == null) {
+                    return false;
+                }
+                dependency.setClassSymbol(ClassInspectorInstance.getInstance().getSymbolInClass(bytecode));
+            } catch (JdkMigrationException e) {
+                e.printStackTrace();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check a dependency with the rules, it's called by the main work thread or a rule thread.
+     *
+     * @return what should be written for the dependency, in the order of the rules
+     */
+    private List<Result> check(Dependency dependency) {
+        List<Result> results = new ArrayList<>();
+        if (!resolveClassSymbol(dependency)) {
+            return results;
+        }
         //Record dependency jars that later used by external tools,such jdeps
         if (dependency.getDependType() == DependType.CODE_SOURCE) {
-            checkResultFileWriter.write(dependency, null, null);
+            results.add(new Result(dependency, null, null));
         }
-        List<ExecutableRule> ruleList = InstanceRuleManager.getRuleInstanceList();
-        for (ExecutableRule rule : ruleList) {
-            if (rule.shouldAccept(dependency)) {
-                ReportCheckResult checkResult = rule.execute(dependency);
-                if (!checkResult.isPass()) {
-                    if (checkResult.getPropagated().isEmpty()) {
-                        checkResultFileWriter.write(dependency, checkResult, rule);
-                    } else {
-                        for (Dependency newDependency : checkResult.getPropagated()) {
-                            checkResultFileWriter.write(newDependency, checkResult, rule);
-                        }
-                    }
-                }
-                List<Dependency> more = rule.propagate(dependency);
-                if (!more.isEmpty()) {
-                    publishMore(more);
+        for (Evaluation evaluation : ruleEvaluator.evaluate(dependency, true)) {
+            addResults(results, dependency, evaluation);
+            for (Dependency more : evaluation.getMore()) {
+                for (Evaluation moreEvaluation : ruleEvaluator.evaluate(more, false)) {
+                    addResults(results, more, moreEvaluation);
                 }
             }
         }
+        return results;
     }
 
-    private void publishMore(List<Dependency> more) throws IOException {
-        List<ExecutableRule> ruleList = InstanceRuleManager.getRuleInstanceList();
-        for (Dependency dependency : more) {
-            for (ExecutableRule rule : ruleList) {
-                if (rule.shouldAccept(dependency)) {
-                    ReportCheckResult checkResult = rule.execute(dependency);
-                    if (!checkResult.isPass()) {
-                        if (checkResult.getPropagated().isEmpty()) {
-                            checkResultFileWriter.write(dependency, checkResult, rule);
-                        } else {
-                            for (Dependency newDependency : checkResult.getPropagated()) {
-                                checkResultFileWriter.write(newDependency, checkResult, rule);
-                            }
-                        }
-                    }
+    private static void addResults(List<Result> results, Dependency dependency, Evaluation evaluation) {
+        ReportCheckResult checkResult = evaluation.getCheckResult();
+        if (!checkResult.isPass()) {
+            if (checkResult.getPropagated().isEmpty()) {
+                results.add(new Result(dependency, checkResult, evaluation.getRule()));
+            } else {
+                for (Dependency newDependency : checkResult.getPropagated()) {
+                    results.add(new Result(newDependency, checkResult, evaluation.getRule()));
                 }
             }
         }
     }
-}
\ No newline at end of file
+
+    private void write(List<Result> results) throws IOException {
+        for (Result result : results) {
+            checkResultFileWriter.write(result.dependency, result.checkResult, result.rule);
+        }
+    }
+
+    /**
+     * @return the results of the check, or nothing if the check failed, so one broken check doesn't stop the writer
+     */
+    private static List<Result> join(Future<List<Result>> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            System.err.println("Failed to check a dependency with the rules");
+            e.getCause().printStackTrace();
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * A record to write to the file.
+     */
+    private static class Result {
+        private final Dependency dependency;
+        private final ReportCheckResult checkResult;
+        private final ExecutableRule rule;
+
+        Result(Dependency dependency, ReportCheckResult checkResult, ExecutableRule rule) {
+            this.dependency = dependency;
+            this.checkResult = checkResult;
+            this.rule = rule;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.agent.common.jdkdependent;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decide whether a callback should capture the call at all, before it pays for the stack trace and the dependency.
+ * <ul>
+ *     <li>Sampling: only a part of the calls are checked, see {@link #setSampleRate(double)}.</li>
+ *     <li>First hit: a call site is only captured until its dependency is taken by the recorder, where a call site
+ *     is the caller class, the caller method, the callee and a detail that the callback records with the dependency.
+ *     A repeated call site makes the same dependency, which <code>ReportRecorder</code> drops anyway.</li>
+ * </ul>
+ * The call sites are kept per caller class, at most {@link #MAX_SITES_PER_CLASS} of them. Only the hash code of the
+ * detail is kept, so a call site doesn't keep the objects of the application, and a call site that is already seen
+ * is found without building anything.
+ */
+public final class CallSiteFilter {
+    static final int MAX_SITES_PER_CLASS = 1 << 12;
+
+    private static volatile double sampleRate = 1.0;
+
+    private static final ClassValue<Set<Key>> SITES = new ClassValue<Set<Key>>() {
+        @Override
+        protected Set<Key> computeValue(Class<?> type) {
+            return ConcurrentHashMap.newKeySet();
+        }
+    };
+
+    /**
+     * The key each thread looks up with, so a call site that is already seen doesn't allocate a new key.
+     */
+    private static final ThreadLocal<Key> LOOKUP_KEY = ThreadLocal.withInitial(Key::new);
+
+    private CallSiteFilter() {
+    }
+
+    /**
+     * @param rate the part of the calls that are checked, in (0, 1]. A call site that is seldom called may be missed
+     *             if it's less than 1.
+     */
+    public static void setSampleRate(double rate) {
+        sampleRate = rate;
+    }
+
+    /**
+     * @return true if the current call should be checked
+     */
+    public static boolean sampled() {
+        double rate = sampleRate;
+        return rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    /**
+     * @return the call site if it's not seen yet, or null. It's only seen after {@link CallSite#seen()} is called,
+     * so a call whose dependency is dropped is captured again next time.
+     */
+    public static CallSite unseen(Class callerClass, String callerMethod, String calleeClass, String calleeMethod, Object detail) {
+        Set<Key> sites = SITES.get(callerClass);
+        int detailHash = detail == null ? 0 : detail.hashCode();
+        Key key = LOOKUP_KEY.get();
+        key.set(callerMethod, calleeClass, calleeMethod, detailHash);
+        boolean seen = sites.contains(key);
+        // don't keep the strings of the caller until the next lookup
+        key.set(null, null, null, 0);
+        return seen ? null : new CallSite(sites, callerMethod, calleeClass, calleeMethod, detailHash);
+    }
+
+    private static class Key {
+        private String callerMethod;
+        private String calleeClass;
+        private String calleeMethod;
+        private int detailHash;
+        private int hash;
+
+        void set(String callerMethod, String calleeClass, String calleeMethod, int detailHash) {
+            this.callerMethod = callerMethod;
+            this.calleeClass = calleeClass;
+            this.calleeMethod = calleeMethod;
+            this.detailHash = detailHash;
+            int h = Objects.hashCode(callerMethod);
+            h = 31 * h + Objects.hashCode(calleeClass);
+            h = 31 * h + Objects.hashCode(calleeMethod);
+            this.hash = 31 * h + detailHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return hash == that.hash && detailHash == that.detailHash && Objects.equals(callerMethod, that.callerMethod)
+                    && Objects.equals(calleeClass, that.calleeClass) && Objects.equals(calleeMethod, that.calleeMethod);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    public static final class CallSite extends Key {
+        private final Set<Key> sites;
+
+        private CallSite(Set<Key> sites, String callerMethod, String calleeClass, String calleeMethod, int detailHash) {
+            this.sites = sites;
+            set(callerMethod, calleeClass, calleeMethod, detailHash);
+        }
+
+        /**
+         * The dependency of the call site is taken, don't capture it again.
+         */
+        public void seen() {
+            // when there are too many, let the recorder drop the duplicates.
+            if (sites.size() < MAX_SITES_PER_CLASS) {
+                sites.add(this);
+            }
+        }
+    }
+}
@@ -27,6 +27,7 @@ public class CallerInfo {
     private StackTraceElement[] stacktrace;
     private String calleeClass;
     private String calleeMethod;
+    private CallSiteFilter.CallSite callSite;
 
     public Class getCallerClass() {
         return callerClass;
@@ -67,4 +68,15 @@ public class CallerInfo {
     public void setCalleeMethod(String calleeMethod) {
         this.calleeMethod = calleeMethod;
     }
+
+    /**
+     * @return the call site to mark as seen once the dependency is recorded, or null
+     */
+    public CallSiteFilter.CallSite getCallSite() {
+        return callSite;
+    }
+
+    public void setCallSite(CallSiteFilter.CallSite callSite) {
+        this.callSite = callSite;
+    }
 }
@@ -34,19 +34,28 @@ public interface CallerProvider {
     Optional<GuessCallerInfo> guessCallers(int maxCallerNum);
 
     /**
-     * Get caller by depth
+     * Get the non-JDK caller at the depth with the frame just above it as the callee,
+     * the stack is only walked once, and no deeper than needed.
+     * The call is skipped before walking the stack if it's not sampled, and before building the stacktrace
+     * if the dependency of the call site is already recorded, see {@link CallSiteFilter}.
      *
-     * @param callerDepth
-     * @return
+     * @param callerDepth the depth of the caller, counted from the frame that gets the caller class
+     * @param maxFrames   at most how many frames the stacktrace keeps, starting from the callee
+     * @param detail      what else the callback records with the dependency besides the caller and the callee, or null
+     * @return the caller info, or empty if the caller is a JDK class, the current thread belongs to the agent,
+     * or the call is skipped
      */
-    Optional<Class> getNonJdkCallerByDepth(int callerDepth);
+    Optional<CallerInfo> captureCaller(int callerDepth, int maxFrames, Object detail);
 
     /**
-     * fill caller info with all necessary information.include caller and callee method.
+     * The index of the callee in the stack walked by {@link #captureCaller(int, int, Object)}, where the first frame
+     * is <code>captureCaller</code> itself. <code>callerDepth</code> also counts the frame that gets the caller class,
+     * so the caller is at <code>callerDepth - 1</code> and the callee just above it.
      *
-     * @param callerClass
-     * @param from
-     * @return
+     * @param callerDepth the depth of the caller passed to {@link #captureCaller(int, int, Object)}
+     * @return the index of the callee
      */
-    Optional<CallerInfo> getCallerInfo(Class callerClass, int from);
+    static int calleeFrameIndex(int callerDepth) {
+        return callerDepth - 2;
+    }
 }
@@ -29,9 +29,8 @@ import org.eclipse.emt4j.common.rule.ExecutableRule;
 import org.eclipse.emt4j.common.rule.model.CheckResult;
 import org.eclipse.emt4j.common.rule.model.ConfRuleItem;
 import org.eclipse.emt4j.common.rule.model.ConfRules;
-import org.eclipse.emt4j.common.util.ClassUtil;
-import org.eclipse.emt4j.common.util.FileUtil;
 import org.eclipse.emt4j.common.util.JdkClassUtil;
+import org.eclipse.emt4j.common.util.PackageTrie;
 
 import java.util.*;
 
@@ -44,12 +43,12 @@ import java.util.*;
  * But if a private field or a private method, it need call the "setAccessible" method,
  * so we transform the "java/lang/reflect/AccessibleObject.setAccessible" method.
  */
-@RuleImpl(type = "add-opens")
+@RuleImpl(type = "add-opens", threadSafe = true)
 public class AddOpensRule extends ExecutableRule {
     private String packagesFile;
     private String moduleToPackageFile;
-    protected Map<String, String> exportPackageToModule = new HashMap<>();
-    private Set<String> packageSet = new HashSet<>();
+    protected PackageTrie exportPackageToModule;
+    private PackageTrie packageSet;
     private MethodDesc[] callMethods = new MethodDesc[]{
             new MethodDesc("java/lang/reflect/AccessibleObject", "java.lang.reflect.AccessibleObject", "setAccessible", "(Z)V"),
             new MethodDesc("java/lang/reflect/AccessibleObject", "java.lang.reflect.AccessibleObject", "setAccessible", "([Ljava/lang/reflect/AccessibleObject;Z)V")
@@ -61,28 +60,25 @@ public class AddOpensRule extends ExecutableRule {
 
     @Override
     public void init() {
-        FileUtil.readPlainTextFromResource(confRules.getRuleDataPathPrefix() + moduleToPackageFile, false).forEach((l) -> {
-            String[] arr = l.split(",");
-            exportPackageToModule.put(arr[0].trim(), arr[1].trim());
-        });
-        packageSet.addAll(FileUtil.readPlainTextFromResource(confRules.getRuleDataPathPrefix() + packagesFile, false));
+        exportPackageToModule = PackageTrie.ofPackageToModule(confRules.getRuleDataPathPrefix() + moduleToPackageFile);
+        packageSet = PackageTrie.ofPackages(confRules.getRuleDataPathPrefix() + packagesFile);
         TransformerFactory.register(callMethods[0], (mvp) -> new SetInstanceAccessibleMethodVisitor(mvp));
         TransformerFactory.register(callMethods[1], (mvp) -> new SetStaticAccessibleMethodVisitor(mvp));
     }
 
     @Override
     public CheckResult check(Dependency dependency) {
-        if (!JdkClassUtil.isJdkClass(dependency.getTarget().asClass().getClassName())) {
+        String className = dependency.getTarget().asClass().getClassName();
+        if (!JdkClassUtil.isJdkClass(className)) {
             return CheckResult.PASS;
         }
-        Optional<String> packageName = ClassUtil.getPackage(dependency.getTarget().asClass().getClassName());
-        if (packageName.isPresent()) {
-            String[] modulePackage = matchModule(packageName.get());
-            if (modulePackage != null && packageSet.contains(modulePackage[1])) {
-                return buildAddOpenOption(modulePackage[0], modulePackage[1]);
-            } else {
-                return CheckResult.PASS;
-            }
+        int packageEnd = PackageTrie.packageEnd(className);
+        if (packageEnd == -1) {
+            return CheckResult.PASS;
+        }
+        int matched = exportPackageToModule.longestMatch(className, packageEnd);
+        if (matched != -1 && packageSet.contains(exportPackageToModule.getPackage(matched))) {
+            return buildAddOpenOption(exportPackageToModule.getValue(matched), exportPackageToModule.getPackage(matched));
         } else {
             return CheckResult.PASS;
         }
@@ -95,29 +91,9 @@ public class AddOpensRule extends ExecutableRule {
         return CheckResult.fail(context);
     }
 
-    private String[] matchModule(String packageName) {
-        String currPackage = packageName;
-        String module = exportPackageToModule.get(packageName);
-        if (module == null) {
-            //search to parent package until found module.
-            int index = packageName.lastIndexOf('.');
-            while (index != -1) {
-                currPackage = packageName.substring(0, index);
-                module = exportPackageToModule.get(currPackage);
-                if (module != null) {
-                    return new String[]{module, currPackage};
-                }
-                index = packageName.substring(0, index).lastIndexOf('.');
-            }
-            return null;
-        } else {
-            return new String[]{module, currPackage};
-        }
-    }
-
     @Override
-    public boolean accept(Dependency dependency) {
-        return DependType.METHOD_TO_CLASS_DEEP_REFLECTION == dependency.getDependType();
+    public DependType[] accepts() {
+        return new DependType[]{DependType.METHOD_TO_CLASS_DEEP_REFLECTION};
     }
 
     public void setPackagesFile(String packagesFile) {
@@ -38,7 +38,7 @@ import static org.eclipse.emt4j.common.util.JdkClassUtil.isJdkClass;
 /**
  * Resolved classes.
  */
-@RuleImpl(type = "reference-class", priority = 1)
+@RuleImpl(type = "reference-class", priority = 1, threadSafe = true)
 public class AgentReferenceClassRule extends ReferenceClassRule {
     private String[] omitClassPrefix = new String[]{"sun.reflect.GeneratedMethodAccessor",
             "sun.reflect.GeneratedConstructorAccessor",
@@ -58,9 +58,8 @@ public class AgentReferenceClassRule extends ReferenceClassRule {
     }
 
     @Override
-    public boolean accept(Dependency dependency) {
-        return DependType.CLASS == dependency.getDependType()
-                || DependType.METHOD_TO_CLASS_DEEP_REFLECTION == dependency.getDependType();
+    public DependType[] accepts() {
+        return new DependType[]{DependType.CLASS, DependType.METHOD_TO_CLASS_DEEP_REFLECTION};
     }
 
     private boolean shouldOmit(String normalized) {
@@ -29,7 +29,7 @@ import org.eclipse.emt4j.common.rule.model.ConfRules;
 /**
  * A method was called after transformed.
  */
-@RuleImpl(type = "touched-method", priority = 1)
+@RuleImpl(type = "touched-method", priority = 1, threadSafe = true)
 public class AgentTouchedMethodRule extends TouchedMethodRule {
     public AgentTouchedMethodRule(ConfRuleItem confRuleItem, ConfRules confRules) {
         super(confRuleItem, confRules);
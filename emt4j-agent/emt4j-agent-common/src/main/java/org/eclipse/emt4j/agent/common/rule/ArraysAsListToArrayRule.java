@@ -38,7 +38,7 @@ import java.util.Collections;
  * java.util.Arrays$ArrayList.toArray should return Object array,but there is a bug in JDK8.
  * </p>
  */
-@RuleImpl(type = "arrays-as-list-to-array", priority = 1)
+@RuleImpl(type = "arrays-as-list-to-array", priority = 1, threadSafe = true)
 public class ArraysAsListToArrayRule extends ExecutableRule {
     private static final MethodDesc callMethod = new MethodDesc("java/util/Arrays$ArrayList", "java.util.Arrays$ArrayList", "toArray", "()[Ljava/lang/Object;");
 
@@ -69,7 +69,7 @@ public class ArraysAsListToArrayRule extends ExecutableRule {
     }
 
     @Override
-    public boolean accept(Dependency dependency) {
-        return DependType.METHOD == dependency.getDependType();
+    public DependType[] accepts() {
+        return new DependType[]{DependType.METHOD};
     }
 }
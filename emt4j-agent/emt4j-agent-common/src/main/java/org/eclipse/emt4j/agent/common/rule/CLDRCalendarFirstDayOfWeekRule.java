@@ -32,7 +32,7 @@ import org.eclipse.emt4j.common.rule.model.ConfRules;
 /**
  * java.util.Calendar.getFirstDayOfWeek may have problem if change default locale data to CLDR with some specific locale.
  */
-@RuleImpl(type = "cldr-calendar-getfirstdayofweek", priority = 1)
+@RuleImpl(type = "cldr-calendar-getfirstdayofweek", priority = 1, threadSafe = true)
 public class CLDRCalendarFirstDayOfWeekRule extends ExecutableRule {
 
     private static final MethodDesc callMethod = new MethodDesc("java/util/Calendar", "java.util.Calendar", "getFirstDayOfWeek", "()I");
@@ -52,7 +52,7 @@ public class CLDRCalendarFirstDayOfWeekRule extends ExecutableRule {
     }
 
     @Override
-    public boolean accept(Dependency dependency) {
-        return DependType.METHOD == dependency.getDependType();
+    public DependType[] accepts() {
+        return new DependType[]{DependType.METHOD};
     }
 }
@@ -25,8 +25,9 @@ import org.eclipse.emt4j.common.rule.ExecutableRule;
 import org.eclipse.emt4j.common.rule.model.CheckResult;
 import org.eclipse.emt4j.common.rule.model.ConfRuleItem;
 import org.eclipse.emt4j.common.rule.model.ConfRules;
+import org.eclipse.emt4j.common.util.MethodIndex;
 
-import java.util.stream.Stream;
+import java.util.Arrays;
 
 /**
  * When a process A running with JDK8,it format a string with default formatter,
@@ -34,12 +35,13 @@ import java.util.stream.Stream;
  * use the parse with default formatter,it may have problems.Because the default formatter in JDK8 and JDK11
  * has a subtle difference.
  */
-@RuleImpl(type = "cldr-date-format", priority = 1)
+@RuleImpl(type = "cldr-date-format", priority = 1, threadSafe = true)
 public class CLDRDateFormatRule extends ExecutableRule {
 
     private static final MethodDesc[] callMethods = new MethodDesc[]{
             new MethodDesc("java/text/SimpleDateFormat", "java.text.SimpleDateFormat", "format", "(Ljava/util/Date;Ljava/lang/StringBuffer;Ljava/text/Format$FieldDelegate;)Ljava/lang/StringBuffer;"),
             new MethodDesc("java/text/SimpleDateFormat", "java.text.SimpleDateFormat", "parse", "(Ljava/lang/String;Ljava/text/ParsePosition;)Ljava/util/Date;")};
+    private static final MethodIndex methodIndex = new MethodIndex(Arrays.asList(callMethods));
 
     public CLDRDateFormatRule(ConfRuleItem confRuleItem, ConfRules confRules) {
         super(confRuleItem, confRules);
@@ -54,7 +56,7 @@ public class CLDRDateFormatRule extends ExecutableRule {
 
     @Override
     public CheckResult check(Dependency dependency) {
-        if (Stream.of(callMethods).noneMatch((m) -> m.getMethodIdentifierNoDesc().equals(dependency.getTarget().asMethod().toMethodIdentifierNoDesc()))) {
+        if (!methodIndex.contains(dependency.getTarget().asMethod().getClassName(), dependency.getTarget().asMethod().getMethodName())) {
             return CheckResult.PASS;
         } else {
             return CheckResult.FAIL;
@@ -62,7 +64,7 @@ public class CLDRDateFormatRule extends ExecutableRule {
     }
 
     @Override
-    public boolean accept(Dependency dependency) {
-        return DependType.METHOD == dependency.getDependType();
+    public DependType[] accepts() {
+        return new DependType[]{DependType.METHOD};
     }
 }
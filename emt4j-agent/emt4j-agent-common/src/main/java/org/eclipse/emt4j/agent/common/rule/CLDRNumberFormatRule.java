@@ -28,8 +28,9 @@ import org.eclipse.emt4j.common.rule.ExecutableRule;
 import org.eclipse.emt4j.common.rule.model.CheckResult;
 import org.eclipse.emt4j.common.rule.model.ConfRuleItem;
 import org.eclipse.emt4j.common.rule.model.ConfRules;
+import org.eclipse.emt4j.common.util.MethodIndex;
 
-import java.util.stream.Stream;
+import java.util.Arrays;
 
 /**
  * <pre>
@@ -56,7 +57,7 @@ import java.util.stream.Stream;
  * <p>
  * It a process A running in JDK8,send result to a process running JDK11,it may contain potential problem when parse it.
  */
-@RuleImpl(type = "cldr-number-format", priority = 1)
+@RuleImpl(type = "cldr-number-format", priority = 1, threadSafe = true)
 public class CLDRNumberFormatRule extends ExecutableRule {
 
     private static final MethodDesc[] callMethods = new MethodDesc[]{
@@ -65,6 +66,7 @@ public class CLDRNumberFormatRule extends ExecutableRule {
             new MethodDesc("java/text/DecimalFormat", "java.text.DecimalFormat", "format", "(Ljava/math/BigDecimal;Ljava/lang/StringBuffer;Ljava/text/Format$FieldDelegate;)Ljava/lang/StringBuffer;"),
             new MethodDesc("java/text/DecimalFormat", "java.text.DecimalFormat", "format", "(Ljava/math/BigInteger;Ljava/lang/StringBuffer;Ljava/text/Format$FieldDelegate;Z)Ljava/lang/StringBuffer;"),
             new MethodDesc("java/text/DecimalFormat", "java.text.DecimalFormat", "parse", "(Ljava/lang/String;Ljava/text/ParsePosition;)Ljava/lang/Number;")};
+    private static final MethodIndex methodIndex = new MethodIndex(Arrays.asList(callMethods));
 
     public CLDRNumberFormatRule(ConfRuleItem confRuleItem, ConfRules confRules) {
         super(confRuleItem, confRules);
@@ -79,7 +81,7 @@ public class CLDRNumberFormatRule extends ExecutableRule {
 
     @Override
     public CheckResult check(Dependency dependency) {
-        if (Stream.of(callMethods).noneMatch((m) -> m.getMethodIdentifierNoDesc().equals(dependency.getTarget().asMethod().toMethodIdentifierNoDesc()))) {
+        if (!methodIndex.contains(dependency.getTarget().asMethod().getClassName(), dependency.getTarget().asMethod().getMethodName())) {
             return CheckResult.PASS;
         } else {
             return CheckResult.FAIL;
@@ -87,7 +89,7 @@ public class CLDRNumberFormatRule extends ExecutableRule {
     }
 
     @Override
-    public boolean accept(Dependency dependency) {
-        return DependType.METHOD == dependency.getDependType();
+    public DependType[] accepts() {
+        return new DependType[]{DependType.METHOD};
     }
 }
@@ -33,7 +33,7 @@ import org.eclipse.emt4j.common.rule.model.ConfRules;
  * Java Version schema changed between JDK8 and JDK11.
  * Assume programmer use the System.getProperty with parameters : java.version" or  "java.specification.version" or "java.runtime.version"
  */
-@RuleImpl(type = "get-java-version", priority = 1)
+@RuleImpl(type = "get-java-version", priority = 1, threadSafe = true)
 public class GetJavaVersionRule extends ExecutableRule {
     private static final MethodDesc callMethod = new MethodDesc("java/lang/System", "java.lang.System", "getProperty", "(Ljava/lang/String;)Ljava/lang/String;");
 
@@ -52,7 +52,7 @@ public class GetJavaVersionRule extends ExecutableRule {
     }
 
     @Override
-    public boolean accept(Dependency dependency) {
-        return DependType.METHOD == dependency.getDependType();
+    public DependType[] accepts() {
+        return new DependType[]{DependType.METHOD};
     }
 }
@@ -37,7 +37,7 @@ import org.eclipse.emt4j.common.rule.model.ConfRules;
  *     </code>
  * </pre>
  */
-@RuleImpl(type = "pattern-compile", priority = 1)
+@RuleImpl(type = "pattern-compile", priority = 1, threadSafe = true)
 public class PatternCompileRule extends ExecutableRule {
 
     private static final MethodDesc callMethod = new MethodDesc("java/util/regex/Pattern", "java.util.regex.Pattern", "compile", "(Ljava/lang/String;I)Ljava/util/regex/Pattern;");
@@ -57,7 +57,7 @@ public class PatternCompileRule extends ExecutableRule {
     }
 
     @Override
-    public boolean accept(Dependency dependency) {
-        return DependType.METHOD == dependency.getDependType();
+    public DependType[] accepts() {
+        return new DependType[]{DependType.METHOD};
     }
 }
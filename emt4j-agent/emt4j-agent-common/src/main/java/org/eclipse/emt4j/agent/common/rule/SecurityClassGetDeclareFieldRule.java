@@ -29,17 +29,18 @@ import org.eclipse.emt4j.common.rule.model.CheckResult;
 import org.eclipse.emt4j.common.rule.model.ConfRuleItem;
 import org.eclipse.emt4j.common.rule.model.ConfRules;
 import org.eclipse.emt4j.common.util.FileUtil;
+import org.eclipse.emt4j.common.util.MethodIndex;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Stream;
 
 /**
  * Some fields cannot be reflected in JDK17.
  * Intercept call to java/lang/Class.getField and java/lang/Class.getDeclaredField method,
  * if the current class is on the white list, it may have problems.
  */
-@RuleImpl(type = "get-declare-field", priority = 1)
+@RuleImpl(type = "get-declare-field", priority = 1, threadSafe = true)
 public class SecurityClassGetDeclareFieldRule extends ExecutableRule {
 
     private String classListFile;
@@ -50,6 +51,7 @@ public class SecurityClassGetDeclareFieldRule extends ExecutableRule {
             new MethodDesc("java/lang/Class", "java.lang.Class", "getField", "(Ljava/lang/String;)Ljava/lang/reflect/Field;"),
             new MethodDesc("java/lang/Class", "java.lang.Class", "getDeclaredFields", "()[Ljava/lang/reflect/Field;"),
             new MethodDesc("java/lang/Class", "java.lang.Class", "getFields", "()[Ljava/lang/reflect/Field;")};
+    private static final MethodIndex methodIndex = new MethodIndex(Arrays.asList(callMethods));
 
     public SecurityClassGetDeclareFieldRule(ConfRuleItem confRuleItem, ConfRules confRules) {
         super(confRuleItem, confRules);
@@ -65,7 +67,7 @@ public class SecurityClassGetDeclareFieldRule extends ExecutableRule {
 
     @Override
     public CheckResult check(Dependency dependency) {
-        if (Stream.of(callMethods).noneMatch((m) -> m.getMethodIdentifierNoDesc().equals(dependency.getTarget().asMethod().toMethodIdentifierNoDesc()))) {
+        if (!methodIndex.contains(dependency.getTarget().asMethod().getClassName(), dependency.getTarget().asMethod().getMethodName())) {
             return CheckResult.PASS;
         } else {
             if (dependency.getContext() != null) {
@@ -90,7 +92,7 @@ public class SecurityClassGetDeclareFieldRule extends ExecutableRule {
     }
 
     @Override
-    public boolean accept(Dependency dependency) {
-        return DependType.METHOD == dependency.getDependType();
+    public DependType[] accepts() {
+        return new DependType[]{DependType.METHOD};
     }
 }
@@ -30,9 +30,10 @@ import org.eclipse.emt4j.common.rule.ExecutableRule;
 import org.eclipse.emt4j.common.rule.model.CheckResult;
 import org.eclipse.emt4j.common.rule.model.ConfRuleItem;
 import org.eclipse.emt4j.common.rule.model.ConfRules;
+import org.eclipse.emt4j.common.util.MethodIndex;
 
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.stream.Stream;
 
 /**
  * In JDK8, the system classloader is a subclass of URLClassLoader, so some java code
@@ -43,13 +44,14 @@ import java.util.stream.Stream;
  * We may need to implement a simple interpreter to simulate the program's behaviour. Actually, in the previous version, I implement a
  * interpreter, but it's too slow.
  */
-@RuleImpl(type = "system-classloader-not-a-urlclassloader", priority = 1)
+@RuleImpl(type = "system-classloader-not-a-urlclassloader", priority = 1, threadSafe = true)
 public class SystemClassLoaderRule extends ExecutableRule {
 
     private static final MethodDesc[] callMethods = new MethodDesc[]{
             new MethodDesc("java/lang/Class", "java.lang.Class", "getClassLoader", "()Ljava/lang/ClassLoader;"),
             new MethodDesc("java/lang/ClassLoader", "java.lang.ClassLoader", "getSystemClassLoader", "()Ljava/lang/ClassLoader;"),
             new MethodDesc("java/lang/ClassLoader", "java.lang.ClassLoader", "getParent", "()Ljava/lang/ClassLoader;")};
+    private static final MethodIndex methodIndex = new MethodIndex(Arrays.asList(callMethods));
 
 
     public SystemClassLoaderRule(ConfRuleItem confRuleItem, ConfRules confRules) {
@@ -65,7 +67,7 @@ public class SystemClassLoaderRule extends ExecutableRule {
 
     @Override
     public CheckResult check(Dependency dependency) {
-        if (Stream.of(callMethods).noneMatch((m) -> m.getMethodIdentifierNoDesc().equals(dependency.getTarget().asMethod().toMethodIdentifierNoDesc()))) {
+        if (!methodIndex.contains(dependency.getTarget().asMethod().getClassName(), dependency.getTarget().asMethod().getMethodName())) {
             return CheckResult.PASS;
         }
         if (dependency.getCallerClass() != null && dependency.getCallerMethod() != null) {
@@ -79,7 +81,7 @@ public class SystemClassLoaderRule extends ExecutableRule {
     }
 
     @Override
-    public boolean accept(Dependency dependency) {
-        return DependType.METHOD == dependency.getDependType();
+    public DependType[] accepts() {
+        return new DependType[]{DependType.METHOD};
     }
 }
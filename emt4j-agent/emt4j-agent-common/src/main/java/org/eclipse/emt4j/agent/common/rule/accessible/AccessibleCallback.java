@@ -24,8 +24,12 @@ import org.eclipse.emt4j.agent.common.AgentFacade;
 import org.eclipse.emt4j.agent.common.Constant;
 import org.eclipse.emt4j.agent.common.DependencyBuilder;
 import org.eclipse.emt4j.agent.common.InstrumentCodeCallback;
+import org.eclipse.emt4j.common.Dependency;
 
 import java.lang.reflect.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.eclipse.emt4j.common.util.JdkClassUtil.isJdkClass;
@@ -38,13 +42,17 @@ public class AccessibleCallback extends BaseEnterCallback {
 
     public static void recordStaticAccessible(AccessibleObject[] array, boolean flag) {
         if (flag) {
-            Optional<Class> callerClass = AgentFacade.getCallerProvider().getNonJdkCallerByDepth(Constant.FIRST_NON_AGENT_CALLER_INDEX);
-            if (callerClass.isPresent()) {
-                Optional<CallerInfo> callerInfo = AgentFacade.getCallerProvider().getCallerInfo(callerClass.get(), Constant.CALLEE_INDEX);
+            List<Class<?>> declaringClasses = new ArrayList<>();
+            for (AccessibleObject accessibleObject : array) {
+                Class<?> declaringClass = getJdkDeclaringClass(accessibleObject);
+                if (declaringClass != null) {
+                    declaringClasses.add(declaringClass);
+                }
+            }
+            if (!declaringClasses.isEmpty()) {
+                Optional<CallerInfo> callerInfo = AgentFacade.getCallerProvider().captureCaller(Constant.FIRST_NON_AGENT_CALLER_INDEX, Constant.MAX_STACKTRACE_DEPTH, declaringClasses);
                 if (callerInfo.isPresent()) {
-                    for (AccessibleObject accessibleObject : array) {
-                        recordAccessible(accessibleObject, callerInfo.get());
-                    }
+                    recordAccessible(declaringClasses, callerInfo.get());
                 }
             }
         }
@@ -52,15 +60,22 @@ public class AccessibleCallback extends BaseEnterCallback {
 
     public static void recordInstanceAccessible(AccessibleObject accessibleObject, boolean flag) {
         if (flag) {
-            Optional<Class> callerClass = AgentFacade.getCallerProvider().getNonJdkCallerByDepth(Constant.FIRST_NON_AGENT_CALLER_INDEX);
-            if (callerClass.isPresent()) {
-                Optional<CallerInfo> callerInfo = AgentFacade.getCallerProvider().getCallerInfo(callerClass.get(), Constant.CALLEE_INDEX);
-                recordAccessible(accessibleObject, callerInfo.get());
+            Class<?> declaringClass = getJdkDeclaringClass(accessibleObject);
+            if (declaringClass != null) {
+                Optional<CallerInfo> callerInfo = AgentFacade.getCallerProvider().captureCaller(Constant.FIRST_NON_AGENT_CALLER_INDEX, Constant.MAX_STACKTRACE_DEPTH, declaringClass);
+                if (callerInfo.isPresent()) {
+                    recordAccessible(Collections.singletonList(declaringClass), callerInfo.get());
+                }
             }
         }
     }
 
-    private static void recordAccessible(AccessibleObject accessible, CallerInfo callerInfo) {
+    /**
+     * Checked before getting the caller, so the calls that are not recorded don't walk the stack.
+     *
+     * @return the declaring class if a non-public member of a jdk class is made accessible, otherwise null.
+     */
+    private static Class<?> getJdkDeclaringClass(AccessibleObject accessible) {
         Class<?> declaringClass = null;
         //Test if access a non-public field.
         if (accessible instanceof Executable) {
@@ -68,34 +83,43 @@ public class AccessibleCallback extends BaseEnterCallback {
             if (accessible instanceof Constructor) {
                 Constructor constructor = (Constructor) accessible;
                 if (Modifier.isPublic(constructor.getModifiers())) {
-                    return;
+                    return null;
                 }
             } else if (accessible instanceof Method) {
                 Method method = (Method) accessible;
                 if (Modifier.isPublic(method.getModifiers())) {
-                    return;
+                    return null;
                 }
             }
         } else if (accessible instanceof Field) {
             Field field = (Field) accessible;
             if (Modifier.isPublic(field.getModifiers())) {
-                return;
+                return null;
             }
             declaringClass = ((Field) accessible).getDeclaringClass();
         }
         if (declaringClass != null && !declaringClass.isAnonymousClass() && !declaringClass.isSynthetic()) {
             //we only pay attention to jdk class so that help generate --add-opens to JVM option.
             if (isJdkClass(declaringClass.getName())) {
-                try {
-                    if (!callerInfo.getCallerClass().getName().startsWith(Constant.AGENT_PACKAGE)
-                            && !callerInfo.getCallerClass().getName().startsWith(Constant.COMMON_PACKAGE)) {
-                        AgentFacade.record(DependencyBuilder.buildDeepReflection(callerInfo,
-                                declaringClass.getName(), callerInfo.getStacktrace()));
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
+                return declaringClass;
+            }
+        }
+        return null;
+    }
+
+    private static void recordAccessible(List<Class<?>> declaringClasses, CallerInfo callerInfo) {
+        try {
+            if (!callerInfo.getCallerClass().getName().startsWith(Constant.AGENT_PACKAGE)
+                    && !callerInfo.getCallerClass().getName().startsWith(Constant.COMMON_PACKAGE)) {
+                Dependency[] dependencies = new Dependency[declaringClasses.size()];
+                for (int i = 0; i < dependencies.length; i++) {
+                    dependencies[i] = DependencyBuilder.buildDeepReflection(callerInfo,
+                            declaringClasses.get(i).getName(), callerInfo.getStacktrace());
                 }
+                AgentFacade.record(callerInfo, dependencies);
             }
+        } catch (Exception e) {
+            e.printStackTrace();
         }
     }
 }
@@ -45,12 +45,9 @@ public class CLDRSensitiveEnterCallback extends BaseEnterCallback {
 
     public static void dateTimeEnter(SimpleDateFormat sdf) {
         if (isDefaultFormat(sdf)) {
-            Optional<Class> callerClass = AgentFacade.getCallerProvider().getNonJdkCallerByDepth(Constant.FIRST_NON_AGENT_CALLER_INDEX);
-            if (callerClass.isPresent()) {
-                Optional<CallerInfo> callerInfo = AgentFacade.getCallerProvider().getCallerInfo(callerClass.get(), Constant.CALLEE_INDEX);
-                if (callerInfo.isPresent()) {
-                    AgentFacade.record(DependencyBuilder.buildMethod(callerInfo.get(), callerInfo.get().getCalleeClass(), callerInfo.get().getCalleeMethod()));
-                }
+            Optional<CallerInfo> callerInfo = AgentFacade.getCallerProvider().captureCaller(Constant.FIRST_NON_AGENT_CALLER_INDEX, Constant.MAX_STACKTRACE_DEPTH, null);
+            if (callerInfo.isPresent()) {
+                AgentFacade.record(callerInfo.get(), DependencyBuilder.buildMethod(callerInfo.get(), callerInfo.get().getCalleeClass(), callerInfo.get().getCalleeMethod()));
             }
         }
     }
@@ -61,24 +58,18 @@ public class CLDRSensitiveEnterCallback extends BaseEnterCallback {
     }
 
     public static void getDayOfFirstWeekEnter() {
-        Optional<Class> callerClass = AgentFacade.getCallerProvider().getNonJdkCallerByDepth(Constant.FIRST_NON_AGENT_CALLER_INDEX);
-        if (callerClass.isPresent()) {
-            Optional<CallerInfo> callerInfo = AgentFacade.getCallerProvider().getCallerInfo(callerClass.get(), Constant.CALLEE_INDEX);
-            if (callerInfo.isPresent()) {
-                AgentFacade.record(DependencyBuilder.buildMethod(callerInfo.get(), callerInfo.get().getCalleeClass(), callerInfo.get().getCalleeMethod()));
-            }
+        Optional<CallerInfo> callerInfo = AgentFacade.getCallerProvider().captureCaller(Constant.FIRST_NON_AGENT_CALLER_INDEX, Constant.MAX_STACKTRACE_DEPTH, null);
+        if (callerInfo.isPresent()) {
+            AgentFacade.record(callerInfo.get(), DependencyBuilder.buildMethod(callerInfo.get(), callerInfo.get().getCalleeClass(), callerInfo.get().getCalleeMethod()));
         }
     }
 
     public static void numberFormatEnter(DecimalFormat decimalFormat) {
         // when format with currency.the suffix and prefix not empty.
         if (decimalFormat != null && !(isEmpty(decimalFormat.getPositivePrefix()) && isEmpty(decimalFormat.getPositiveSuffix()))) {
-            Optional<Class> callerClass = AgentFacade.getCallerProvider().getNonJdkCallerByDepth(Constant.FIRST_NON_AGENT_CALLER_INDEX);
-            if (callerClass.isPresent()) {
-                Optional<CallerInfo> callerInfo = AgentFacade.getCallerProvider().getCallerInfo(callerClass.get(), Constant.CALLEE_INDEX);
-                if (callerInfo.isPresent()) {
-                    AgentFacade.record(DependencyBuilder.buildMethod(callerInfo.get(), callerInfo.get().getCalleeClass(), callerInfo.get().getCalleeMethod()));
-                }
+            Optional<CallerInfo> callerInfo = AgentFacade.getCallerProvider().captureCaller(Constant.FIRST_NON_AGENT_CALLER_INDEX, Constant.MAX_STACKTRACE_DEPTH, null);
+            if (callerInfo.isPresent()) {
+                AgentFacade.record(callerInfo.get(), DependencyBuilder.buildMethod(callerInfo.get(), callerInfo.get().getCalleeClass(), callerInfo.get().getCalleeMethod()));
             }
         }
     }
@@ -32,12 +32,9 @@ import static org.eclipse.emt4j.agent.common.DependencyBuilder.buildMethod;
 @InstrumentCodeCallback
 public class GetDeclareFieldCallback extends BaseEnterCallback {
     public static void enter(Object thisObject) {
-        Optional<Class> callerClass = AgentFacade.getCallerProvider().getNonJdkCallerByDepth(Constant.FIRST_NON_AGENT_CALLER_INDEX);
-        if (callerClass.isPresent()) {
-            Optional<CallerInfo> callerInfo = AgentFacade.getCallerProvider().getCallerInfo(callerClass.get(), Constant.CALLEE_INDEX);
-            if (callerInfo.isPresent()) {
-                AgentFacade.record(buildMethod(callerInfo.get(), callerInfo.get().getCalleeClass(), callerInfo.get().getCalleeMethod(), Collections.singletonMap("thisObject", thisObject)));
-            }
+        Optional<CallerInfo> callerInfo = AgentFacade.getCallerProvider().captureCaller(Constant.FIRST_NON_AGENT_CALLER_INDEX, Constant.MAX_STACKTRACE_DEPTH, thisObject);
+        if (callerInfo.isPresent()) {
+            AgentFacade.record(callerInfo.get(), buildMethod(callerInfo.get(), callerInfo.get().getCalleeClass(), callerInfo.get().getCalleeMethod(), Collections.singletonMap("thisObject", thisObject)));
         }
     }
 }
@@ -41,16 +41,21 @@ public class GetJavaVersionCallback extends BaseEnterCallback {
         if (key != null && !key.isEmpty() && key.charAt(0) != 'j') {
             return;
         }
-        Optional<Class> callerClass = AgentFacade.getCallerProvider().getNonJdkCallerByDepth(Constant.FIRST_NON_AGENT_CALLER_INDEX);
-        if (callerClass.isPresent() && isNotMySelf(callerClass.get())) {
-            Optional<CallerInfo> callerInfo = AgentFacade.getCallerProvider().getCallerInfo(callerClass.get(), Constant.CALLEE_INDEX);
-            if (callerInfo.isPresent()) {
-                for (String jdkVersionKey : ALL_PROPERTY_KEY) {
-                    if (jdkVersionKey.equals(key)) {
-                        AgentFacade.record(DependencyBuilder.buildMethod(callerInfo.get(), callerInfo.get().getCalleeClass(), callerInfo.get().getCalleeMethod()));
-                    }
-                }
+        if (!isJdkVersionKey(key)) {
+            return;
+        }
+        Optional<CallerInfo> callerInfo = AgentFacade.getCallerProvider().captureCaller(Constant.FIRST_NON_AGENT_CALLER_INDEX, Constant.MAX_STACKTRACE_DEPTH, null);
+        if (callerInfo.isPresent() && isNotMySelf(callerInfo.get().getCallerClass())) {
+            AgentFacade.record(callerInfo.get(), DependencyBuilder.buildMethod(callerInfo.get(), callerInfo.get().getCalleeClass(), callerInfo.get().getCalleeMethod()));
+        }
+    }
+
+    private static boolean isJdkVersionKey(String key) {
+        for (String jdkVersionKey : ALL_PROPERTY_KEY) {
+            if (jdkVersionKey.equals(key)) {
+                return true;
             }
         }
+        return false;
     }
 }
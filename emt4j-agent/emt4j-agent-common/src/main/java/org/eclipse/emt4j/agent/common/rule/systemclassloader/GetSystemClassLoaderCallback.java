@@ -34,12 +34,9 @@ public class GetSystemClassLoaderCallback extends BaseEnterCallback {
 
     public static void enter(ClassLoader classLoader) {
         if (classLoader != null && SystemClassLoaderIReference.isSystemClassLoader(classLoader)) {
-            Optional<Class> callerClass = AgentFacade.getCallerProvider().getNonJdkCallerByDepth(Constant.FIRST_NON_AGENT_CALLER_INDEX);
-            if (callerClass.isPresent()) {
-                Optional<CallerInfo> callerInfo = AgentFacade.getCallerProvider().getCallerInfo(callerClass.get(), Constant.CALLEE_INDEX);
-                if (callerInfo.isPresent()) {
-                    AgentFacade.record(DependencyBuilder.buildMethod(callerInfo.get(), callerInfo.get().getCalleeClass(), callerInfo.get().getCalleeMethod()));
-                }
+            Optional<CallerInfo> callerInfo = AgentFacade.getCallerProvider().captureCaller(Constant.FIRST_NON_AGENT_CALLER_INDEX, Constant.MAX_STACKTRACE_DEPTH, null);
+            if (callerInfo.isPresent()) {
+                AgentFacade.record(callerInfo.get(), DependencyBuilder.buildMethod(callerInfo.get(), callerInfo.get().getCalleeClass(), callerInfo.get().getCalleeMethod()));
             }
         }
     }
@@ -0,0 +1,128 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.agent.common.file;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestMpscRingBuffer {
+
+    @Test
+    public void testCapacity() {
+        assertEquals(8, new MpscRingBuffer<Integer>(5).capacity());
+        assertEquals(8, new MpscRingBuffer<Integer>(8).capacity());
+    }
+
+    @Test
+    public void testFull() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(Integer.valueOf(0), buffer.poll());
+        assertTrue(buffer.offer(4));
+        assertFalse(buffer.offer(5));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(Integer.valueOf(i), buffer.poll());
+        }
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    public void testWraparound() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        int next = 0;
+        int expected = 0;
+        // go around the buffer many times with a different number of elements in it each time
+        for (int round = 0; round < 1000; round++) {
+            int count = round % 4 + 1;
+            for (int i = 0; i < count; i++) {
+                assertTrue(buffer.offer(next++));
+            }
+            for (int i = 0; i < count; i++) {
+                assertEquals(Integer.valueOf(expected++), buffer.poll());
+            }
+            assertNull(buffer.poll());
+        }
+    }
+
+    @Test
+    public void testPollTimeout() throws InterruptedException {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        long start = System.nanoTime();
+        assertNull(buffer.poll(50, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void testMultipleProducers() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 100000;
+        // small enough that the producers often find the buffer full and wrap around many times
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!buffer.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+
+        // each producer's elements are taken exactly once and in the order they are put
+        int[] next = new int[producers];
+        for (int taken = 0; taken < producers * perProducer; taken++) {
+            long[] element = buffer.poll(10, TimeUnit.SECONDS);
+            if (element == null) {
+                throw new AssertionError("Nothing taken after " + taken + " elements");
+            }
+            assertEquals(next[(int) element[0]]++, element[1]);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(buffer.poll());
+        for (int count : next) {
+            assertEquals(perProducer, count);
+        }
+    }
+}
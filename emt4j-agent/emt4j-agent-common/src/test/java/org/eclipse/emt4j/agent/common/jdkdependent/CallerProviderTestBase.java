@@ -0,0 +1,91 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.agent.common.jdkdependent;
+
+import org.eclipse.emt4j.agent.common.Constant;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The tests that each JDK dependent <code>CallerProvider</code> must pass, a JDK module only provides its provider.
+ */
+public abstract class CallerProviderTestBase {
+    private final CallerProvider provider = newProvider();
+
+    protected abstract CallerProvider newProvider();
+
+    /**
+     * Stands for the instrumented JDK method.
+     */
+    private static class Callee {
+        static CallerInfo call(CallerProvider provider, Object detail) {
+            return Callback.callback(provider, detail);
+        }
+    }
+
+    /**
+     * Stands for the callback that the instrumented method calls first.
+     */
+    private static class Callback {
+        static CallerInfo callback(CallerProvider provider, Object detail) {
+            return provider.captureCaller(Constant.FIRST_NON_AGENT_CALLER_INDEX, Constant.MAX_STACKTRACE_DEPTH, detail)
+                    .orElse(null);
+        }
+    }
+
+    @Test
+    public void testCaptureCaller() {
+        CallerInfo callerInfo = Callee.call(provider, "testCaptureCaller");
+        assertNotNull(callerInfo);
+        assertEquals(CallerProviderTestBase.class, callerInfo.getCallerClass());
+        assertEquals("testCaptureCaller", callerInfo.getCallerMethod());
+        assertEquals(Callee.class.getName(), callerInfo.getCalleeClass());
+        assertEquals("call", callerInfo.getCalleeMethod());
+
+        StackTraceElement[] stacktrace = callerInfo.getStacktrace();
+        assertTrue(stacktrace.length >= 2 && stacktrace.length <= Constant.MAX_STACKTRACE_DEPTH);
+        assertEquals(Callee.class.getName(), stacktrace[0].getClassName());
+        assertEquals("call", stacktrace[0].getMethodName());
+        assertEquals(CallerProviderTestBase.class.getName(), stacktrace[1].getClassName());
+        assertEquals("testCaptureCaller", stacktrace[1].getMethodName());
+    }
+
+    @Test
+    public void testSeenCallSite() {
+        CallerInfo first = null;
+        for (int i = 0; i < 3; i++) {
+            CallerInfo callerInfo = Callee.call(provider, "testSeenCallSite");
+            if (i < 2) {
+                // captured again until its dependency is taken
+                assertNotNull(callerInfo);
+                assertNotNull(callerInfo.getCallSite());
+                first = callerInfo;
+            } else {
+                assertNull(callerInfo);
+            }
+            if (i == 1) {
+                first.getCallSite().seen();
+            }
+        }
+    }
+}
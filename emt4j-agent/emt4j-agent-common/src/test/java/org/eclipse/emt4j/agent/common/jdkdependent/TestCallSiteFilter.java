@@ -0,0 +1,134 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.agent.common.jdkdependent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestCallSiteFilter {
+
+    // each test uses its own caller class, so the sites of one test don't leak into another.
+    private static class SeenCaller {
+    }
+
+    private static class CollisionCaller {
+    }
+
+    private static class DetailCaller {
+    }
+
+    private static class LimitCaller {
+    }
+
+    private static class ConcurrentCaller {
+    }
+
+    @Test
+    public void testUnseenUntilSeen() {
+        CallSiteFilter.CallSite site = CallSiteFilter.unseen(SeenCaller.class, "run", "java.lang.Thread", "stop", null);
+        assertNotNull(site);
+        // the dependency is not taken yet, so it's captured again
+        assertNotNull(CallSiteFilter.unseen(SeenCaller.class, "run", "java.lang.Thread", "stop", null));
+        site.seen();
+        assertNull(CallSiteFilter.unseen(SeenCaller.class, "run", "java.lang.Thread", "stop", null));
+        assertNotNull(CallSiteFilter.unseen(SeenCaller.class, "run", "java.lang.Thread", "stop", "detail"));
+        assertNotNull(CallSiteFilter.unseen(SeenCaller.class, "run", "java.lang.Thread", "resume", null));
+    }
+
+    @Test
+    public void testHashCollision() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        CallSiteFilter.unseen(CollisionCaller.class, "Aa", "java.lang.Thread", "stop", "Aa").seen();
+        assertNull(CallSiteFilter.unseen(CollisionCaller.class, "Aa", "java.lang.Thread", "stop", "Aa"));
+        assertNotNull(CallSiteFilter.unseen(CollisionCaller.class, "BB", "java.lang.Thread", "stop", "Aa"));
+        assertNotNull(CallSiteFilter.unseen(CollisionCaller.class, "Aa", "java.lang.Thread", "resume", "Aa"));
+        assertNotNull(CallSiteFilter.unseen(CollisionCaller.class, "Aa", "java.lang.Thread", "stop", "Ab"));
+    }
+
+    @Test
+    public void testEqualDetail() {
+        CallSiteFilter.unseen(DetailCaller.class, "run", "java.lang.Thread", "stop", Arrays.asList(String.class, List.class)).seen();
+        // a new detail object that equals the seen one is the same call site
+        assertNull(CallSiteFilter.unseen(DetailCaller.class, "run", "java.lang.Thread", "stop", Arrays.asList(String.class, List.class)));
+        assertNotNull(CallSiteFilter.unseen(DetailCaller.class, "run", "java.lang.Thread", "stop", Arrays.asList(String.class)));
+    }
+
+    @Test
+    public void testLimit() {
+        for (int i = 0; i < CallSiteFilter.MAX_SITES_PER_CLASS; i++) {
+            CallSiteFilter.unseen(LimitCaller.class, "m" + i, "java.lang.Thread", "stop", null).seen();
+        }
+        assertNull(CallSiteFilter.unseen(LimitCaller.class, "m0", "java.lang.Thread", "stop", null));
+        CallSiteFilter.CallSite site = CallSiteFilter.unseen(LimitCaller.class, "more", "java.lang.Thread", "stop", null);
+        assertNotNull(site);
+        site.seen();
+        assertNotNull(CallSiteFilter.unseen(LimitCaller.class, "more", "java.lang.Thread", "stop", null));
+    }
+
+    @Test
+    public void testConcurrent() throws InterruptedException {
+        final int sites = 1000;
+        final int threads = 8;
+        AtomicIntegerArray captured = new AtomicIntegerArray(sites);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int round = 0; round < 3; round++) {
+                    for (int i = 0; i < sites; i++) {
+                        int index = (i + offset * 97) % sites;
+                        CallSiteFilter.CallSite site = CallSiteFilter.unseen(ConcurrentCaller.class, "m" + index,
+                                "java.lang.Thread", "stop", index);
+                        if (site != null) {
+                            captured.incrementAndGet(index);
+                            site.seen();
+                        }
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        for (int i = 0; i < sites; i++) {
+            assertTrue(captured.get(i) >= 1);
+            assertTrue(captured.get(i) <= threads);
+            assertNull(CallSiteFilter.unseen(ConcurrentCaller.class, "m" + i, "java.lang.Thread", "stop", i));
+        }
+    }
+}
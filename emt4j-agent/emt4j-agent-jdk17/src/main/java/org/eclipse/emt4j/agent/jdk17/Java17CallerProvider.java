@@ -19,14 +19,14 @@
 package org.eclipse.emt4j.agent.jdk17;
 
 import org.eclipse.emt4j.agent.common.Constant;
+import org.eclipse.emt4j.agent.common.jdkdependent.CallSiteFilter;
 import org.eclipse.emt4j.agent.common.jdkdependent.CallerInfo;
 import org.eclipse.emt4j.agent.common.jdkdependent.CallerProvider;
 import org.eclipse.emt4j.agent.common.jdkdependent.GuessCallerInfo;
 import org.eclipse.emt4j.common.util.MutableInteger;
-import org.eclipse.emt4j.common.util.MutableObject;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,25 +35,32 @@ import static org.eclipse.emt4j.common.util.JdkClassUtil.isJdkClass;
 
 public class Java17CallerProvider implements CallerProvider {
 
+    private static final StackWalker WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
     @Override
     public Optional<GuessCallerInfo> guessCallers(int maxCallerNum) {
-        if (Constant.AGENT_REPORT_WRITE_THREAD.equals(Thread.currentThread().getName())) {
+        if (Constant.isAgentThread(Thread.currentThread())) {
             return Optional.empty();
         }
-        StackWalker walker = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
         List<StackTraceElement> stackTrace = new ArrayList<>();
         MutableInteger foundNum = new MutableInteger();
         Class[] callerClass = new Class[maxCallerNum];
-        walker.forEach((f) -> {
-            if (foundNum.getValue() < maxCallerNum) {
-                if (!f.getClassName().startsWith(AGENT_PACKAGE)
-                        && !f.getClassName().startsWith(COMMON_PACKAGE)
-                        && !isJdkClass(f.getClassName())) {
-                    callerClass[foundNum.getValue()] = f.getDeclaringClass();
-                    foundNum.inc();
+        WALKER.walk((s) -> {
+            Iterator<StackWalker.StackFrame> frames = s.iterator();
+            // stop when all callers are found, but keep enough frames to see how the class is loaded.
+            while (frames.hasNext() && (foundNum.getValue() < maxCallerNum || stackTrace.size() < MAX_STACKTRACE_DEPTH)) {
+                StackWalker.StackFrame f = frames.next();
+                if (foundNum.getValue() < maxCallerNum) {
+                    if (!f.getClassName().startsWith(AGENT_PACKAGE)
+                            && !f.getClassName().startsWith(COMMON_PACKAGE)
+                            && !isJdkClass(f.getClassName())) {
+                        callerClass[foundNum.getValue()] = f.getDeclaringClass();
+                        foundNum.inc();
+                    }
                 }
+                stackTrace.add(f.toStackTraceElement());
             }
-            stackTrace.add(f.toStackTraceElement());
+            return null;
         });
         if (foundNum.getValue() == 0) {
             return Optional.empty();
@@ -66,40 +73,43 @@ public class Java17CallerProvider implements CallerProvider {
     }
 
     @Override
-    public Optional<Class> getNonJdkCallerByDepth(int callerDepth) {
-        if (Constant.AGENT_REPORT_WRITE_THREAD.equals(Thread.currentThread().getName())) {
+    public Optional<CallerInfo> captureCaller(int callerDepth, int maxFrames, Object detail) {
+        if (!CallSiteFilter.sampled() || Constant.isAgentThread(Thread.currentThread())) {
             return Optional.empty();
         }
 
-        StackWalker walker = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
-        MutableInteger counter = new MutableInteger();
-        MutableObject<Class> callerClass = new MutableObject<>();
-        walker.forEach((f) -> {
-            counter.inc();
-            if (counter.getValue() == callerDepth) {
-                callerClass.setValue(f.getDeclaringClass());
+        return Optional.ofNullable(WALKER.walk((s) -> {
+            Iterator<StackWalker.StackFrame> frames = s.skip(CallerProvider.calleeFrameIndex(callerDepth)).limit(Math.max(maxFrames, 2)).iterator();
+            if (!frames.hasNext()) {
+                return null;
             }
-        });
-        if (callerClass.getValue() == null || isJdkClass(callerClass.getValue().getName())) {
-            return Optional.empty();
-        }
-        return Optional.of(callerClass.getValue());
-    }
-
-    @Override
-    public Optional<CallerInfo> getCallerInfo(Class callerClass, int from) {
-        StackTraceElement[] stacktrace = Thread.currentThread().getStackTrace();
-        for (StackTraceElement st : stacktrace) {
-            if (st.getClassName().equals(callerClass.getName())) {
-                CallerInfo callerInfo = new CallerInfo();
-                callerInfo.setCallerClass(callerClass);
-                callerInfo.setCallerMethod(st.getMethodName());
-                callerInfo.setCalleeClass(stacktrace[from].getClassName());
-                callerInfo.setCalleeMethod(stacktrace[from].getMethodName());
-                callerInfo.setStacktrace(Arrays.copyOfRange(stacktrace, from, stacktrace.length));
-                return Optional.of(callerInfo);
+            StackWalker.StackFrame callee = frames.next();
+            if (!frames.hasNext()) {
+                return null;
             }
-        }
-        return Optional.empty();
+            StackWalker.StackFrame caller = frames.next();
+            if (isJdkClass(caller.getClassName())) {
+                return null;
+            }
+            CallSiteFilter.CallSite callSite = CallSiteFilter.unseen(caller.getDeclaringClass(), caller.getMethodName(),
+                    callee.getClassName(), callee.getMethodName(), detail);
+            if (callSite == null) {
+                return null;
+            }
+            List<StackTraceElement> stacktrace = new ArrayList<>(Math.max(maxFrames, 2));
+            stacktrace.add(callee.toStackTraceElement());
+            stacktrace.add(caller.toStackTraceElement());
+            while (frames.hasNext()) {
+                stacktrace.add(frames.next().toStackTraceElement());
+            }
+            CallerInfo callerInfo = new CallerInfo();
+            callerInfo.setCallerClass(caller.getDeclaringClass());
+            callerInfo.setCallerMethod(caller.getMethodName());
+            callerInfo.setCalleeClass(callee.getClassName());
+            callerInfo.setCalleeMethod(callee.getMethodName());
+            callerInfo.setStacktrace(stacktrace.toArray(new StackTraceElement[stacktrace.size()]));
+            callerInfo.setCallSite(callSite);
+            return callerInfo;
+        }));
     }
 }
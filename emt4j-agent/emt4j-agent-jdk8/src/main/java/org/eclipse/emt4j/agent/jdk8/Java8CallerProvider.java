@@ -19,12 +19,16 @@
 package org.eclipse.emt4j.agent.jdk8;
 
 import org.eclipse.emt4j.agent.common.Constant;
+import org.eclipse.emt4j.agent.common.jdkdependent.CallSiteFilter;
 import org.eclipse.emt4j.agent.common.jdkdependent.CallerInfo;
 import org.eclipse.emt4j.agent.common.jdkdependent.CallerProvider;
 import org.eclipse.emt4j.agent.common.jdkdependent.GuessCallerInfo;
+import sun.misc.JavaLangAccess;
+import sun.misc.SharedSecrets;
 import sun.reflect.Reflection;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.eclipse.emt4j.agent.common.Constant.*;
@@ -34,9 +38,11 @@ import static org.eclipse.emt4j.common.util.JdkClassUtil.isJdkClass;
  * JDK 8 implementation of CallerProvider
  */
 public class Java8CallerProvider implements CallerProvider {
+    private static final JavaLangAccess JLA = SharedSecrets.getJavaLangAccess();
+
     @Override
     public Optional<GuessCallerInfo> guessCallers(int maxCallerNum) {
-        if (Constant.AGENT_REPORT_WRITE_THREAD.equals(Thread.currentThread().getName())) {
+        if (Constant.isAgentThread(Thread.currentThread())) {
             return Optional.empty();
         }
 
@@ -89,8 +95,8 @@ public class Java8CallerProvider implements CallerProvider {
     }
 
     @Override
-    public Optional<Class> getNonJdkCallerByDepth(int callerDepth) {
-        if (Constant.AGENT_REPORT_WRITE_THREAD.equals(Thread.currentThread().getName())) {
+    public Optional<CallerInfo> captureCaller(int callerDepth, int maxFrames, Object detail) {
+        if (!CallSiteFilter.sampled() || Constant.isAgentThread(Thread.currentThread())) {
             return Optional.empty();
         }
 
@@ -98,23 +104,41 @@ public class Java8CallerProvider implements CallerProvider {
         if (callerClass == null || isJdkClass(callerClass.getName())) {
             return Optional.empty();
         }
-        return Optional.of(callerClass);
-    }
 
-    @Override
-    public Optional<CallerInfo> getCallerInfo(Class callerClass, int from) {
-        StackTraceElement[] stacktrace = Thread.currentThread().getStackTrace();
-        for (StackTraceElement st : stacktrace) {
-            if (st.getClassName().equals(callerClass.getName())) {
-                CallerInfo callerInfo = new CallerInfo();
-                callerInfo.setCallerClass(callerClass);
-                callerInfo.setCallerMethod(st.getMethodName());
-                callerInfo.setCalleeClass(stacktrace[from].getClassName());
-                callerInfo.setCalleeMethod(stacktrace[from].getMethodName());
-                callerInfo.setStacktrace(Arrays.copyOfRange(stacktrace, from, stacktrace.length));
-                return Optional.of(callerInfo);
+        // only the frames that are needed are converted to StackTraceElement.
+        Throwable throwable = new Throwable();
+        int depth = JLA.getStackTraceDepth(throwable);
+        int from = CallerProvider.calleeFrameIndex(callerDepth);
+        List<StackTraceElement> frames = new ArrayList<>();
+        String callerMethod = null;
+        //the frames are not one-to-one with Reflection.getCallerClass, so find the caller by its name
+        for (int i = from; i < depth && callerMethod == null; i++) {
+            StackTraceElement element = JLA.getStackTraceElement(throwable, i);
+            frames.add(element);
+            if (i > from && element.getClassName().equals(callerClass.getName())) {
+                callerMethod = element.getMethodName();
             }
         }
-        return Optional.empty();
+        if (callerMethod == null) {
+            return Optional.empty();
+        }
+        StackTraceElement callee = frames.get(0);
+        CallSiteFilter.CallSite callSite = CallSiteFilter.unseen(callerClass, callerMethod, callee.getClassName(), callee.getMethodName(), detail);
+        if (callSite == null) {
+            return Optional.empty();
+        }
+        int frameNum = Math.max(maxFrames, 2);
+        for (int i = from + frames.size(); i < depth && frames.size() < frameNum; i++) {
+            frames.add(JLA.getStackTraceElement(throwable, i));
+        }
+        List<StackTraceElement> kept = frames.size() > frameNum ? frames.subList(0, frameNum) : frames;
+        CallerInfo callerInfo = new CallerInfo();
+        callerInfo.setCallerClass(callerClass);
+        callerInfo.setCallerMethod(callerMethod);
+        callerInfo.setCalleeClass(callee.getClassName());
+        callerInfo.setCalleeMethod(callee.getMethodName());
+        callerInfo.setStacktrace(kept.toArray(new StackTraceElement[kept.size()]));
+        callerInfo.setCallSite(callSite);
+        return Optional.of(callerInfo);
     }
 }
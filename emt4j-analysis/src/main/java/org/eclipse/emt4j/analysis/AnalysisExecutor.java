@@ -18,22 +18,47 @@
  ********************************************************************************/
 package org.eclipse.emt4j.analysis;
 
+import org.eclipse.emt4j.analysis.analyzer.AnalysisHandler;
+import org.eclipse.emt4j.analysis.analyzer.AnalysisTask;
+import org.eclipse.emt4j.analysis.analyzer.BoundedStage;
+import org.eclipse.emt4j.analysis.analyzer.DependencyAnalyzer;
+import org.eclipse.emt4j.analysis.analyzer.PipelineStage;
+import org.eclipse.emt4j.analysis.cache.CachedRecord;
+import org.eclipse.emt4j.analysis.cache.CachedResult;
+import org.eclipse.emt4j.analysis.cache.IncrementalManifest;
+import org.eclipse.emt4j.analysis.cache.JarResultCache;
+import org.eclipse.emt4j.analysis.cache.ResultStore;
 import org.eclipse.emt4j.analysis.common.util.Progress;
 import org.eclipse.emt4j.analysis.source.DependencySource;
 import org.eclipse.emt4j.common.CheckConfig;
 import org.eclipse.emt4j.common.DependType;
 import org.eclipse.emt4j.common.Dependency;
+import org.eclipse.emt4j.common.DependencyDeduplicator;
+import org.eclipse.emt4j.common.DependencyFingerprint;
 import org.eclipse.emt4j.common.Feature;
+import org.eclipse.emt4j.common.SourceInformation;
+import org.eclipse.emt4j.common.classanalyze.ClassInspectorInstance;
 import org.eclipse.emt4j.common.rule.ExecutableRule;
 import org.eclipse.emt4j.common.rule.InstanceRuleManager;
+import org.eclipse.emt4j.common.rule.RuleEvaluator;
+import org.eclipse.emt4j.common.rule.RuleEvaluator.Evaluation;
 import org.eclipse.emt4j.common.rule.model.ReportCheckResult;
 import org.eclipse.emt4j.common.util.ClassURL;
+import org.eclipse.emt4j.common.util.SymbolTable;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 /**
  * Pipeline abstract the process to
@@ -50,6 +75,12 @@ public class AnalysisExecutor {
 
     private CheckConfig checkConfig;
 
+    /**
+     * The dependencies are checked on the rule stage at the same time, so a rule that is not thread-safe is
+     * only called by one thread at a time.
+     */
+    private final RuleEvaluator ruleEvaluator = new RuleEvaluator();
+
     public AnalysisExecutor(CheckConfig checkConfig) {
         this.checkConfig = checkConfig;
     }
@@ -69,7 +100,9 @@ public class AnalysisExecutor {
     /**
      * <ul>
      *     <li>Initialize the rule list</li>
-     *     <li>Analysis all dependencies, then call the rule for each </li>
+     *     <li>Split all sources into tasks, and analysis them on a pool with {@link CheckConfig#getThreads()} workers</li>
+     *     <li>Call the rule for each dependency on {@link CheckConfig#getRuleThreads()} other workers, a bounded queue
+     *     between them slows down the analysis if the rules can't keep up</li>
      *     <li>Generate the report </li>
      * </ul>
      *
@@ -80,67 +113,356 @@ public class AnalysisExecutor {
     public void execute(List<Feature> featureList, Progress parentProgress) throws IOException {
         log("[Begin]Analysis");
         ClassURL.registerUrlProtocolHandler();
+        ClassInspectorInstance.setFastSymbol(checkConfig.isFastSymbol());
         InstanceRuleManager.init(RULE_CLASS, new ArrayList<>(featureList).toArray(new Feature[featureList.size()]),
                 new String[]{"class", "source"},
                 checkConfig.getFromVersion(), checkConfig.getToVersion(), checkConfig.getPriority());
         analysisOutputConsumer.onBegin(checkConfig, featureList);
 
-        Set<Integer> alreadyChecked = new ConcurrentSkipListSet<>();
+        // a dependency may be found by more than one task, only check it once.
+        DependencyDeduplicator alreadyChecked = new DependencyDeduplicator();
+        // the dependencies that are checked or being checked but not written yet.
+        Map<DependencyFingerprint, CompletableFuture<List<PendingRecord>>> checkedRecords = new ConcurrentHashMap<>();
+        String cacheContext = cacheContext(featureList);
+        JarResultCache cache = checkConfig.getCacheDir() == null ? null
+                : new JarResultCache(new File(checkConfig.getCacheDir()), checkConfig.getCacheSize(), cacheContext);
+        IncrementalManifest manifest = checkConfig.getIncrementalManifest() == null ? null
+                : IncrementalManifest.load(new File(checkConfig.getIncrementalManifest()), cacheContext);
+        // read and parse on the pool, check the dependencies with the rules on the rule stage, so they overlap.
+        PipelineStage.resetAll();
+        long begin = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(checkConfig.getThreads());
+        BoundedStage ruleStage = new BoundedStage("emt4j-rule", checkConfig.getRuleThreads(),
+                checkConfig.getRuleThreads() * RULE_QUEUE_SIZE_PER_THREAD);
+        boolean drained = false;
+        // the class symbols are only used in this run
+        SymbolTable.openScope();
+        try {
+            List<ForkJoinTask<List<Occurrence>>> sourceTasks = new ArrayList<>();
+            for (DependencySource source : sourceList) {
+                sourceTasks.add(pool.submit(new AnalysisTask<Occurrence>(source.desc(), new SourceHandler(source, alreadyChecked, checkedRecords, ruleStage, cache, manifest)) {
+                    @Override
+                    protected void analyze(Consumer<Dependency> consumer, List<AnalysisTask<Occurrence>> subTasks) throws Exception {
+                        subTasks.addAll(source.split(getHandler()));
+                    }
+                }));
+            }
 
-        sourceList.parallelStream().forEach(
-                source -> {
-                    try {
-                        source.parse((d) -> {
-                            try {
-                                int hashCode = d.hashCode();
-                                if (alreadyChecked.contains(hashCode) || !alreadyChecked.add(hashCode)) {
-                                    return;
-                                }
-                                for (ExecutableRule rule : InstanceRuleManager.getRuleInstanceList()) {
-                                    if (rule.shouldAccept(d)) {
-                                        ReportCheckResult checkResult = rule.execute(d);
-                                        if (!checkResult.isPass()) {
-                                            if (checkResult.getPropagated().isEmpty()) {
-                                                analysisOutputConsumer.onNewRecord(d, checkResult, rule, source.getInformation());
-                                            } else {
-                                                for (Dependency newDependency : checkResult.getPropagated()) {
-                                                    analysisOutputConsumer.onNewRecord(newDependency, checkResult, rule, source.getInformation());
-                                                }
-                                            }
-                                        }
-                                    }
-                                }
-                                if (d.getDependType() == DependType.CODE_SOURCE || d.getDependType() == DependType.VM_OPTION) {
-                                    analysisOutputConsumer.onNewRecord(d, null, null, source.getInformation());
-                                }
-                            } catch (Throwable t) {
-                                System.err.println("Failed to analyze " + source.getFile().getName());
-                                t.printStackTrace();
-                            }
-                        }, null);
-                        syncPrint("  Analyze " + source.getFile().getName() + " done");
-                    } catch (Throwable t) {
-                        System.err.println("Failed to analyze " + source.getFile().getName());
-                        t.printStackTrace();
+            // write each source once it's done and in the order of sources, while the later sources are still analyzed,
+            // so the output is the same no matter which task checked a dependency first.
+            DependencyDeduplicator alreadyWritten = new DependencyDeduplicator();
+            for (int i = 0; i < sourceList.size(); i++) {
+                DependencySource source = sourceList.get(i);
+                List<Occurrence> occurrences;
+                try {
+                    occurrences = sourceTasks.get(i).join();
+                    syncPrint("  Analyze " + source.getFile().getName() + " done");
+                } catch (Throwable t) {
+                    System.err.println("Failed to analyze " + source.getFile().getName());
+                    t.printStackTrace();
+                    continue;
+                }
+                // don't keep the occurrences of the sources written
+                sourceTasks.set(i, null);
+                for (Occurrence occurrence : occurrences) {
+                    // the records are not needed any more after the first occurrence, even if it's a cached one
+                    CompletableFuture<List<PendingRecord>> checked = checkedRecords.remove(occurrence.fingerprint);
+                    if (alreadyWritten.firstSeen(occurrence.fingerprint.getHigh(), occurrence.fingerprint.getLow())) {
+                        if (occurrence.records != null) {
+                            // written from the cache, so a later source doesn't check it or put its records again
+                            alreadyChecked.firstSeen(occurrence.fingerprint.getHigh(), occurrence.fingerprint.getLow());
+                        }
+                        List<PendingRecord> records = occurrence.records != null ? occurrence.records : join(checked, source);
+                        for (PendingRecord record : records) {
+                            long start = System.nanoTime();
+                            analysisOutputConsumer.onNewRecord(record.dependency, record.checkResult, record.rule, occurrence.information);
+                            PipelineStage.OUTPUT.done(start);
+                        }
                     }
                 }
-        );
+            }
+            try {
+                ruleStage.drain();
+                drained = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        } finally {
+            pool.shutdown();
+            if (!drained) {
+                ruleStage.shutdownNow();
+            }
+            if (cache != null) {
+                cache.evict();
+            }
+            SymbolTable.closeScope();
+        }
+        if (manifest != null) {
+            log("Incremental: " + manifest.getReused() + " class files reused, " + manifest.getAnalyzed() + " analyzed");
+            manifest.save();
+        }
+        log("Pipeline:" + System.lineSeparator() + PipelineStage.summary(System.nanoTime() - begin));
+        if (checkConfig.isVerbose()) {
+            logRuleMetrics();
+        }
         log("[End]Analysis");
         log("Done!");
     }
 
+    /**
+     * Anything that changes the records of a file, the cached results are only used if it's the same.
+     */
+    private String cacheContext(List<Feature> featureList) {
+        return "from=" + checkConfig.getFromVersion() + ";to=" + checkConfig.getToVersion()
+                + ";priority=" + checkConfig.getPriority() + ";dependencyPriorityLimit=" + ExecutableRule.dependencyPriorityLimit
+                + ";features=" + featureList + ";fastSymbol=" + checkConfig.isFastSymbol()
+                + ";rules=" + JarResultCache.ruleSetVersion(InstanceRuleManager.getRuleInstanceList());
+    }
+
+    private List<PendingRecord> evaluate(Dependency d) {
+        long start = System.nanoTime();
+        List<PendingRecord> records = new ArrayList<>();
+        for (Evaluation evaluation : ruleEvaluator.evaluate(d, false)) {
+            ReportCheckResult checkResult = evaluation.getCheckResult();
+            if (checkResult.getPropagated().isEmpty()) {
+                records.add(new PendingRecord(d, checkResult, evaluation.getRule()));
+            } else {
+                for (Dependency newDependency : checkResult.getPropagated()) {
+                    records.add(new PendingRecord(newDependency, checkResult, evaluation.getRule()));
+                }
+            }
+        }
+        if (d.getDependType() == DependType.CODE_SOURCE || d.getDependType() == DependType.VM_OPTION) {
+            records.add(new PendingRecord(d, null, null));
+        }
+        PipelineStage.RULE.done(start);
+        return records;
+    }
+
+    /**
+     * Wait for the records checked on the rule stage.
+     */
+    private static List<PendingRecord> join(CompletableFuture<List<PendingRecord>> checked, DependencySource source) {
+        if (checked != null) {
+            try {
+                return checked.join();
+            } catch (Throwable t) {
+                System.err.println("Failed to analyze " + source.getFile().getName());
+                t.printStackTrace();
+            }
+        }
+        return Collections.emptyList();
+    }
+
     private void syncPrint(String msg) {
         synchronized (this) {
             System.out.println(msg);
         }
     }
 
+    private void logRuleMetrics() {
+        for (ExecutableRule rule : InstanceRuleManager.getRuleInstanceList()) {
+            List<String> metrics = rule.getMetrics();
+            if (!metrics.isEmpty()) {
+                log("Rule " + rule.getConfRuleItem().getResultCode() + ":");
+                for (String line : metrics) {
+                    log("  " + line);
+                }
+            }
+        }
+    }
+
     private void log(String msg) {
         if (checkConfig.isVerbose()) {
             System.out.println(msg);
         }
     }
 
+    private static class PendingRecord {
+        private final Dependency dependency;
+        private final ReportCheckResult checkResult;
+        private final ExecutableRule rule;
+
+        PendingRecord(Dependency dependency, ReportCheckResult checkResult, ExecutableRule rule) {
+            this.dependency = dependency;
+            this.checkResult = checkResult;
+            this.rule = rule;
+        }
+    }
+
+    /**
+     * A dependency found by a task. The records of the same dependency are only written at its first occurrence
+     * in the order of sources.
+     */
+    private static class Occurrence {
+        private final DependencyFingerprint fingerprint;
+        private final SourceInformation information;
+        /**
+         * null if the records are in the shared map of the dependencies not written yet.
+         */
+        private final List<PendingRecord> records;
+
+        Occurrence(DependencyFingerprint fingerprint, SourceInformation information, List<PendingRecord> records) {
+            this.fingerprint = fingerprint;
+            this.information = information;
+            this.records = records;
+        }
+    }
+
+    private class SourceHandler implements AnalysisHandler<Occurrence> {
+        private final DependencySource source;
+        private final DependencyDeduplicator alreadyChecked;
+        private final Map<DependencyFingerprint, CompletableFuture<List<PendingRecord>>> checkedRecords;
+        private final BoundedStage ruleStage;
+        private final ResultStore cache;
+        private final ResultStore manifest;
+
+        SourceHandler(DependencySource source, DependencyDeduplicator alreadyChecked,
+                      Map<DependencyFingerprint, CompletableFuture<List<PendingRecord>>> checkedRecords, BoundedStage ruleStage,
+                      ResultStore cache, ResultStore manifest) {
+            this.source = source;
+            this.alreadyChecked = alreadyChecked;
+            this.checkedRecords = checkedRecords;
+            this.ruleStage = ruleStage;
+            this.cache = cache;
+            this.manifest = manifest;
+        }
+
+        @Override
+        public void accept(Dependency dependency, List<Occurrence> occurrences) {
+            try {
+                long high = DependencyFingerprint.high(dependency);
+                long low = DependencyFingerprint.low(dependency);
+                DependencyFingerprint fingerprint = new DependencyFingerprint(high, low);
+                // Put the pending records before checking whether the dependency is seen, so the records of a
+                // dependency can't be written before the task that checks it puts them into the map.
+                // They are removed from the map when the first occurrence is written.
+                CompletableFuture<List<PendingRecord>> records = new CompletableFuture<>();
+                if (checkedRecords.putIfAbsent(fingerprint, records) == null) {
+                    if (alreadyChecked.firstSeen(high, low)) {
+                        ruleStage.submit(() -> {
+                            try {
+                                records.complete(evaluate(dependency));
+                            } catch (Throwable t) {
+                                records.completeExceptionally(t);
+                            }
+                            return null;
+                        });
+                    } else {
+                        // already written
+                        checkedRecords.remove(fingerprint, records);
+                    }
+                }
+                // the records are not ready yet, look up them when writing.
+                occurrences.add(new Occurrence(fingerprint, source.getInformation(), null));
+            } catch (Throwable t) {
+                System.err.println("Failed to analyze " + source.getFile().getName());
+                t.printStackTrace();
+            }
+        }
+
+        @Override
+        public AnalysisTask<Occurrence> newJarTask(Path jarFilePath) {
+            if (cache == null) {
+                return AnalysisHandler.super.newJarTask(jarFilePath);
+            }
+            return new CachedTask(jarFilePath, this, cache, DependencyAnalyzer::newJarTask);
+        }
+
+        @Override
+        public AnalysisTask<Occurrence> newClassTask(Path classFilePath) {
+            if (manifest == null) {
+                return AnalysisHandler.super.newClassTask(classFilePath);
+            }
+            return new CachedTask(classFilePath, this, manifest, DependencyAnalyzer::newClassTask);
+        }
+    }
+
+    /**
+     * Analyze a file only if its result is not found in the store.
+     * <p>
+     * The dependencies of the file are checked without sharing with other tasks, so the stored result is complete.
+     */
+    private class CachedTask extends AnalysisTask<Occurrence> {
+        private final Path file;
+        private final DependencySource source;
+        private final BoundedStage ruleStage;
+        private final ResultStore store;
+        private final BiFunction<Path, AnalysisHandler<CompletableFuture<CachedResult>>, AnalysisTask<CompletableFuture<CachedResult>>> analyzer;
+
+        CachedTask(Path file, SourceHandler handler, ResultStore store,
+                   BiFunction<Path, AnalysisHandler<CompletableFuture<CachedResult>>, AnalysisTask<CompletableFuture<CachedResult>>> analyzer) {
+            super(file.toString(), handler);
+            this.file = file;
+            this.source = handler.source;
+            this.ruleStage = handler.ruleStage;
+            this.store = store;
+            this.analyzer = analyzer;
+        }
+
+        @Override
+        protected void analyze(Consumer<Dependency> consumer, List<AnalysisTask<Occurrence>> subTasks) throws Exception {
+            ResultStore.Lookup lookup = store.lookup(file);
+            List<CachedResult> results = lookup.getResults();
+            if (results == null) {
+                DependencyDeduplicator alreadyCheckedInFile = new DependencyDeduplicator();
+                List<CompletableFuture<CachedResult>> pending = analyzer.apply(file, (d, found) -> {
+                    if (alreadyCheckedInFile.firstSeen(d)) {
+                        found.add(ruleStage.submit(() -> {
+                            List<PendingRecord> records = evaluate(d);
+                            return records.isEmpty() ? null : toCachedResult(d, records);
+                        }));
+                    }
+                }).invoke();
+                boolean failed = false;
+                results = new ArrayList<>();
+                for (CompletableFuture<CachedResult> future : pending) {
+                    try {
+                        CachedResult result = future.join();
+                        if (result != null) {
+                            results.add(result);
+                        }
+                    } catch (Throwable t) {
+                        failed = true;
+                        System.err.println("Failed to analyze " + source.getFile().getName());
+                        t.printStackTrace();
+                    }
+                }
+                if (!failed) {
+                    lookup.store(results);
+                }
+            }
+            for (CachedResult result : results) {
+                addRecord(toOccurrence(result, source.getInformation()));
+            }
+        }
+    }
+
+    private static CachedResult toCachedResult(Dependency dependency, List<PendingRecord> records) {
+        List<ExecutableRule> rules = InstanceRuleManager.getRuleInstanceList();
+        List<CachedRecord> cachedRecords = new ArrayList<>(records.size());
+        for (PendingRecord record : records) {
+            cachedRecords.add(new CachedRecord(record.dependency, record.checkResult, record.rule == null ? -1 : rules.indexOf(record.rule)));
+        }
+        return new CachedResult(dependency, cachedRecords);
+    }
+
+    private static Occurrence toOccurrence(CachedResult result, SourceInformation information) {
+        List<ExecutableRule> rules = InstanceRuleManager.getRuleInstanceList();
+        List<PendingRecord> records = new ArrayList<>(result.getRecords().size());
+        for (CachedRecord record : result.getRecords()) {
+            records.add(new PendingRecord(record.getDependency(), record.getCheckResult(),
+                    record.getRuleIndex() < 0 ? null : rules.get(record.getRuleIndex())));
+        }
+        return new Occurrence(DependencyFingerprint.of(result.getDependency()), information, records);
+    }
+
+    /**
+     * How many dependencies can wait for each rule thread, before the analysis waits for the rules.
+     */
+    private static final int RULE_QUEUE_SIZE_PER_THREAD = 256;
+
     private static String[] RULE_CLASS = new String[]{
             "org.eclipse.emt4j.common.rule.impl.AddExportsRule",
             "org.eclipse.emt4j.common.rule.impl.IncompatibleJarRule",
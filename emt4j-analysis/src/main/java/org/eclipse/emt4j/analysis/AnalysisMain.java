@@ -46,6 +46,8 @@ import java.util.stream.Collectors;
  */
 public class AnalysisMain {
     private static final String DEFAULT_FILE = "analysis_output";
+
+    private static final String DEFAULT_CACHE_DIR = System.getProperty("user.home") + File.separator + ".emt4j" + File.separator + "cache";
     private static Set<String> analysisTargetClassPaths = new HashSet<>();
 
     public static void main(String[] args) throws IOException, ClassNotFoundException, InterruptedException, URISyntaxException {
@@ -73,6 +75,20 @@ public class AnalysisMain {
         optionProcessor.addOption(Option.buildParamWithValueOption("-f", StringUtils::isNumeric, (v) -> checkConfig.setFromVersion(Integer.parseInt(v))));
         optionProcessor.addOption(Option.buildParamWithValueOption("-t", StringUtils::isNumeric, (v) -> checkConfig.setToVersion(Integer.parseInt(v))));
         optionProcessor.addOption(Option.buildParamWithValueOption("-priority", null, checkConfig::setPriority));
+        optionProcessor.addOption(Option.buildParamWithValueOption("-threads", (v) -> StringUtils.isNumeric(v) && Integer.parseInt(v) > 0,
+                (v) -> checkConfig.setThreads(Integer.parseInt(v))));
+        optionProcessor.addOption(Option.buildParamWithValueOption("-rule-threads", (v) -> StringUtils.isNumeric(v) && Integer.parseInt(v) > 0,
+                (v) -> checkConfig.setRuleThreads(Integer.parseInt(v))));
+        optionProcessor.addOption(Option.buildParamNoValueOption("-cache", null, (v) -> {
+            if (checkConfig.getCacheDir() == null) {
+                checkConfig.setCacheDir(DEFAULT_CACHE_DIR);
+            }
+        }));
+        optionProcessor.addOption(Option.buildParamWithValueOption("-cache-dir", null, checkConfig::setCacheDir));
+        optionProcessor.addOption(Option.buildParamWithValueOption("-cache-size", StringUtils::isNumeric,
+                (v) -> checkConfig.setCacheSize(Long.parseLong(v) * 1024 * 1024)));
+        optionProcessor.addOption(Option.buildParamWithValueOption("-incremental", null, checkConfig::setIncrementalManifest));
+        optionProcessor.addOption(Option.buildParamNoValueOption("-fast-symbol", null, (v) -> checkConfig.setFastSymbol(true)));
         optionProcessor.addOption(Option.buildParamWithValueOption("-p",
                 (v) -> "txt".equalsIgnoreCase(v) || "json".equalsIgnoreCase(v) || "html".equalsIgnoreCase(v), (v) -> reportConfig.setOutputFormat(v.toLowerCase())));
         optionProcessor.addOption(Option.buildParamWithValueOption("-j", (v) -> new File(v).exists()
@@ -227,13 +243,20 @@ public class AnalysisMain {
         String osName = System.getProperty("os.name");
         boolean windows = osName != null && osName.toLowerCase().contains("windows");
         String launcher = windows ? "analysis.bat" : "analysis.sh";
-        System.err.println("Usage:" + launcher + " [-f version] [-t version] [-p txt] [-o outputfile] [-j target jdk home] [-e external tool home] [-v] [-features features] <files>");
+        System.err.println("Usage:" + launcher + " [-f version] [-t version] [-p txt] [-o outputfile] [-j target jdk home] [-e external tool home] [-threads n] [-rule-threads n] [-cache] [-cache-dir dir] [-cache-size mb] [-incremental manifest] [-fast-symbol] [-v] [-features features] <files>");
         System.err.println("-f From which JDK version,default is 8");
         System.err.println("-t To which JDK version,default is 11");
         System.err.println("-p The report format.Can be TXT or JSON or HTML.Default is HTML");
         System.err.println("-o Write analysis to output file. Default is " + DEFAULT_FILE);
         System.err.println("-j Target JDK home. Provide target jdk home can help to find more compatible problems.");
         System.err.println("-e The root directory of external tools.");
+        System.err.println("-threads How many threads used to analyze the files. Default is the number of available processors.");
+        System.err.println("-rule-threads How many threads used to check the dependencies with the rules. Default is the number of available processors.");
+        System.err.println("-cache Cache the analysis results of jars in " + DEFAULT_CACHE_DIR + ", so an unchanged jar is not analyzed again.");
+        System.err.println("-cache-dir Cache the analysis results of jars in the given directory.");
+        System.err.println("-cache-size The limit of the cached results in MB. Default is 512.");
+        System.err.println("-incremental Only analyze the class files changed since the run that saved the manifest file, and save it again.");
+        System.err.println("-fast-symbol Read the symbols of classes from the constant pool only. It's faster, but the line numbers are not reported.");
         System.err.println("-v Show verbose information.");
         System.err.println("-features Override features with a comma-split string.");
         System.err.println("files can be combination of following types :");
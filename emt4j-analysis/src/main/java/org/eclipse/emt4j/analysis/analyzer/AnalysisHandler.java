@@ -0,0 +1,53 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.analysis.analyzer;
+
+import org.eclipse.emt4j.common.Dependency;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Turn the dependencies found by {@link AnalysisTask} into records.
+ *
+ * @param <R> the record type
+ */
+@FunctionalInterface
+public interface AnalysisHandler<R> {
+
+    void accept(Dependency dependency, List<R> records);
+
+    /**
+     * Create the task that analyzes a jar file. A handler can replace the task, e.g. reuse the cached result of the jar.
+     *
+     * @param jarFilePath the jar
+     */
+    default AnalysisTask<R> newJarTask(Path jarFilePath) {
+        return DependencyAnalyzer.newJarTask(jarFilePath, this);
+    }
+
+    /**
+     * Create the task that analyzes a class file. A handler can replace the task, e.g. reuse the result of the previous run.
+     *
+     * @param classFilePath the class file
+     */
+    default AnalysisTask<R> newClassTask(Path classFilePath) {
+        return DependencyAnalyzer.newClassTask(classFilePath, this);
+    }
+}
@@ -0,0 +1,131 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.analysis.analyzer;
+
+import org.eclipse.emt4j.common.Dependency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * A unit of analysis work that runs on a {@link java.util.concurrent.ForkJoinPool}.
+ * <p>
+ * A task passes each dependency it finds to the {@link AnalysisHandler}, which turns it into records of type {@code R}.
+ * A task can split the rest of its work into sub-tasks. They are forked so that idle workers can steal them,
+ * and joined in the order they were created. The records of a task come before the records of its sub-tasks,
+ * so the result doesn't depend on how the pool schedules the work. A sub-task can also be started while the task
+ * is still analyzing, see {@link #start(AnalysisTask)}.
+ *
+ * @param <R> the record type produced by the handler
+ */
+public abstract class AnalysisTask<R> extends RecursiveTask<List<R>> {
+    /**
+     * How many sub-tasks started by {@link #start(AnalysisTask)} can wait for each worker of the pool.
+     */
+    private static final int STARTED_PER_WORKER = 2;
+
+    private final String name;
+    private final AnalysisHandler<R> handler;
+    private List<R> records;
+    private List<AnalysisTask<R>> started;
+    private int waited;
+
+    protected AnalysisTask(String name, AnalysisHandler<R> handler) {
+        this.name = name;
+        this.handler = handler;
+    }
+
+    /**
+     * Analyze this unit of work.
+     *
+     * @param consumer receive the dependencies found by this task
+     * @param subTasks add the work that can run in parallel
+     */
+    protected abstract void analyze(Consumer<Dependency> consumer, List<AnalysisTask<R>> subTasks) throws Exception;
+
+    /**
+     * Called after all sub-tasks are done, whether they succeed or not.
+     */
+    protected void release() {
+    }
+
+    /**
+     * Fork a sub-task now instead of after {@link #analyze(Consumer, List)} returns, so it can run on another worker
+     * while this task goes on. The sub-tasks started this way come before the ones added to the list.
+     * If too many of them are waiting for a worker, this task waits for the oldest one, so they don't pile up.
+     */
+    protected final void start(AnalysisTask<R> subTask) {
+        started.add(subTask);
+        subTask.fork();
+        ForkJoinPool pool = getPool();
+        int limit = (pool == null ? 1 : pool.getParallelism()) * STARTED_PER_WORKER;
+        while (started.size() - waited > limit) {
+            started.get(waited++).join();
+        }
+    }
+
+    /**
+     * Add a record that doesn't come from the handler, e.g. a cached one.
+     */
+    protected final void addRecord(R record) {
+        records.add(record);
+    }
+
+    @Override
+    protected final List<R> compute() {
+        List<R> records = new ArrayList<>();
+        this.records = records;
+        this.started = new ArrayList<>();
+        List<AnalysisTask<R>> subTasks = new ArrayList<>();
+        try {
+            try {
+                analyze((d) -> handler.accept(d, records), subTasks);
+            } catch (Exception e) {
+                // we don't want an error interrupt the analysis process
+                System.err.println("Failed to analyze " + name);
+                e.printStackTrace();
+            }
+            for (AnalysisTask<R> subTask : started) {
+                records.addAll(subTask.join());
+            }
+            if (!subTasks.isEmpty()) {
+                invokeAll(subTasks);
+                for (AnalysisTask<R> subTask : subTasks) {
+                    records.addAll(subTask.join());
+                }
+            }
+        } finally {
+            release();
+            this.records = null;
+            this.started = null;
+        }
+        return records;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    protected AnalysisHandler<R> getHandler() {
+        return handler;
+    }
+}
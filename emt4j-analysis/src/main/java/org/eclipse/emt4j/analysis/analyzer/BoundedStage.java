@@ -0,0 +1,82 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.analysis.analyzer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A pipeline stage that runs jobs on its own workers, so it can overlap with the stages that feed it.
+ * <p>
+ * The queue of the stage is bounded. When it's full, the producer runs the job itself, so a fast producer is
+ * slowed down to the speed of the stage instead of filling up the memory.
+ */
+public class BoundedStage {
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @param name     the name prefix of the worker threads
+     * @param workers  the number of workers
+     * @param capacity the number of jobs that can wait in the queue
+     */
+    public BoundedStage(String name, int workers, int capacity) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory threadFactory = (r) -> {
+            Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> job) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                future.complete(job.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Wait for all submitted jobs to be done. No job can be submitted after that.
+     */
+    public void drain() throws InterruptedException {
+        executor.shutdown();
+        while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            // keep waiting, the jobs have no time limit.
+        }
+    }
+
+    /**
+     * Stop the workers without waiting for the jobs.
+     */
+    public void shutdownNow() {
+        executor.shutdownNow();
+    }
+}
@@ -19,16 +19,19 @@
 package org.eclipse.emt4j.analysis.analyzer;
 
 import org.apache.commons.io.IOUtils;
+import org.eclipse.emt4j.common.ClassBytecode;
 import org.eclipse.emt4j.common.ClassSymbol;
 import org.eclipse.emt4j.common.DependTarget;
 import org.eclipse.emt4j.common.DependType;
 import org.eclipse.emt4j.common.Dependency;
 import org.eclipse.emt4j.common.classanalyze.ClassInspectorInstance;
+import org.eclipse.emt4j.common.util.SymbolTable;
 
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.function.Consumer;
 
@@ -36,21 +39,35 @@ import java.util.function.Consumer;
  * Analysis class file.
  */
 public class ClassAnalyzer {
+    /**
+     * The targets of the CLASS dependencies, so a class used by many classes only has one target.
+     */
+    private static final SymbolTable<DependTarget.Class> CLASS_TARGETS = SymbolTable.scoped();
+
     public static void analyze(Path classFilePath, Consumer<Dependency> consumer) throws IOException {
         try (InputStream inputStream = new FileInputStream(classFilePath.toFile())) {
+            long start = System.nanoTime();
             byte[] classFileContent = IOUtils.toByteArray(inputStream);
-            processClass(classFileContent, classFilePath.toUri().toURL(), classFilePath.toFile().getAbsolutePath(), consumer, null);
+            PipelineStage.READ.done(start);
+            processClass(classFileContent, () -> Files.readAllBytes(classFilePath), classFilePath.toUri().toURL(),
+                    classFilePath.toFile().getAbsolutePath(), consumer, null);
         }
     }
 
-    protected static void processClass(byte[] classFileContent, URL location, String targetFilePath, Consumer<Dependency> consumer, String className) {
+    /**
+     * @param loader read the class file again when its bytecode is needed after it has been released, if it's null
+     *               the bytecode is kept
+     */
+    protected static void processClass(byte[] classFileContent, ClassBytecode.Loader loader, URL location, String targetFilePath, Consumer<Dependency> consumer, String className) {
+        long start = System.nanoTime();
         ClassSymbol symbol = ClassInspectorInstance.getInstance().getSymbolInClass(classFileContent);
+        PipelineStage.PARSE.done(start);
         for (String type : symbol.getTypeSet()) {
-            consumer.accept(new Dependency(location, new DependTarget.Class(type, DependType.CLASS), null, targetFilePath));
+            consumer.accept(new Dependency(location, CLASS_TARGETS.canonical(new DependTarget.Class(type, DependType.CLASS)), null, targetFilePath));
         }
         for (DependTarget.Method method : symbol.getCallMethodSet()) {
             Dependency dependency = new Dependency(location, method, null, targetFilePath);
-            dependency.setLines(symbol.getCallMethodToLines().get(method));
+            dependency.setLines(symbol.getCallMethodLines(method));
             consumer.accept(dependency);
         }
 
@@ -61,7 +78,7 @@ public class ClassAnalyzer {
         Dependency wholeClass = new Dependency(location,
                 new DependTarget.Class(className, DependType.WHOLE_CLASS), null, targetFilePath);
         wholeClass.setClassSymbol(symbol);
-        wholeClass.setCurrClassBytecode(classFileContent);
+        wholeClass.setClassBytecode(loader == null ? ClassBytecode.of(classFileContent) : ClassBytecode.soft(classFileContent, loader));
         consumer.accept(wholeClass);
     }
 
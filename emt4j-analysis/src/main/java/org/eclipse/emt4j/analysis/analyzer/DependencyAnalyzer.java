@@ -25,6 +25,7 @@ import org.eclipse.emt4j.common.util.FileUtil;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 
@@ -67,4 +68,45 @@ public class DependencyAnalyzer {
             progress.cleanProgress();
         }
     }
+
+    /**
+     * Split the files into tasks, one task per jar or class file. A jar task will be split further
+     * when it is analyzed.
+     *
+     * @param handler turn each dependency into records
+     * @return tasks in the same order as the files
+     */
+    public <R> List<AnalysisTask<R>> split(AnalysisHandler<R> handler) {
+        List<AnalysisTask<R>> tasks = new ArrayList<>();
+        for (Path file : files) {
+            switch (FileUtil.fileType(file.toString())) {
+                case Jar:
+                    tasks.add(handler.newJarTask(file));
+                    break;
+                case Class:
+                    tasks.add(handler.newClassTask(file));
+                    break;
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Create a task that analyzes the classes of the jar and the jars nested in it.
+     */
+    public static <R> AnalysisTask<R> newJarTask(Path jarFilePath, AnalysisHandler<R> handler) {
+        return JarAnalyzer.newTask(jarFilePath, handler);
+    }
+
+    /**
+     * Create a task that analyzes the class file.
+     */
+    public static <R> AnalysisTask<R> newClassTask(Path classFilePath, AnalysisHandler<R> handler) {
+        return new AnalysisTask<R>(classFilePath.toString(), handler) {
+            @Override
+            protected void analyze(Consumer<Dependency> consumer, List<AnalysisTask<R>> subTasks) throws Exception {
+                ClassAnalyzer.analyze(classFilePath, consumer);
+            }
+        };
+    }
 }
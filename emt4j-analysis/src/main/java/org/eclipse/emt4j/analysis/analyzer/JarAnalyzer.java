@@ -19,125 +19,254 @@
 package org.eclipse.emt4j.analysis.analyzer;
 
 import org.apache.commons.io.IOUtils;
-import org.eclipse.emt4j.analysis.common.util.ZipUtil;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.eclipse.emt4j.analysis.common.util.ArchiveEntry;
+import org.eclipse.emt4j.analysis.common.util.ArchiveReader;
+import org.eclipse.emt4j.common.ClassBytecode;
 import org.eclipse.emt4j.common.DependTarget;
+import org.eclipse.emt4j.common.DependType;
 import org.eclipse.emt4j.common.Dependency;
+import org.eclipse.emt4j.common.rule.impl.WholeClassRule;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
-import java.nio.file.FileVisitResult;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
-import java.util.Enumeration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 /**
  * Analysis all classes in a given jar.
+ * <p>
+ * The jar is read by {@link ArchiveReader}. The jars nested in it (e.g. BOOT-INF/lib/*.jar of a Spring Boot fat jar)
+ * are read in place if they are stored, otherwise they are read from the stream of the outer jar, at any depth. A class in a nested jar has a location like
+ * {@code file:/app.jar!/BOOT-INF/lib/a.jar!/a/A.class}.
+ * <p>
+ * The bytecode of a class is read again at the offset of its entry when it's needed after it has been released.
+ * A class that can't be found that way (e.g. in a deflated nested jar) keeps its bytecode.
+ * <p>
+ * The classes are analyzed in batches of the same jar, the static analysis of a batch runs in one Soot scene,
+ * see {@link WholeClassRule#analyzeTogether(List)}.
  */
 class JarAnalyzer extends ClassAnalyzer {
     private static final String CLASS = ".class";
     private static final String JAR = ".jar";
     public static final String SEPARATOR = "!/";
+    /**
+     * Classes of a jar are analyzed in batches of this size, so a big jar can be shared by several workers.
+     */
+    private static final int CLASS_BATCH_SIZE = 64;
 
     public static void analyze(Path jarFilePath, Consumer<Dependency> consumer) throws IOException {
-        JarFile jarFile = new JarFile(jarFilePath.toFile());
-        Enumeration<JarEntry> entries = jarFile.entries();
-        boolean fatJar = false;
-        while (entries.hasMoreElements()) {
-            JarEntry jarEntry = entries.nextElement();
-            if (jarEntry.getName().endsWith(CLASS)) {
-                try (InputStream input = jarFile.getInputStream(jarEntry)) {
-                    byte[] classFileContent = IOUtils.toByteArray(input);
-                    processClass(classFileContent, new URL(jarFilePath.toUri().toURL() + SEPARATOR + jarEntry.getName()), jarFilePath.toFile().getAbsolutePath(), consumer, toClassName(jarEntry.getName()));
+        walk(jarFilePath, new JarVisitor() {
+            @Override
+            public void visitClass(String location, String targetFilePath, String entryName, byte[] content, ClassBytecode.Loader loader) throws IOException {
+                processClass(content, loader,
+                        new URL(location + SEPARATOR + entryName), targetFilePath, consumer, toClassName(entryName));
+            }
+
+            @Override
+            public void visitEnd(String location, String targetFilePath) throws IOException {
+                consumer.accept(new Dependency(null, new DependTarget.Location(new URL(location)), null, targetFilePath));
+            }
+        });
+    }
+
+    static <R> AnalysisTask<R> newTask(Path jarFilePath, AnalysisHandler<R> handler) {
+        return new JarTask<>(jarFilePath, handler);
+    }
+
+    /**
+     * Receive the classes in a jar and the jars nested in it.
+     */
+    private interface JarVisitor {
+        /**
+         * @param loader read the class again, or null if it can't be read again
+         */
+        void visitClass(String location, String targetFilePath, String entryName, byte[] content, ClassBytecode.Loader loader) throws IOException;
+
+        /**
+         * All classes of the jar at the location have been visited.
+         */
+        void visitEnd(String location, String targetFilePath) throws IOException;
+    }
+
+    private static void walk(Path jarFilePath, JarVisitor visitor) throws IOException {
+        try (ArchiveReader reader = ArchiveReader.open(jarFilePath)) {
+            walk(reader, jarFilePath.toUri().toURL().toExternalForm(), jarFilePath.toFile().getAbsolutePath(), visitor);
+        }
+    }
+
+    private static void walk(ArchiveReader reader, String location, String targetFilePath, JarVisitor visitor) throws IOException {
+        for (ArchiveEntry entry : reader.entries()) {
+            String name = entry.getName();
+            if (name.endsWith(CLASS)) {
+                try {
+                    long start = System.nanoTime();
+                    byte[] content = reader.read(entry);
+                    PipelineStage.READ.done(start);
+                    visitor.visitClass(location, targetFilePath, name, content, reader.locate(entry));
                 } catch (Exception e) {
                     // we don't want an error interrupt the analysis process
+                    System.err.println("Failed to analyze " + name);
                     e.printStackTrace();
                 }
-            } else if (jarEntry.getName().endsWith(JAR)) {
-                fatJar = true;
-            }
-        }
-        consumer.accept(new Dependency(null, new DependTarget.Location(jarFilePath.toUri().toURL()), null, jarFilePath.toFile().getAbsolutePath()));
-
-        //if this jar is a fat jar.Unzip to temporary files,scan each jars recursively.
-        if (fatJar) {
-            File tmp = Files.createTempDirectory("emt4j-unzip").toFile();
-            try {
-                ZipUtil.unzipTo(jarFilePath, tmp.toPath());
-                Path unzipPath = tmp.toPath();
-
-                try (Stream<Path> pathStream = Files.walk(unzipPath)) {
-                    List<Path> subJars = pathStream.filter((path -> path.getFileName().toString().endsWith(JAR))).collect(Collectors.toList());
-                    for (Path subJar : subJars) {
-                        analyze(jarFilePath, unzipPath, subJar, consumer);
+            } else if (name.endsWith(JAR)) {
+                String nestedLocation = location + SEPARATOR + name;
+                String nestedTargetFilePath = targetFilePath + SEPARATOR + name;
+                try (ArchiveReader nested = reader.openNested(entry)) {
+                    if (nested != null) {
+                        walk(nested, nestedLocation, nestedTargetFilePath, visitor);
+                    } else {
+                        try (InputStream input = reader.open(entry)) {
+                            walkNested(input, nestedLocation, nestedTargetFilePath, visitor);
+                        }
                     }
+                } catch (Exception e) {
+                    System.err.println("Failed to analyze " + nestedTargetFilePath);
+                    e.printStackTrace();
                 }
-            } finally {
-                deleteFiles(tmp);
             }
         }
+        visitor.visitEnd(location, targetFilePath);
     }
 
-    private static void analyze(Path parentJar, Path unzipTempDir, Path subJar, Consumer<Dependency> consumer) throws IOException {
-        Path relativePath = unzipTempDir.relativize(subJar);
-        URL location = new URL(parentJar.toUri().toURL().toExternalForm() + SEPARATOR + relativePath);
-        String targetFilePath = parentJar.toFile().getAbsolutePath() + SEPARATOR + relativePath;
-
-        try (JarFile jarFile = new JarFile(subJar.toFile())) {
-            Enumeration<JarEntry> entries = jarFile.entries();
-            while (entries.hasMoreElements()) {
-                JarEntry jarEntry = entries.nextElement();
-                if (jarEntry.getName().endsWith(CLASS)) {
-                    try (InputStream input = jarFile.getInputStream(jarEntry)) {
-                        byte[] classFileContent = IOUtils.toByteArray(input);
-                        processClass(classFileContent, new URL(location + SEPARATOR + jarEntry.getName()), targetFilePath, consumer, toClassName(jarEntry.getName()));
+    private static void walkNested(InputStream input, String location, String targetFilePath, JarVisitor visitor) throws IOException {
+        try (ZipInputStream zipInput = new ZipInputStream(input)) {
+            ZipEntry entry;
+            while ((entry = zipInput.getNextEntry()) != null) {
+                String name = entry.getName();
+                if (name.endsWith(CLASS)) {
+                    try {
+                        long start = System.nanoTime();
+                        byte[] content = IOUtils.toByteArray(zipInput);
+                        PipelineStage.READ.done(start);
+                        visitor.visitClass(location, targetFilePath, name, content, null);
+                    } catch (IOException e) {
+                        // the stream may be broken, don't go on with this jar.
+                        throw e;
                     } catch (Exception e) {
                         // we don't want an error interrupt the analysis process
-                        System.err.println("Failed to analyze " + jarEntry.getName());
+                        System.err.println("Failed to analyze " + name);
                         e.printStackTrace();
                     }
+                } else if (name.endsWith(JAR)) {
+                    // the nested stream must not close the stream of this jar
+                    walkNested(CloseShieldInputStream.wrap(zipInput), location + SEPARATOR + name, targetFilePath + SEPARATOR + name, visitor);
                 }
             }
         }
-        consumer.accept(new Dependency(null, new DependTarget.Location(location), null, targetFilePath));
+        visitor.visitEnd(location, targetFilePath);
     }
 
-    private static void deleteFiles(File f) {
-        if (f.exists()) {
-            if (f.isFile()) {
-                try {
-                    Files.delete(f.toPath());
-                } catch (IOException e) {
-                    throw new Error("Clean up temporary file : " + f.getName() + " failed!", e);
-                }
-            } else if (f.isDirectory()) {
-                try {
-                    Files.walkFileTree(f.toPath(), new SimpleFileVisitor<Path>() {
-                        @Override
-                        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                            Files.delete(file);
-                            return FileVisitResult.CONTINUE;
-                        }
+    private static class JarTask<R> extends AnalysisTask<R> {
+        private final Path jarFilePath;
+        /**
+         * the classes read but not started yet.
+         */
+        private ClassBatchTask<R> batch;
+
+        JarTask(Path jarFilePath, AnalysisHandler<R> handler) {
+            super(jarFilePath.toString(), handler);
+            this.jarFilePath = jarFilePath;
+        }
 
-                        @Override
-                        public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
-                            Files.delete(dir);
-                            return FileVisitResult.CONTINUE;
+        @Override
+        protected void analyze(Consumer<Dependency> consumer, List<AnalysisTask<R>> subTasks) throws Exception {
+            try {
+                walk(jarFilePath, new JarVisitor() {
+                    @Override
+                    public void visitClass(String location, String targetFilePath, String entryName, byte[] content, ClassBytecode.Loader loader) {
+                        if (batch != null && (batch.isFull() || !batch.location.equals(location))) {
+                            startBatch();
                         }
-                    });
-                } catch (IOException e) {
-                    throw new Error("Clean up temporary directory: " + f.getName() + " failed!", e);
+                        if (batch == null) {
+                            batch = new ClassBatchTask<>(location, targetFilePath, getHandler());
+                        }
+                        batch.add(entryName, content, loader);
+                    }
+
+                    @Override
+                    public void visitEnd(String location, String targetFilePath) throws IOException {
+                        consumer.accept(new Dependency(null, new DependTarget.Location(new URL(location)), null, targetFilePath));
+                    }
+                });
+            } finally {
+                startBatch();
+            }
+        }
+
+        /**
+         * Analyze the batch on another worker while the next one is read, so the whole jar is not kept in memory.
+         */
+        private void startBatch() {
+            if (batch != null) {
+                start(batch);
+                batch = null;
+            }
+        }
+    }
+
+    private static class ClassBatchTask<R> extends AnalysisTask<R> {
+        private final String location;
+        private final String targetFilePath;
+        private final List<String> entryNames = new ArrayList<>(CLASS_BATCH_SIZE);
+        private final List<byte[]> contents = new ArrayList<>(CLASS_BATCH_SIZE);
+        private final List<ClassBytecode.Loader> loaders = new ArrayList<>(CLASS_BATCH_SIZE);
+
+        ClassBatchTask(String location, String targetFilePath, AnalysisHandler<R> handler) {
+            super(targetFilePath, handler);
+            this.location = location;
+            this.targetFilePath = targetFilePath;
+        }
+
+        void add(String entryName, byte[] content, ClassBytecode.Loader loader) {
+            entryNames.add(entryName);
+            contents.add(content);
+            loaders.add(loader);
+        }
+
+        boolean isFull() {
+            return entryNames.size() >= CLASS_BATCH_SIZE;
+        }
+
+        @Override
+        protected void analyze(Consumer<Dependency> consumer, List<AnalysisTask<R>> subTasks) {
+            // the classes are checked after the static analysis of all of them is done
+            List<Dependency> wholeClasses = new ArrayList<>(entryNames.size());
+            Consumer<Dependency> batchConsumer = (d) -> {
+                if (d.getDependType() == DependType.WHOLE_CLASS) {
+                    wholeClasses.add(d);
+                } else {
+                    consumer.accept(d);
                 }
+            };
+            for (int i = 0; i < entryNames.size(); i++) {
+                String entryName = entryNames.get(i);
+                try {
+                    processClass(contents.get(i), loaders.get(i),
+                            new URL(location + SEPARATOR + entryName), targetFilePath, batchConsumer, toClassName(entryName));
+                } catch (Exception e) {
+                    // we don't want an error interrupt the analysis process
+                    System.err.println("Failed to analyze " + entryName);
+                    e.printStackTrace();
+                }
+            }
+            try {
+                WholeClassRule.analyzeTogether(wholeClasses);
+            } catch (Exception e) {
+                // each class is analyzed on its own when it's checked
+                System.err.println("Failed to analyze the classes of " + targetFilePath + " together");
+                e.printStackTrace();
             }
+            wholeClasses.forEach(consumer);
+            // the parent task keeps this task until the whole jar is done, so don't hold the bytecode any longer.
+            entryNames.clear();
+            contents.clear();
+            loaders.clear();
         }
     }
 }
@@ -0,0 +1,78 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.analysis.analyzer;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The stages that a class goes through during analysis, each one counts how much work it has done.
+ * <ul>
+ *     <li>READ: read the class file or the jar entry</li>
+ *     <li>PARSE: find the dependencies in the class</li>
+ *     <li>RULE: check a dependency with the rules</li>
+ *     <li>OUTPUT: write a record</li>
+ * </ul>
+ */
+public enum PipelineStage {
+    READ, PARSE, RULE, OUTPUT;
+
+    private final LongAdder items = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+
+    /**
+     * An item is done by this stage.
+     *
+     * @param startNanos when the stage began working on the item, by {@link System#nanoTime()}
+     */
+    public void done(long startNanos) {
+        items.increment();
+        busyNanos.add(System.nanoTime() - startNanos);
+    }
+
+    public long getItems() {
+        return items.sum();
+    }
+
+    /**
+     * @return the time spent by all workers of this stage
+     */
+    public long getBusyNanos() {
+        return busyNanos.sum();
+    }
+
+    public static void resetAll() {
+        for (PipelineStage stage : values()) {
+            stage.items.reset();
+            stage.busyNanos.reset();
+        }
+    }
+
+    /**
+     * @param elapsedNanos the wall clock time since {@link #resetAll()}
+     */
+    public static String summary(long elapsedNanos) {
+        StringBuilder sb = new StringBuilder();
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        for (PipelineStage stage : values()) {
+            sb.append(String.format("  %-6s %10d items %10d ms busy %12.1f items/s%n", stage.name().toLowerCase(),
+                    stage.getItems(), stage.getBusyNanos() / 1000000, stage.getItems() / seconds));
+        }
+        return sb.toString();
+    }
+}
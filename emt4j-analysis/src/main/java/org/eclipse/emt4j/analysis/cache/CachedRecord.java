@@ -0,0 +1,56 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.analysis.cache;
+
+import org.eclipse.emt4j.common.Dependency;
+import org.eclipse.emt4j.common.rule.model.ReportCheckResult;
+
+import java.io.Serializable;
+
+/**
+ * A record found when checking a dependency of a jar.
+ */
+public class CachedRecord implements Serializable {
+    private final Dependency dependency;
+    private final ReportCheckResult checkResult;
+    private final int ruleIndex;
+
+    /**
+     * @param dependency  the dependency that the record is written for
+     * @param checkResult the result of the rule, or null if the record doesn't come from a rule
+     * @param ruleIndex   the index of the rule in the rule list, or -1 if the record doesn't come from a rule
+     */
+    public CachedRecord(Dependency dependency, ReportCheckResult checkResult, int ruleIndex) {
+        this.dependency = dependency;
+        this.checkResult = checkResult;
+        this.ruleIndex = ruleIndex;
+    }
+
+    public Dependency getDependency() {
+        return dependency;
+    }
+
+    public ReportCheckResult getCheckResult() {
+        return checkResult;
+    }
+
+    public int getRuleIndex() {
+        return ruleIndex;
+    }
+}
@@ -0,0 +1,45 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.analysis.cache;
+
+import org.eclipse.emt4j.common.Dependency;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A dependency found in a jar, and the records found when checking it.
+ */
+public class CachedResult implements Serializable {
+    private final Dependency dependency;
+    private final List<CachedRecord> records;
+
+    public CachedResult(Dependency dependency, List<CachedRecord> records) {
+        this.dependency = dependency;
+        this.records = records;
+    }
+
+    public Dependency getDependency() {
+        return dependency;
+    }
+
+    public List<CachedRecord> getRecords() {
+        return records;
+    }
+}
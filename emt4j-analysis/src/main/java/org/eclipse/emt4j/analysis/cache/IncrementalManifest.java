@@ -0,0 +1,165 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.analysis.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The results of the class files found by the previous run, used to only analyze the changed class files.
+ * <p>
+ * A class file is not changed if its size and last modified time are the same as before. If they are not the same,
+ * e.g. the class is compiled again, the SHA-256 of the file is compared.
+ * Only the class files found by the current run are saved, so the deleted ones are forgotten.
+ */
+public class IncrementalManifest implements ResultStore {
+    private static final int FORMAT_VERSION = 1;
+
+    private final File file;
+    private final String context;
+    private final Map<String, Entry> previous;
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+    private final AtomicInteger reused = new AtomicInteger();
+    private final AtomicInteger analyzed = new AtomicInteger();
+
+    private IncrementalManifest(File file, String context, Map<String, Entry> previous) {
+        this.file = file;
+        this.context = context;
+        this.previous = previous;
+    }
+
+    /**
+     * Load the manifest saved by the previous run.
+     *
+     * @param file    where the manifest is saved
+     * @param context identify the rules and the options, the manifest of a different context is not used
+     */
+    @SuppressWarnings("unchecked")
+    public static IncrementalManifest load(File file, String context) {
+        Map<String, Entry> previous = Collections.emptyMap();
+        if (file.isFile()) {
+            try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() == FORMAT_VERSION && context.equals(in.readUTF())) {
+                    previous = (Map<String, Entry>) in.readObject();
+                }
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                // analyze all class files again
+                previous = Collections.emptyMap();
+            }
+        }
+        return new IncrementalManifest(file, context, previous);
+    }
+
+    @Override
+    public Lookup lookup(Path classFile) throws IOException {
+        File f = classFile.toFile();
+        String path = f.getAbsolutePath();
+        long size = f.length();
+        long lastModified = f.lastModified();
+        Entry entry = previous.get(path);
+        if (entry != null && entry.size == size && entry.lastModified == lastModified) {
+            return reuse(path, entry);
+        }
+        MessageDigest digest = Digests.sha256();
+        Digests.update(digest, classFile);
+        String hash = Digests.toHex(digest.digest());
+        if (entry != null && entry.hash.equals(hash)) {
+            return reuse(path, new Entry(size, lastModified, hash, entry.results));
+        }
+        analyzed.incrementAndGet();
+        return new Lookup(null, (results) -> current.put(path, new Entry(size, lastModified, hash, results)));
+    }
+
+    private Lookup reuse(String path, Entry entry) {
+        reused.incrementAndGet();
+        current.put(path, entry);
+        return new Lookup(entry.results, (results) -> current.put(path, new Entry(entry.size, entry.lastModified, entry.hash, results)));
+    }
+
+    /**
+     * Save the results of the class files found by this run.
+     */
+    public void save() throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.exists() && !parent.mkdirs() && !parent.isDirectory()) {
+            throw new IOException("Cannot create directory " + parent);
+        }
+        File tmp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(context);
+                out.writeObject(new HashMap<>(current));
+            }
+            try {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            tmp.delete();
+        }
+    }
+
+    /**
+     * @return how many class files are not changed since the previous run
+     */
+    public int getReused() {
+        return reused.get();
+    }
+
+    /**
+     * @return how many class files are new or changed since the previous run
+     */
+    public int getAnalyzed() {
+        return analyzed.get();
+    }
+
+    private static class Entry implements Serializable {
+        private final long size;
+        private final long lastModified;
+        private final String hash;
+        private final List<CachedResult> results;
+
+        Entry(long size, long lastModified, String hash, List<CachedResult> results) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+            this.results = results;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.analysis.cache;
+
+import org.eclipse.emt4j.common.DependTarget;
+import org.eclipse.emt4j.common.Dependency;
+import org.eclipse.emt4j.common.rule.ExecutableRule;
+import org.eclipse.emt4j.common.rule.model.ConfRuleItem;
+import org.eclipse.emt4j.common.rule.model.ConfRules;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Cache the analysis result of jars on disk, so a jar that has been analyzed before is not analyzed again.
+ * <p>
+ * An entry is keyed by the SHA-256 of the jar content and a context that identifies the rules and the options
+ * used to check the jar. The location of the jar is replaced by a placeholder when an entry is stored,
+ * so the entry can be reused for the same jar at another place.
+ * When the total size of the entries exceeds the limit, the least recently used entries are removed.
+ */
+public class JarResultCache implements ResultStore {
+    private static final int FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".result";
+    private static final String PLACEHOLDER_PATH = "/emt4j-cached-jar";
+    private static final String PLACEHOLDER_URL = "file:" + PLACEHOLDER_PATH;
+
+    private final File directory;
+    private final long maxBytes;
+    private final String context;
+
+    /**
+     * @param directory where the entries are stored
+     * @param maxBytes  the limit of the total size of the entries
+     * @param context   identify the rules and the options, the entries of a different context are never used
+     */
+    public JarResultCache(File directory, long maxBytes, String context) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.context = context;
+    }
+
+    /**
+     * Compute the key of the jar from its content.
+     */
+    public String key(Path jar) throws IOException {
+        MessageDigest digest = Digests.sha256();
+        digest.update(context.getBytes(StandardCharsets.UTF_8));
+        Digests.update(digest, jar);
+        return Digests.toHex(digest.digest());
+    }
+
+    @Override
+    public Lookup lookup(Path jar) throws IOException {
+        String key = key(jar);
+        return new Lookup(load(key, jar), (results) -> store(key, jar, results));
+    }
+
+    /**
+     * Load the results of the jar.
+     *
+     * @return the results, or null if there is no usable entry
+     */
+    @SuppressWarnings("unchecked")
+    public List<CachedResult> load(String key, Path jar) {
+        File file = new File(directory, key + SUFFIX);
+        if (!file.isFile()) {
+            return null;
+        }
+        List<CachedResult> results;
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION || !context.equals(in.readUTF())) {
+                return null;
+            }
+            results = (List<CachedResult>) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            // a broken entry, e.g. written by an interrupted process, analyze the jar again.
+            file.delete();
+            return null;
+        }
+        // the last modified time is the last used time
+        file.setLastModified(System.currentTimeMillis());
+        try {
+            return relocate(results, PLACEHOLDER_URL, toUrl(jar), PLACEHOLDER_PATH, toPath(jar));
+        } catch (MalformedURLException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Store the results of the jar. It's not an error if the results can't be stored.
+     */
+    public void store(String key, Path jar, List<CachedResult> results) {
+        File tmp = null;
+        try {
+            List<CachedResult> relocated = relocate(results, toUrl(jar), PLACEHOLDER_URL, toPath(jar), PLACEHOLDER_PATH);
+            if (!directory.exists() && !directory.mkdirs() && !directory.isDirectory()) {
+                return;
+            }
+            tmp = File.createTempFile(key, ".tmp", directory);
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(context);
+                out.writeObject(relocated);
+            }
+            // other processes may use the same directory, never let them see a partial entry.
+            Path target = new File(directory, key + SUFFIX).toPath();
+            try {
+                Files.move(tmp.toPath(), target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+        } catch (IOException e) {
+            System.err.println("Failed to cache the result of " + jar + ": " + e.getMessage());
+        } finally {
+            if (tmp != null) {
+                tmp.delete();
+            }
+        }
+    }
+
+    /**
+     * Remove the least recently used entries until the total size doesn't exceed the limit.
+     */
+    public void evict() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files == null) {
+            return;
+        }
+        long total = 0;
+        long[] sizes = new long[files.length];
+        long[] lastUsed = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            sizes[i] = files[i].length();
+            lastUsed[i] = files[i].lastModified();
+            order[i] = i;
+            total += sizes[i];
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> lastUsed[i]));
+        for (int i = 0; i < order.length && total > maxBytes; i++) {
+            if (files[order[i]].delete()) {
+                total -= sizes[order[i]];
+            }
+        }
+    }
+
+    /**
+     * Describe the rules, the entries are not used if the rules or their implementation change.
+     */
+    public static String ruleSetVersion(List<ExecutableRule> rules) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(codeVersion(ExecutableRule.class)).append(';').append(codeVersion(JarResultCache.class));
+        for (ExecutableRule rule : rules) {
+            ConfRuleItem item = rule.getConfRuleItem();
+            ConfRules confRules = rule.getConfRules();
+            sb.append(';').append(rule.getClass().getName())
+                    .append(',').append(item.getType())
+                    .append(',').append(item.getResultCode())
+                    .append(',').append(item.getSubResultCode())
+                    .append(',').append(item.getPriority())
+                    .append(',').append(item.getSupportModes());
+            if (item.getUserDefineAttrs() != null) {
+                for (String[] attr : item.getUserDefineAttrs()) {
+                    sb.append(',').append(Arrays.toString(attr));
+                }
+            }
+            if (confRules != null) {
+                sb.append(',').append(confRules.getRuleDataPathPrefix())
+                        .append(',').append(confRules.getFromVersion())
+                        .append(',').append(confRules.getToVersion());
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Identify the build of a class by the size and the last modified time of the jar or the directory it's loaded from.
+     */
+    private static String codeVersion(Class<?> clazz) {
+        CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+        if (codeSource == null || codeSource.getLocation() == null) {
+            return clazz.getName();
+        }
+        try {
+            File file = new File(codeSource.getLocation().toURI());
+            if (file.isFile()) {
+                return file.getPath() + ':' + file.length() + ':' + file.lastModified();
+            }
+            long hash = 0;
+            try (Stream<Path> paths = Files.walk(file.toPath())) {
+                for (Path path : (Iterable<Path>) paths::iterator) {
+                    File f = path.toFile();
+                    hash = 31 * hash + f.getPath().hashCode();
+                    hash = 31 * hash + f.length();
+                    hash = 31 * hash + f.lastModified();
+                }
+            }
+            return file.getPath() + ':' + Long.toHexString(hash);
+        } catch (Exception e) {
+            // never reuse an entry if we don't know which code produced it.
+            return clazz.getName() + ':' + System.nanoTime();
+        }
+    }
+
+    private static List<CachedResult> relocate(List<CachedResult> results, String fromUrl, String toUrl,
+                                               String fromPath, String toPath) throws MalformedURLException {
+        List<CachedResult> relocated = new ArrayList<>(results.size());
+        for (CachedResult result : results) {
+            List<CachedRecord> records = new ArrayList<>(result.getRecords().size());
+            for (CachedRecord record : result.getRecords()) {
+                records.add(new CachedRecord(relocate(record.getDependency(), fromUrl, toUrl, fromPath, toPath),
+                        record.getCheckResult(), record.getRuleIndex()));
+            }
+            relocated.add(new CachedResult(relocate(result.getDependency(), fromUrl, toUrl, fromPath, toPath), records));
+        }
+        return relocated;
+    }
+
+    private static Dependency relocate(Dependency dependency, String fromUrl, String toUrl,
+                                       String fromPath, String toPath) throws MalformedURLException {
+        Dependency relocated = dependency.clone();
+        relocated.setLocationExternalForm(replacePrefix(dependency.getLocationExternalForm(), fromUrl, toUrl));
+        relocated.setTargetFilePath(replacePrefix(dependency.getTargetFilePath(), fromPath, toPath));
+        if (dependency.getTarget() instanceof DependTarget.Location) {
+            DependTarget.Location location = (DependTarget.Location) dependency.getTarget();
+            String url = replacePrefix(location.getLocationExternalForm(), fromUrl, toUrl);
+            relocated.setTarget(new DependTarget.Location(new URL(url), location.type()));
+        }
+        return relocated;
+    }
+
+    private static String replacePrefix(String str, String from, String to) {
+        if (str != null && str.startsWith(from)) {
+            return to + str.substring(from.length());
+        }
+        return str;
+    }
+
+    private static String toUrl(Path jar) throws MalformedURLException {
+        return jar.toUri().toURL().toExternalForm();
+    }
+
+    private static String toPath(Path jar) {
+        return jar.toFile().getAbsolutePath();
+    }
+}
@@ -0,0 +1,59 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.analysis.cache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Keep the analysis results of files, so a file that has been analyzed before is not analyzed again.
+ */
+public interface ResultStore {
+
+    /**
+     * Find the results of the file.
+     */
+    Lookup lookup(Path file) throws IOException;
+
+    final class Lookup {
+        private final List<CachedResult> results;
+        private final Consumer<List<CachedResult>> store;
+
+        public Lookup(List<CachedResult> results, Consumer<List<CachedResult>> store) {
+            this.results = results;
+            this.store = store;
+        }
+
+        /**
+         * @return the results of the file, or null if the file needs to be analyzed
+         */
+        public List<CachedResult> getResults() {
+            return results;
+        }
+
+        /**
+         * Keep the results after the file is analyzed.
+         */
+        public void store(List<CachedResult> results) {
+            store.accept(results);
+        }
+    }
+}
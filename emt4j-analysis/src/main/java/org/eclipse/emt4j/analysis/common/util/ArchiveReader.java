@@ -0,0 +1,79 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.analysis.common.util;
+
+import org.apache.commons.lang3.SystemUtils;
+import org.eclipse.emt4j.common.ClassBytecode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Read the entries of a jar or zip file.
+ * <p>
+ * The implementation is chosen by the system property {@value #READER_PROPERTY}:
+ * <ul>
+ *     <li>mapped: map the file into memory and parse the central directory once. It's the default except on Windows.</li>
+ *     <li>jar: use {@link java.util.jar.JarFile}. It's the default on Windows, because a mapped file stays locked
+ *     until the mapping is garbage collected, and a build step running in the same process could not replace it.</li>
+ * </ul>
+ * A reader is not thread-safe.
+ */
+public interface ArchiveReader extends Closeable {
+    String READER_PROPERTY = "emt4j.archiveReader";
+
+    /**
+     * @return all entries in the order of the central directory
+     */
+    List<? extends ArchiveEntry> entries();
+
+    /**
+     * Read the whole content of the entry to a new array of exactly its size.
+     */
+    byte[] read(ArchiveEntry entry) throws IOException;
+
+    InputStream open(ArchiveEntry entry) throws IOException;
+
+    /**
+     * Read an entry that is an archive itself without copying it.
+     *
+     * @return a reader of the nested archive, or null if it can only be read by {@link #open(ArchiveEntry)}.
+     */
+    ArchiveReader openNested(ArchiveEntry entry) throws IOException;
+
+    /**
+     * @return a loader that reads the entry again without a scan of the archive, it can be used after this reader is
+     * closed, or null if the entry can't be found that way.
+     */
+    ClassBytecode.Loader locate(ArchiveEntry entry);
+
+    static ArchiveReader open(Path path) throws IOException {
+        String type = System.getProperty(READER_PROPERTY, SystemUtils.IS_OS_WINDOWS ? "jar" : "mapped");
+        if (!"jar".equalsIgnoreCase(type)) {
+            ArchiveReader reader = MappedArchiveReader.open(path);
+            if (reader != null) {
+                return reader;
+            }
+        }
+        return new JarFileArchiveReader(path);
+    }
+}
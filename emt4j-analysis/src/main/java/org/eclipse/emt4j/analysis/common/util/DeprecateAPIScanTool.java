@@ -16,8 +16,6 @@ import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 import java.util.function.Consumer;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
 
 import static org.objectweb.asm.Opcodes.ASM9;
 
@@ -60,17 +58,15 @@ public class DeprecateAPIScanTool {
     }
 
     public static void analyzeJar(Path jarFilePath, Consumer<byte[]> consumer) throws IOException {
-        JarFile jarFile = new JarFile(jarFilePath.toFile());
-        Enumeration<JarEntry> entries = jarFile.entries();
-        while (entries.hasMoreElements()) {
-            JarEntry jarEntry = entries.nextElement();
-            if (jarEntry.getName().endsWith(".class")) {
-                try (InputStream input = jarFile.getInputStream(jarEntry)) {
-                    byte[] classFileContent = IOUtils.toByteArray(input);
-                    consumer.accept(classFileContent);
-                } catch (Exception e) {
-                    // we don't want an error interrupt the analysis process
-                    e.printStackTrace();
+        try (ArchiveReader reader = ArchiveReader.open(jarFilePath)) {
+            for (ArchiveEntry entry : reader.entries()) {
+                if (entry.getName().endsWith(".class")) {
+                    try {
+                        consumer.accept(reader.read(entry));
+                    } catch (Exception e) {
+                        // we don't want an error interrupt the analysis process
+                        e.printStackTrace();
+                    }
                 }
             }
         }
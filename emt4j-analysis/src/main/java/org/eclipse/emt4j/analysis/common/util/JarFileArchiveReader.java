@@ -0,0 +1,122 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.analysis.common.util;
+
+import org.eclipse.emt4j.common.ClassBytecode;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+/**
+ * Read archive with {@link JarFile}.
+ */
+class JarFileArchiveReader implements ArchiveReader {
+    private final File file;
+    private final JarFile jarFile;
+    private final List<Entry> entries = new ArrayList<>();
+
+    JarFileArchiveReader(Path path) throws IOException {
+        this.file = path.toFile();
+        this.jarFile = new JarFile(file);
+        Enumeration<JarEntry> jarEntries = jarFile.entries();
+        while (jarEntries.hasMoreElements()) {
+            entries.add(new Entry(jarEntries.nextElement()));
+        }
+    }
+
+    @Override
+    public List<? extends ArchiveEntry> entries() {
+        return entries;
+    }
+
+    @Override
+    public byte[] read(ArchiveEntry entry) throws IOException {
+        try (InputStream input = open(entry)) {
+            long size = entry.getSize();
+            if (size >= 0 && size <= Integer.MAX_VALUE) {
+                return org.apache.commons.io.IOUtils.toByteArray(input, size);
+            }
+            return org.apache.commons.io.IOUtils.toByteArray(input);
+        }
+    }
+
+    @Override
+    public InputStream open(ArchiveEntry entry) throws IOException {
+        return jarFile.getInputStream(((Entry) entry).jarEntry);
+    }
+
+    @Override
+    public ArchiveReader openNested(ArchiveEntry entry) {
+        return null;
+    }
+
+    @Override
+    public ClassBytecode.Loader locate(ArchiveEntry entry) {
+        // JarFile doesn't tell where an entry is, but finds it by name without a scan
+        String name = entry.getName();
+        return () -> {
+            try (JarFile jar = new JarFile(file)) {
+                ZipEntry zipEntry = jar.getEntry(name);
+                if (zipEntry == null) {
+                    throw new FileNotFoundException(name);
+                }
+                try (InputStream input = jar.getInputStream(zipEntry)) {
+                    return org.apache.commons.io.IOUtils.toByteArray(input);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        jarFile.close();
+    }
+
+    private static class Entry implements ArchiveEntry {
+        private final JarEntry jarEntry;
+
+        Entry(JarEntry jarEntry) {
+            this.jarEntry = jarEntry;
+        }
+
+        @Override
+        public String getName() {
+            return jarEntry.getName();
+        }
+
+        @Override
+        public long getSize() {
+            return jarEntry.getSize();
+        }
+
+        @Override
+        public boolean isStored() {
+            return jarEntry.getMethod() == ZipEntry.STORED;
+        }
+    }
+}
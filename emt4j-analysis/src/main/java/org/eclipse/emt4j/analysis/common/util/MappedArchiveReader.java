@@ -0,0 +1,426 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.analysis.common.util;
+
+import org.eclipse.emt4j.common.ClassBytecode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Read archive from a memory mapped file.
+ * <p>
+ * The central directory is parsed once when the reader is created. A stored entry is read directly from the mapped
+ * region, so a stored nested jar can be read as an archive without copying. A deflated entry is inflated with an
+ * {@link Inflater} and an input buffer owned by the current thread, into an array of exactly the size of the entry.
+ * An entry can be read again from the file at its offset, without the central directory.
+ */
+class MappedArchiveReader implements ArchiveReader {
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int EOCD_SIZE = 22;
+    private static final int ZIP64_EOCD_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_EOCD_LOCATOR_SIZE = 20;
+    private static final int ZIP64_EOCD_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_EOCD_SIZE = 56;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int CEN_SIZE = 46;
+    private static final int LOC_SIGNATURE = 0x04034b50;
+    private static final int LOC_SIZE = 30;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+    private static final ThreadLocal<byte[]> INPUT_BUFFER = ThreadLocal.withInitial(() -> new byte[8192]);
+
+    private final Path path;
+    // the offset of the buffer in the file
+    private final long fileOffset;
+    private final ByteBuffer buffer;
+    private final List<Entry> entries;
+
+    private MappedArchiveReader(Path path, long fileOffset, ByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.fileOffset = fileOffset;
+        this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.entries = readCentralDirectory();
+    }
+
+    /**
+     * @return null if the file can't be mapped or it's not a valid archive
+     */
+    static MappedArchiveReader open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return null;
+            }
+            // the mapping stays valid after the channel is closed
+            return new MappedArchiveReader(path, 0, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public List<? extends ArchiveEntry> entries() {
+        return entries;
+    }
+
+    @Override
+    public byte[] read(ArchiveEntry archiveEntry) throws IOException {
+        Entry entry = (Entry) archiveEntry;
+        if (entry.size > Integer.MAX_VALUE) {
+            throw new ZipException("Entry too large: " + entry.name);
+        }
+        return read(entry.name, entry.method, entry.size, data(entry));
+    }
+
+    private static byte[] read(String name, int method, long size, ByteBuffer data) throws IOException {
+        byte[] content = new byte[(int) size];
+        if (method == STORED) {
+            data.get(content);
+            return content;
+        }
+
+        // Inflater only accepts arrays as input before JDK 11, so copy the compressed data to a reused array.
+        byte[] input = INPUT_BUFFER.get();
+        if (input.length < data.remaining()) {
+            input = new byte[Integer.highestOneBit(data.remaining()) << 1];
+            INPUT_BUFFER.set(input);
+        }
+        int inputSize = data.remaining();
+        data.get(input, 0, inputSize);
+        Inflater inflater = INFLATER.get();
+        try {
+            inflater.setInput(input, 0, inputSize);
+            int n = 0;
+            while (n < content.length) {
+                int inflated = inflater.inflate(content, n, content.length - n);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += inflated;
+            }
+            if (n != content.length) {
+                throw new ZipException("Invalid entry size for " + name + ", expected " + content.length + " but got " + n);
+            }
+            return content;
+        } catch (DataFormatException e) {
+            throw new ZipException("Invalid compressed data of " + name + ": " + e.getMessage());
+        } finally {
+            inflater.reset();
+        }
+    }
+
+    @Override
+    public InputStream open(ArchiveEntry archiveEntry) throws IOException {
+        Entry entry = (Entry) archiveEntry;
+        InputStream input = new ByteBufferInputStream(data(entry));
+        if (entry.method == STORED) {
+            return input;
+        }
+        Inflater inflater = new Inflater(true);
+        return new InflaterInputStream(input, inflater) {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (!closed) {
+                    closed = true;
+                    inflater.end();
+                    super.close();
+                }
+            }
+        };
+    }
+
+    @Override
+    public ArchiveReader openNested(ArchiveEntry archiveEntry) throws IOException {
+        Entry entry = (Entry) archiveEntry;
+        if (entry.method != STORED) {
+            return null;
+        }
+        try {
+            return new MappedArchiveReader(path, fileOffset + dataOffset(entry), data(entry));
+        } catch (ZipException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public ClassBytecode.Loader locate(ArchiveEntry archiveEntry) {
+        Entry entry = (Entry) archiveEntry;
+        if (entry.size > Integer.MAX_VALUE) {
+            return null;
+        }
+        return new EntryLoader(path, fileOffset + entry.localHeaderOffset, entry.name, entry.method, entry.size, entry.compressedSize);
+    }
+
+    @Override
+    public void close() {
+        // a mapped buffer is only released when it's garbage collected, there is no supported way to unmap it.
+        // That's why this reader is not the default on Windows, see ArchiveReader.
+    }
+
+    private ByteBuffer data(Entry entry) throws ZipException {
+        return slice((int) dataOffset(entry), (int) entry.compressedSize);
+    }
+
+    /**
+     * @return the offset of the entry data in the buffer
+     */
+    private long dataOffset(Entry entry) throws ZipException {
+        long localHeader = entry.localHeaderOffset;
+        if (localHeader < 0 || localHeader + LOC_SIZE > buffer.limit() || buffer.getInt((int) localHeader) != LOC_SIGNATURE) {
+            throw new ZipException("Invalid local header of " + entry.name);
+        }
+        long start = localHeader + LOC_SIZE + u16((int) localHeader + 26) + u16((int) localHeader + 28);
+        if (start + entry.compressedSize > buffer.limit()) {
+            throw new ZipException("Invalid entry data of " + entry.name);
+        }
+        return start;
+    }
+
+    private ByteBuffer slice(int offset, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        // cast to Buffer, so the class compiled by newer JDK still runs on JDK 8
+        ((Buffer) duplicate).limit(offset + length);
+        ((Buffer) duplicate).position(offset);
+        return duplicate.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private List<Entry> readCentralDirectory() throws ZipException {
+        int eocd = findEndOfCentralDirectory();
+        long total = u16(eocd + 10);
+        long cenSize = u32(eocd + 12);
+        long cenOffset = u32(eocd + 16);
+        int cenEnd = eocd;
+        if (total == 0xFFFF || cenSize == 0xFFFFFFFFL || cenOffset == 0xFFFFFFFFL) {
+            int locator = eocd - ZIP64_EOCD_LOCATOR_SIZE;
+            if (locator < 0 || buffer.getInt(locator) != ZIP64_EOCD_LOCATOR_SIGNATURE) {
+                throw new ZipException("Invalid zip64 end of central directory locator");
+            }
+            // the offset in the locator is wrong if there is a prefix, so search backward from the locator instead.
+            int record = locator - ZIP64_EOCD_SIZE;
+            while (record >= 0 && buffer.getInt(record) != ZIP64_EOCD_SIGNATURE) {
+                record--;
+            }
+            if (record < 0) {
+                throw new ZipException("Invalid zip64 end of central directory");
+            }
+            total = buffer.getLong(record + 32);
+            cenSize = buffer.getLong(record + 40);
+            cenOffset = buffer.getLong(record + 48);
+            cenEnd = record;
+        }
+        // An executable jar may have a launch script before the archive, all offsets are relative to the archive.
+        long base = cenEnd - cenSize - cenOffset;
+        if (base < 0 || cenSize > Integer.MAX_VALUE || total > Integer.MAX_VALUE) {
+            throw new ZipException("Invalid central directory");
+        }
+
+        List<Entry> result = new ArrayList<>((int) total);
+        int position = (int) (base + cenOffset);
+        for (long i = 0; i < total; i++) {
+            if (position + CEN_SIZE > cenEnd || buffer.getInt(position) != CEN_SIGNATURE) {
+                throw new ZipException("Invalid central directory entry");
+            }
+            int method = u16(position + 10);
+            long compressedSize = u32(position + 20);
+            long size = u32(position + 24);
+            int nameLength = u16(position + 28);
+            int extraLength = u16(position + 30);
+            int commentLength = u16(position + 32);
+            long localHeaderOffset = u32(position + 42);
+            byte[] name = new byte[nameLength];
+            slice(position + CEN_SIZE, nameLength).get(name);
+
+            if (size == 0xFFFFFFFFL || compressedSize == 0xFFFFFFFFL || localHeaderOffset == 0xFFFFFFFFL) {
+                int extra = position + CEN_SIZE + nameLength;
+                int extraEnd = extra + extraLength;
+                while (extra + 4 <= extraEnd) {
+                    int id = u16(extra);
+                    int length = u16(extra + 2);
+                    if (id == ZIP64_EXTRA_ID) {
+                        int field = extra + 4;
+                        if (size == 0xFFFFFFFFL) {
+                            size = buffer.getLong(field);
+                            field += 8;
+                        }
+                        if (compressedSize == 0xFFFFFFFFL) {
+                            compressedSize = buffer.getLong(field);
+                            field += 8;
+                        }
+                        if (localHeaderOffset == 0xFFFFFFFFL) {
+                            localHeaderOffset = buffer.getLong(field);
+                        }
+                        break;
+                    }
+                    extra += 4 + length;
+                }
+            }
+            if (method == STORED || method == DEFLATED) {
+                result.add(new Entry(new String(name, StandardCharsets.UTF_8), method, size, compressedSize, base + localHeaderOffset));
+            }
+            position += CEN_SIZE + nameLength + extraLength + commentLength;
+        }
+        return result;
+    }
+
+    private int findEndOfCentralDirectory() throws ZipException {
+        int end = buffer.limit() - EOCD_SIZE;
+        int stop = Math.max(0, end - MAX_COMMENT_SIZE);
+        for (int i = end; i >= stop; i--) {
+            if (buffer.getInt(i) == EOCD_SIGNATURE && i + EOCD_SIZE + u16(i + 20) == buffer.limit()) {
+                return i;
+            }
+        }
+        throw new ZipException("End of central directory not found");
+    }
+
+    private int u16(int offset) {
+        return buffer.getShort(offset) & 0xFFFF;
+    }
+
+    private long u32(int offset) {
+        return buffer.getInt(offset) & 0xFFFFFFFFL;
+    }
+
+    private static class Entry implements ArchiveEntry {
+        private final String name;
+        private final int method;
+        private final long size;
+        private final long compressedSize;
+        private final long localHeaderOffset;
+
+        Entry(String name, int method, long size, long compressedSize, long localHeaderOffset) {
+            this.name = name;
+            this.method = method;
+            this.size = size;
+            this.compressedSize = compressedSize;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public boolean isStored() {
+            return method == STORED;
+        }
+    }
+
+    /**
+     * Read an entry again from the local header at its offset in the file.
+     * It only keeps where the entry is, not the reader or the mapped buffer.
+     */
+    private static class EntryLoader implements ClassBytecode.Loader {
+        private final Path path;
+        private final long localHeaderOffset;
+        private final String name;
+        private final int method;
+        private final long size;
+        private final long compressedSize;
+
+        EntryLoader(Path path, long localHeaderOffset, String name, int method, long size, long compressedSize) {
+            this.path = path;
+            this.localHeaderOffset = localHeaderOffset;
+            this.name = name;
+            this.method = method;
+            this.size = size;
+            this.compressedSize = compressedSize;
+        }
+
+        @Override
+        public byte[] load() throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer header = readFully(channel, localHeaderOffset, LOC_SIZE);
+                if (header.getInt(0) != LOC_SIGNATURE) {
+                    throw new ZipException("Invalid local header of " + name);
+                }
+                long start = localHeaderOffset + LOC_SIZE + (header.getShort(26) & 0xFFFF) + (header.getShort(28) & 0xFFFF);
+                return read(name, method, size, readFully(channel, start, (int) compressedSize));
+            }
+        }
+
+        private ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+            ByteBuffer result = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+            while (result.hasRemaining()) {
+                if (channel.read(result, position + result.position()) < 0) {
+                    throw new ZipException("Unexpected end of " + name);
+                }
+            }
+            ((Buffer) result).flip();
+            return result;
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
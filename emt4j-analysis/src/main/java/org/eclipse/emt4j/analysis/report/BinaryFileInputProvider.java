@@ -65,6 +65,7 @@ public class BinaryFileInputProvider implements ReportInputProvider {
     }
 
     private void readTmpFile(List<File> files) throws IOException, ClassNotFoundException {
+        long dropped = 0;
         for (int i = 0; i < files.size(); i++) {
             File inputFile = files.get(i);
             try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(inputFile))) {
@@ -79,16 +80,26 @@ public class BinaryFileInputProvider implements ReportInputProvider {
                     this.vh = vh;
                 }
 
+                // the agent writes the header again when the number of dropped dependencies changes
+                long fileDropped = vh.getDroppedDependencies();
                 try {
-                    BodyRecord br = (BodyRecord) ois.readObject();
-                    while (br != null) {
-                        recordList.add(br);
-                        br = (BodyRecord) ois.readObject();
+                    Object record = ois.readObject();
+                    while (record != null) {
+                        if (record instanceof VariableHeader) {
+                            fileDropped = ((VariableHeader) record).getDroppedDependencies();
+                        } else {
+                            recordList.add((BodyRecord) record);
+                        }
+                        record = ois.readObject();
                     }
                 } catch (EOFException e) {
                 }
+                dropped += fileDropped;
             }
         }
+        if (this.vh != null) {
+            this.vh.setDroppedDependencies(dropped);
+        }
 
     }
 
@@ -68,11 +68,16 @@ public class ReportExecutor {
         log("Reading checking result.");
         new Progress(parentProgress, "Read dependency records").printTitle();
         List<BodyRecord> recordList = reportInputProvider.getRecords();
+        VariableHeader header = reportInputProvider.getHeader();
+        if (header != null && header.getDroppedDependencies() > 0) {
+            System.err.println("Warning: the agent dropped " + header.getDroppedDependencies()
+                    + " dependencies because it couldn't keep up, the report may be incomplete.");
+        }
 
         if (!disableExternalTool) {
             log("Prepare for invoking external tools.");
             new Progress(parentProgress, "Prepare for external tools").printTitle();
-            ExternalToolParam etp = prepareExternalToolParam(recordList, reportInputProvider.getHeader());
+            ExternalToolParam etp = prepareExternalToolParam(recordList, header);
             String externalToolRoot = reportConfig.getExternalToolRoot();
             if (externalToolRoot != null) {
                 Path root = Paths.get(externalToolRoot);
@@ -18,12 +18,16 @@
  ********************************************************************************/
 package org.eclipse.emt4j.analysis.source;
 
+import org.eclipse.emt4j.analysis.analyzer.AnalysisHandler;
+import org.eclipse.emt4j.analysis.analyzer.AnalysisTask;
 import org.eclipse.emt4j.analysis.common.util.Progress;
 import org.eclipse.emt4j.common.Dependency;
 import org.eclipse.emt4j.common.SourceInformation;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.function.Consumer;
 
 /**
@@ -48,6 +52,23 @@ public abstract class DependencySource {
      */
     public abstract void parse(Consumer<Dependency> consumer, Progress sourceProgress) throws IOException;
 
+    /**
+     * split the source into tasks that can be analyzed in parallel.
+     * The default is a single task that calls {@link #parse(Consumer, Progress)}.
+     *
+     * @param handler turn each dependency into records
+     * @return tasks whose records are in the same order as the tasks
+     * @throws IOException
+     */
+    public <R> List<AnalysisTask<R>> split(AnalysisHandler<R> handler) throws IOException {
+        return Collections.singletonList(new AnalysisTask<R>(desc(), handler) {
+            @Override
+            protected void analyze(Consumer<Dependency> consumer, List<AnalysisTask<R>> subTasks) throws Exception {
+                parse(consumer, null);
+            }
+        });
+    }
+
     public String desc() {
         return getFile().getName();
     }
@@ -18,6 +18,8 @@
  ********************************************************************************/
 package org.eclipse.emt4j.analysis.source;
 
+import org.eclipse.emt4j.analysis.analyzer.AnalysisHandler;
+import org.eclipse.emt4j.analysis.analyzer.AnalysisTask;
 import org.eclipse.emt4j.analysis.analyzer.DependencyAnalyzer;
 import org.eclipse.emt4j.analysis.common.util.Progress;
 import org.eclipse.emt4j.common.DependTarget;
@@ -32,8 +34,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.function.Consumer;
 
 /**
@@ -47,17 +51,34 @@ public class DirectorySource extends DependencySource {
     @Override
     public void parse(Consumer<Dependency> consumer, Progress sourceProgress) throws IOException {
         Map<Path, FileUtil.FileType> files = walk();
+        acceptLocations(files, consumer);
+        new DependencyAnalyzer(new ArrayList<>(files.keySet())).iterateDo(consumer, sourceProgress);
+    }
+
+    @Override
+    public <R> List<AnalysisTask<R>> split(AnalysisHandler<R> handler) {
+        return Collections.singletonList(new AnalysisTask<R>(desc(), handler) {
+            @Override
+            protected void analyze(Consumer<Dependency> consumer, List<AnalysisTask<R>> subTasks) throws Exception {
+                Map<Path, FileUtil.FileType> files = walk();
+                acceptLocations(files, consumer);
+                subTasks.addAll(new DependencyAnalyzer(new ArrayList<>(files.keySet())).split(handler));
+            }
+        });
+    }
+
+    private void acceptLocations(Map<Path, FileUtil.FileType> files, Consumer<Dependency> consumer) throws IOException {
         for (Map.Entry<Path, FileUtil.FileType> e : files.entrySet()) {
             Path f = e.getKey();
             if (e.getValue() == FileUtil.FileType.Jar || e.getValue() == FileUtil.FileType.Class) {
                 consumer.accept(new Dependency(null, new DependTarget.Location(f.toFile().toURI().toURL()), null, f.toFile().getAbsolutePath()));
             }
         }
-        new DependencyAnalyzer(new ArrayList<>(files.keySet())).iterateDo(consumer, sourceProgress);
     }
 
     private Map<Path, FileUtil.FileType> walk() throws IOException {
-        Map<Path, FileUtil.FileType> candidateFiles = new HashMap<>();
+        // sorted, so the files are always analyzed and reported in the same order
+        Map<Path, FileUtil.FileType> candidateFiles = new TreeMap<>();
         Files.walkFileTree(getFile().toPath(), new FileVisitor<Path>() {
             @Override
             public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
@@ -18,6 +18,8 @@
  ********************************************************************************/
 package org.eclipse.emt4j.analysis.source;
 
+import org.eclipse.emt4j.analysis.analyzer.AnalysisHandler;
+import org.eclipse.emt4j.analysis.analyzer.AnalysisTask;
 import org.eclipse.emt4j.analysis.analyzer.DependencyAnalyzer;
 import org.eclipse.emt4j.analysis.common.util.Progress;
 import org.eclipse.emt4j.common.Dependency;
@@ -25,6 +27,7 @@ import org.eclipse.emt4j.common.Dependency;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 import java.util.function.Consumer;
 
 public class SingleJarSource extends DependencySource {
@@ -37,4 +40,9 @@ public class SingleJarSource extends DependencySource {
     public void parse(Consumer<Dependency> consumer, Progress sourceProgress) throws IOException {
         new DependencyAnalyzer(Collections.singletonList(getFile().toPath())).iterateDo(consumer, sourceProgress);
     }
+
+    @Override
+    public <R> List<AnalysisTask<R>> split(AnalysisHandler<R> handler) {
+        return new DependencyAnalyzer(Collections.singletonList(getFile().toPath())).split(handler);
+    }
 }
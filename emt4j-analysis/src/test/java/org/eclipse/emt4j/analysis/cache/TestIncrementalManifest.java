@@ -0,0 +1,130 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.analysis.cache;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.emt4j.common.DependTarget;
+import org.eclipse.emt4j.common.DependType;
+import org.eclipse.emt4j.common.Dependency;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class TestIncrementalManifest {
+    private Path dir;
+    private File manifestFile;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("emt4j-incremental");
+        manifestFile = dir.resolve("manifest.dat").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir.toFile());
+    }
+
+    @Test
+    public void testReuseUnchanged() throws IOException {
+        Path a = classFile("A.class", "a");
+        Path b = classFile("B.class", "b");
+        IncrementalManifest first = IncrementalManifest.load(manifestFile, "context");
+        store(first, a);
+        store(first, b);
+        assertEquals(2, first.getAnalyzed());
+        first.save();
+
+        IncrementalManifest second = IncrementalManifest.load(manifestFile, "context");
+        List<CachedResult> results = second.lookup(a).getResults();
+        assertNotNull(results);
+        assertEquals("A", results.get(0).getDependency().getTarget().asClass().getClassName());
+        assertEquals(1, second.getReused());
+        assertEquals(0, second.getAnalyzed());
+    }
+
+    @Test
+    public void testChanged() throws IOException {
+        Path a = classFile("A.class", "a");
+        Path b = classFile("B.class", "b");
+        IncrementalManifest first = IncrementalManifest.load(manifestFile, "context");
+        store(first, a);
+        store(first, b);
+        first.save();
+
+        // compiled again to the same bytecode, only the time is changed
+        a.toFile().setLastModified(a.toFile().lastModified() - 10000);
+        Files.write(b, "changed".getBytes(StandardCharsets.UTF_8));
+        IncrementalManifest second = IncrementalManifest.load(manifestFile, "context");
+        assertNotNull(second.lookup(a).getResults());
+        assertNull(second.lookup(b).getResults());
+        assertEquals(1, second.getReused());
+        assertEquals(1, second.getAnalyzed());
+    }
+
+    @Test
+    public void testDifferentContext() throws IOException {
+        Path a = classFile("A.class", "a");
+        IncrementalManifest first = IncrementalManifest.load(manifestFile, "context");
+        store(first, a);
+        first.save();
+        assertNull(IncrementalManifest.load(manifestFile, "other context").lookup(a).getResults());
+    }
+
+    @Test
+    public void testForgetClassesNotFound() throws IOException {
+        Path a = classFile("A.class", "a");
+        Path b = classFile("B.class", "b");
+        IncrementalManifest first = IncrementalManifest.load(manifestFile, "context");
+        store(first, a);
+        store(first, b);
+        first.save();
+
+        IncrementalManifest second = IncrementalManifest.load(manifestFile, "context");
+        assertNotNull(second.lookup(a).getResults());
+        second.save();
+        IncrementalManifest third = IncrementalManifest.load(manifestFile, "context");
+        assertNull(third.lookup(b).getResults());
+    }
+
+    private Path classFile(String name, String content) throws IOException {
+        return Files.write(dir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void store(IncrementalManifest manifest, Path classFile) throws IOException {
+        ResultStore.Lookup lookup = manifest.lookup(classFile);
+        assertNull(lookup.getResults());
+        String className = classFile.getFileName().toString().replace(".class", "");
+        Dependency dependency = new Dependency(classFile.toUri().toURL(), new DependTarget.Class(className, DependType.WHOLE_CLASS),
+                null, classFile.toFile().getAbsolutePath());
+        lookup.store(Collections.singletonList(new CachedResult(dependency, Collections.emptyList())));
+    }
+}
@@ -0,0 +1,134 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.analysis.cache;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.emt4j.common.DependTarget;
+import org.eclipse.emt4j.common.DependType;
+import org.eclipse.emt4j.common.Dependency;
+import org.eclipse.emt4j.common.DependencyFingerprint;
+import org.eclipse.emt4j.common.rule.model.ReportCheckResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestJarResultCache {
+    private Path dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("emt4j-cache");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir.toFile());
+    }
+
+    @Test
+    public void testStoreAndLoadAtAnotherPath() throws IOException {
+        Path a = jar("a.jar", "content");
+        Path b = Files.createDirectories(dir.resolve("other")).resolve("b.jar");
+        Files.copy(a, b);
+        JarResultCache cache = new JarResultCache(dir.resolve("cache").toFile(), Long.MAX_VALUE, "context");
+        assertNull(cache.lookup(a).getResults());
+        cache.lookup(a).store(results(a));
+
+        List<CachedResult> loaded = cache.lookup(b).getResults();
+        assertNotNull(loaded);
+        List<CachedResult> expected = results(b);
+        assertEquals(expected.size(), loaded.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Dependency dependency = loaded.get(i).getDependency();
+            assertEquals(expected.get(i).getDependency().getLocationExternalForm(), dependency.getLocationExternalForm());
+            assertEquals(expected.get(i).getDependency().getTargetFilePath(), dependency.getTargetFilePath());
+            assertEquals(expected.get(i).getDependency().getTarget(), dependency.getTarget());
+            // the transient fields are not kept, the fingerprint must not depend on them
+            assertNull(dependency.getClassSymbol());
+            assertEquals(DependencyFingerprint.of(expected.get(i).getDependency()), DependencyFingerprint.of(dependency));
+        }
+
+        CachedRecord record = loaded.get(0).getRecords().get(0);
+        assertEquals(3, record.getRuleIndex());
+        ReportCheckResult checkResult = record.getCheckResult();
+        assertEquals("CODE", checkResult.getResultCode());
+        assertEquals("value", checkResult.getContext().get("key"));
+        assertTrue(checkResult.getPropagated().isEmpty());
+        assertEquals(b.toUri().toURL().toExternalForm() + "!/a/A.class", record.getDependency().getLocationExternalForm());
+        assertEquals(-1, loaded.get(1).getRecords().get(0).getRuleIndex());
+        assertNull(loaded.get(1).getRecords().get(0).getCheckResult());
+    }
+
+    @Test
+    public void testDifferentContentOrContext() throws IOException {
+        Path a = jar("a.jar", "content");
+        File cacheDir = dir.resolve("cache").toFile();
+        new JarResultCache(cacheDir, Long.MAX_VALUE, "context").lookup(a).store(results(a));
+        assertNull(new JarResultCache(cacheDir, Long.MAX_VALUE, "other context").lookup(a).getResults());
+        Files.write(a, "changed".getBytes(StandardCharsets.UTF_8));
+        assertNull(new JarResultCache(cacheDir, Long.MAX_VALUE, "context").lookup(a).getResults());
+    }
+
+    @Test
+    public void testEvict() throws IOException {
+        File cacheDir = dir.resolve("cache").toFile();
+        JarResultCache cache = new JarResultCache(cacheDir, 1, "context");
+        Path a = jar("a.jar", "a");
+        Path b = jar("b.jar", "b");
+        cache.lookup(a).store(results(a));
+        cache.lookup(b).store(results(b));
+        assertEquals(2, cacheDir.listFiles().length);
+        cache.evict();
+        assertEquals(0, cacheDir.listFiles().length);
+        assertNull(cache.lookup(a).getResults());
+    }
+
+    private Path jar(String name, String content) throws IOException {
+        return Files.write(dir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<CachedResult> results(Path jar) throws IOException {
+        String url = jar.toUri().toURL().toExternalForm();
+        String path = jar.toFile().getAbsolutePath();
+        Dependency method = new Dependency(new URL(url + "!/a/A.class"),
+                new DependTarget.Method("sun.misc.Unsafe", "getUnsafe", "()Lsun/misc/Unsafe;", DependType.METHOD), null, path);
+        ReportCheckResult checkResult = new ReportCheckResult(false);
+        checkResult.setResultCode("CODE");
+        checkResult.setContext(Collections.singletonMap("key", "value"));
+        Dependency location = new Dependency(null, new DependTarget.Location(new URL(url + "!/lib/n.jar")), null, path + "!/lib/n.jar");
+        return Arrays.asList(
+                new CachedResult(method, Collections.singletonList(new CachedRecord(method, checkResult, 3))),
+                new CachedResult(location, Collections.singletonList(new CachedRecord(location, null, -1))));
+    }
+}
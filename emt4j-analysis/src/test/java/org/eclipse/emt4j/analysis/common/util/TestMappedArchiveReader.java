@@ -0,0 +1,168 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.analysis.common.util;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.emt4j.common.ClassBytecode;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestMappedArchiveReader {
+
+    @Test
+    public void testZip64() throws IOException {
+        // more than 65535 entries can only be counted by the zip64 end of central directory
+        int count = 70000;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < count; i++) {
+                zip.putNextEntry(new ZipEntry("e" + i));
+                zip.write(content(i));
+                zip.closeEntry();
+            }
+        }
+        try (ArchiveReader reader = open(bytes.toByteArray())) {
+            List<? extends ArchiveEntry> entries = reader.entries();
+            assertEquals(count, entries.size());
+            for (int i : new int[]{0, 65535, count - 1}) {
+                assertEquals("e" + i, entries.get(i).getName());
+                assertArrayEquals(content(i), reader.read(entries.get(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testLaunchScript() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write("#!/bin/sh\nexec java -jar \"$0\" \"$@\"\n".getBytes(StandardCharsets.UTF_8));
+        bytes.write(zip(false, "a/A.class", content(1), "b/B.class", content(2)));
+        try (ArchiveReader reader = open(bytes.toByteArray())) {
+            List<? extends ArchiveEntry> entries = reader.entries();
+            assertEquals(2, entries.size());
+            assertEquals("a/A.class", entries.get(0).getName());
+            assertArrayEquals(content(1), reader.read(entries.get(0)));
+            assertEquals("b/B.class", entries.get(1).getName());
+            try (InputStream input = reader.open(entries.get(1))) {
+                assertArrayEquals(content(2), IOUtils.toByteArray(input));
+            }
+        }
+    }
+
+    @Test
+    public void testNestedJar() throws IOException {
+        byte[] nested = zip(false, "a/A.class", content(1));
+        byte[] jar = zip(true, "BOOT-INF/lib/stored.jar", nested);
+        byte[] deflated = zip(false, "WEB-INF/lib/deflated.jar", nested);
+        try (ArchiveReader reader = open(jar)) {
+            ArchiveEntry entry = reader.entries().get(0);
+            assertTrue(entry.isStored());
+            try (ArchiveReader nestedReader = reader.openNested(entry)) {
+                assertNotNull(nestedReader);
+                assertEquals("a/A.class", nestedReader.entries().get(0).getName());
+                assertArrayEquals(content(1), nestedReader.read(nestedReader.entries().get(0)));
+            }
+        }
+        try (ArchiveReader reader = open(deflated)) {
+            ArchiveEntry entry = reader.entries().get(0);
+            assertFalse(entry.isStored());
+            assertNull(reader.openNested(entry));
+            assertArrayEquals(nested, reader.read(entry));
+        }
+    }
+
+    @Test
+    public void testLocate() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write("#!/bin/sh\n".getBytes(StandardCharsets.UTF_8));
+        bytes.write(zip(true, "a/A.class", content(1),
+                "BOOT-INF/lib/stored.jar", zip(true, "b/B.class", content(2), "c/C.class", content(3)),
+                "WEB-INF/lib/deflated.jar", zip(false, "d/D.class", content(4))));
+        ClassBytecode.Loader a;
+        ClassBytecode.Loader c;
+        try (ArchiveReader reader = open(bytes.toByteArray())) {
+            List<? extends ArchiveEntry> entries = reader.entries();
+            a = reader.locate(entries.get(0));
+            try (ArchiveReader nested = reader.openNested(entries.get(1))) {
+                c = nested.locate(nested.entries().get(1));
+            }
+        }
+        // the loaders read the file again, not the closed readers
+        assertArrayEquals(content(1), a.load());
+        assertArrayEquals(content(3), c.load());
+
+        try (ArchiveReader reader = open(zip(false, "a/A.class", content(1)))) {
+            assertArrayEquals(content(1), reader.locate(reader.entries().get(0)).load());
+        }
+    }
+
+    private static ArchiveReader open(byte[] archive) throws IOException {
+        Path file = Files.createTempFile("emt4j-archive", ".jar");
+        // a mapped file can't be deleted on Windows until the mapping is garbage collected
+        file.toFile().deleteOnExit();
+        Files.write(file, archive);
+        ArchiveReader reader = MappedArchiveReader.open(file);
+        assertNotNull(reader);
+        return reader;
+    }
+
+    /**
+     * @param entries the name and the content of each entry
+     */
+    private static byte[] zip(boolean stored, Object... entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                byte[] content = (byte[]) entries[i + 1];
+                ZipEntry entry = new ZipEntry((String) entries[i]);
+                if (stored) {
+                    CRC32 crc = new CRC32();
+                    crc.update(content);
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(content.length);
+                    entry.setCrc(crc.getValue());
+                }
+                zip.putNextEntry(entry);
+                zip.write(content);
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] content(int i) {
+        return ("content of entry " + i).getBytes(StandardCharsets.UTF_8);
+    }
+}
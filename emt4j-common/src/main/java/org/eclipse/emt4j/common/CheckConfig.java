@@ -35,6 +35,36 @@ public class CheckConfig {
      */
     private String priority;
 
+    /**
+     * how many workers used to analysis the sources in parallel.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * how many workers used to check the dependencies with the rules, while other workers are analyzing the sources.
+     */
+    private int ruleThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * where the analysis results of jars are cached, null means not caching them.
+     */
+    private String cacheDir;
+
+    /**
+     * read the symbols of classes from the constant pool only, it's faster but the line numbers are not available.
+     */
+    private boolean fastSymbol;
+
+    /**
+     * the limit of the total size of the cached results in bytes.
+     */
+    private long cacheSize = 512L * 1024 * 1024;
+
+    /**
+     * where the results of class files are saved for the next run, null means analyzing all class files.
+     */
+    private String incrementalManifest;
+
     public int getToVersion() {
         return toVersion;
     }
@@ -64,6 +94,12 @@ public class CheckConfig {
         this.fromVersion = from.fromVersion;
         this.toVersion = from.toVersion;
         this.checkMode = from.checkMode;
+        this.threads = from.threads;
+        this.ruleThreads = from.ruleThreads;
+        this.cacheDir = from.cacheDir;
+        this.fastSymbol = from.fastSymbol;
+        this.cacheSize = from.cacheSize;
+        this.incrementalManifest = from.incrementalManifest;
     }
 
     public boolean isVerbose() {
@@ -81,4 +117,52 @@ public class CheckConfig {
     public void setPriority(String priority) {
         this.priority = priority;
     }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getRuleThreads() {
+        return ruleThreads;
+    }
+
+    public void setRuleThreads(int ruleThreads) {
+        this.ruleThreads = ruleThreads;
+    }
+
+    public String getCacheDir() {
+        return cacheDir;
+    }
+
+    public void setCacheDir(String cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    public boolean isFastSymbol() {
+        return fastSymbol;
+    }
+
+    public void setFastSymbol(boolean fastSymbol) {
+        this.fastSymbol = fastSymbol;
+    }
+
+    public long getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(long cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public String getIncrementalManifest() {
+        return incrementalManifest;
+    }
+
+    public void setIncrementalManifest(String incrementalManifest) {
+        this.incrementalManifest = incrementalManifest;
+    }
 }
@@ -0,0 +1,91 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+
+/**
+ * The bytecode of a class, which is only read when it's needed.
+ * <p>
+ * Few rules need the bytecode of a class, but a dependency may be kept for a long time (e.g. in a queue, or as a
+ * record of the report). So a dependency only keeps the bytecode by a soft reference, and reads it again from its
+ * source when it has been cleared.
+ */
+public abstract class ClassBytecode {
+
+    /**
+     * Read the bytecode from its source again.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        byte[] load() throws IOException;
+    }
+
+    /**
+     * @return the bytecode, or null if it's not available any more
+     * @throws JdkMigrationException if failed to read the bytecode again
+     */
+    public abstract byte[] get();
+
+    /**
+     * Keep the bytecode as long as the handle.
+     */
+    public static ClassBytecode of(byte[] bytecode) {
+        return new ClassBytecode() {
+            @Override
+            public byte[] get() {
+                return bytecode;
+            }
+        };
+    }
+
+    /**
+     * Keep the bytecode by a soft reference, and read it by the loader after the reference has been cleared.
+     */
+    public static ClassBytecode soft(byte[] bytecode, Loader loader) {
+        return new SoftClassBytecode(bytecode, loader);
+    }
+
+    private static class SoftClassBytecode extends ClassBytecode {
+        private final Loader loader;
+        private volatile SoftReference<byte[]> cached;
+
+        SoftClassBytecode(byte[] bytecode, Loader loader) {
+            this.loader = loader;
+            this.cached = new SoftReference<>(bytecode);
+        }
+
+        @Override
+        public byte[] get() {
+            byte[] bytecode = cached.get();
+            if (bytecode == null) {
+                try {
+                    bytecode = loader.load();
+                } catch (IOException e) {
+                    throw new JdkMigrationException("Failed to read the bytecode again", e);
+                }
+                if (bytecode != null) {
+                    cached = new SoftReference<>(bytecode);
+                }
+            }
+            return bytecode;
+        }
+    }
+}
@@ -18,23 +18,90 @@
  ********************************************************************************/
 package org.eclipse.emt4j.common;
 
+import org.eclipse.emt4j.common.util.SymbolTable;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.function.IntFunction;
 
 /**
  * Symbols that used by a class.
  * This class not include all symbol of a classes.Only some we need.
+ * <p>
+ * The types and the called methods are interned in global tables and stored as int ids, the line numbers are
+ * stored as int arrays. The tables are scoped (see {@link SymbolTable#openScope()}), so a symbol should only be
+ * built and used in an open scope. A symbol is built once with {@link Builder} and then can't be changed, the sets returned
+ * by the getters are read-only views over the ids, iterated in the order the symbols are found.
  */
 public class ClassSymbol {
-    private Set<String> typeSet;
-    private Set<DependTarget.Method> callMethodSet;
+    /**
+     * The names of the types used by classes
+     */
+    public static final SymbolTable<String> TYPES = SymbolTable.scoped();
+
+    /**
+     * The methods called by classes
+     */
+    public static final SymbolTable<DependTarget.Method> METHODS = SymbolTable.scoped();
+
+    private static final int[] NO_IDS = new int[0];
 
-    private Map<DependTarget.Method, List<Integer>> callMethodToLines;
-    private Set<String> constantPoolSet;
-    private Map<String, Set<String>> invokeMap;
+    private final int[] typeIds;
+    private final int[] sortedTypeIds;
+    private final int[] methodIds;
+    private final int[] sortedMethodIds;
+    // the index in methodIds of each id in sortedMethodIds
+    private final int[] sortedMethodIndexes;
+    // the line numbers of each method in methodIds, null if there is no line number
+    private final int[][] methodLines;
+    // the indexes in callers of the methods that call each method in methodIds, null if the callers are unknown
+    private final int[][] methodCallers;
+    // name + descriptor of the methods in the class that call other methods
+    private final String[] callers;
+    // the static fields used by the class, each is "className.fieldName"
+    private final String[] staticFields;
+    // the indexes in callers of the methods that read and that write each field in staticFields
+    private final int[][] staticFieldReaders;
+    private final int[][] staticFieldWriters;
+    // sorted and distinct
+    private final String[] constants;
     private String className; // Internal class name
 
+    private ClassSymbol(int[] typeIds, int[] methodIds, int[][] methodLines, int[][] methodCallers, String[] callers,
+                        String[] staticFields, int[][] staticFieldReaders, int[][] staticFieldWriters,
+                        String[] constants, String className) {
+        this.typeIds = typeIds;
+        this.sortedTypeIds = sortedCopy(typeIds);
+        this.methodIds = methodIds;
+        this.methodLines = methodLines;
+        this.methodCallers = methodCallers;
+        this.callers = callers;
+        this.staticFields = staticFields;
+        this.staticFieldReaders = staticFieldReaders;
+        this.staticFieldWriters = staticFieldWriters;
+        this.sortedMethodIndexes = sortedIndexes(methodIds);
+        this.sortedMethodIds = new int[methodIds.length];
+        for (int i = 0; i < methodIds.length; i++) {
+            sortedMethodIds[i] = methodIds[sortedMethodIndexes[i]];
+        }
+        this.constants = constants;
+        this.className = className;
+    }
+
     public String getClassName() {
         return className;
     }
@@ -44,34 +111,404 @@ public class ClassSymbol {
     }
 
     public Set<String> getTypeSet() {
-        return typeSet;
+        return new IdSet<>(typeIds, sortedTypeIds, TYPES);
     }
 
-    public void setTypeSet(Set<String> typeSet) {
-        this.typeSet = typeSet;
+    public Set<DependTarget.Method> getCallMethodSet() {
+        return new IdSet<>(methodIds, sortedMethodIds, METHODS);
     }
 
-    public Set<DependTarget.Method> getCallMethodSet() {
-        return callMethodSet;
+    /**
+     * @return the line numbers where the method is called, or null if the method is not called or the line numbers
+     * are unknown
+     */
+    public List<Integer> getCallMethodLines(DependTarget.Method method) {
+        int index = indexOf(method);
+        if (index < 0) {
+            return null;
+        }
+        int[] lines = methodLines[index];
+        return lines == null ? null : new IntList(lines);
     }
 
-    public void setCallMethodSet(Set<DependTarget.Method> callMethodSet) {
-        this.callMethodSet = callMethodSet;
+    /**
+     * @return the methods of this class that call the method, each is the name and the descriptor
+     * (e.g. <code>format(Ljava/util/Date;)Ljava/lang/String;</code>), or null if the callers are unknown
+     */
+    public Set<String> getCallerMethods(DependTarget.Method method) {
+        if (methodCallers == null) {
+            return null;
+        }
+        int index = indexOf(method);
+        if (index < 0) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new LinkedHashSet<>();
+        for (int caller : methodCallers[index]) {
+            result.add(callers[caller]);
+        }
+        return result;
     }
 
-    public Map<DependTarget.Method, List<Integer>> getCallMethodToLines() {
-        return callMethodToLines;
+    /**
+     * A value that a method stores in a static field can be used by any method that reads the field, e.g. a field
+     * assigned in <code>&lt;clinit&gt;</code> and cast in another method.
+     *
+     * @param methods name + descriptor of methods of this class
+     * @return the methods of this class that read a static field written by any of the methods, or by any method
+     * found this way, or null if the callers are unknown
+     */
+    public Set<String> getStaticFieldReaders(Collection<String> methods) {
+        if (methodCallers == null) {
+            return null;
+        }
+        boolean[] found = new boolean[callers.length];
+        Deque<Integer> writers = new ArrayDeque<>();
+        for (int i = 0; i < callers.length; i++) {
+            if (methods.contains(callers[i])) {
+                writers.add(i);
+            }
+        }
+        Set<String> result = new LinkedHashSet<>();
+        while (!writers.isEmpty()) {
+            int writer = writers.poll();
+            for (int f = 0; f < staticFields.length; f++) {
+                if (Arrays.binarySearch(staticFieldWriters[f], writer) >= 0) {
+                    for (int reader : staticFieldReaders[f]) {
+                        if (!found[reader]) {
+                            found[reader] = true;
+                            result.add(callers[reader]);
+                            writers.add(reader);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
     }
 
-    public void setCallMethodToLines(Map<DependTarget.Method, List<Integer>> callMethodToLines) {
-        this.callMethodToLines = callMethodToLines;
+    /**
+     * @return the index of the method in methodIds, or -1 if the method is not called
+     */
+    private int indexOf(DependTarget.Method method) {
+        int id = METHODS.lookup(method);
+        if (id < 0) {
+            return -1;
+        }
+        int i = Arrays.binarySearch(sortedMethodIds, id);
+        return i < 0 ? -1 : sortedMethodIndexes[i];
     }
 
     public Set<String> getConstantPoolSet() {
-        return constantPoolSet;
+        return new AbstractSet<String>() {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String && Arrays.binarySearch(constants, o) >= 0;
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                return Arrays.asList(constants).iterator();
+            }
+
+            @Override
+            public int size() {
+                return constants.length;
+            }
+        };
+    }
+
+    private static int[] sortedCopy(int[] ids) {
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        return sorted;
     }
 
-    public void setConstantPoolSet(Set<String> constantPoolSet) {
-        this.constantPoolSet = constantPoolSet;
+    private static int[] sortedIndexes(int[] ids) {
+        // the ids are distinct, so sorting (id, index) pairs by id only needs one long per pair
+        long[] pairs = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            pairs[i] = ((long) ids[i] << 32) | i;
+        }
+        Arrays.sort(pairs);
+        int[] indexes = new int[ids.length];
+        for (int i = 0; i < pairs.length; i++) {
+            indexes[i] = (int) pairs[i];
+        }
+        return indexes;
+    }
+
+    private static class IdSet<T> extends AbstractSet<T> {
+        private final int[] ids;
+        private final int[] sortedIds;
+        private final SymbolTable<T> table;
+
+        IdSet(int[] ids, int[] sortedIds, SymbolTable<T> table) {
+            this.ids = ids;
+            this.sortedIds = sortedIds;
+            this.table = table;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            int id = table.lookup(o);
+            return id >= 0 && Arrays.binarySearch(sortedIds, id) >= 0;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new IdIterator<>(ids, table::get);
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+
+    private static class IdIterator<T> implements Iterator<T> {
+        private final int[] ids;
+        private final IntFunction<T> mapper;
+        private int next;
+
+        IdIterator(int[] ids, IntFunction<T> mapper) {
+            this.ids = ids;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < ids.length;
+        }
+
+        @Override
+        public T next() {
+            if (next >= ids.length) {
+                throw new NoSuchElementException();
+            }
+            return mapper.apply(ids[next++]);
+        }
+    }
+
+    private static class IntList extends AbstractList<Integer> {
+        private final int[] values;
+
+        IntList(int[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Integer get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+
+    /**
+     * Collect the symbols of a class. The same symbol can be added many times, it's only kept once.
+     */
+    public static class Builder {
+        private static final int NO_LINE = -1;
+        private static final int NO_CALLER = -1;
+
+        private int[] types = new int[64];
+        private int typeCount;
+        // (method id, line, caller) triples in the order they are added
+        private int[] calls = new int[192];
+        private int callCount;
+        private final List<String> callers = new ArrayList<>();
+        private final Map<String, Integer> callerIndexes = new HashMap<>();
+        private int currentCaller = NO_CALLER;
+        // static field -> the callers that read it, and that write it
+        private final Map<String, Set<Integer>> staticFieldReaders = new HashMap<>();
+        private final Map<String, Set<Integer>> staticFieldWriters = new HashMap<>();
+        private final Set<String> constants = new HashSet<>();
+
+        public Builder addType(String type) {
+            if (typeCount == types.length) {
+                types = Arrays.copyOf(types, typeCount * 2);
+            }
+            types[typeCount++] = TYPES.intern(type);
+            return this;
+        }
+
+        public Builder addMethod(DependTarget.Method method) {
+            return addMethod(method, NO_LINE);
+        }
+
+        public Builder addMethod(DependTarget.Method method, int line) {
+            if (callCount * 3 == calls.length) {
+                calls = Arrays.copyOf(calls, calls.length * 2);
+            }
+            calls[callCount * 3] = METHODS.intern(method);
+            calls[callCount * 3 + 1] = line;
+            calls[callCount * 3 + 2] = currentCaller;
+            callCount++;
+            return this;
+        }
+
+        /**
+         * The methods added after are called by the method of this class, until another caller is set.
+         */
+        public Builder setCallerMethod(String name, String descriptor) {
+            String caller = name + descriptor;
+            Integer index = callerIndexes.get(caller);
+            if (index == null) {
+                index = callers.size();
+                callers.add(caller);
+                callerIndexes.put(caller, index);
+            }
+            currentCaller = index;
+            return this;
+        }
+
+        /**
+         * The static field is read by the current caller.
+         */
+        public Builder addStaticFieldRead(String className, String fieldName) {
+            return addStaticFieldAccess(staticFieldReaders, className, fieldName);
+        }
+
+        /**
+         * The static field is written by the current caller.
+         */
+        public Builder addStaticFieldWrite(String className, String fieldName) {
+            return addStaticFieldAccess(staticFieldWriters, className, fieldName);
+        }
+
+        private Builder addStaticFieldAccess(Map<String, Set<Integer>> accesses, String className, String fieldName) {
+            if (currentCaller != NO_CALLER) {
+                accesses.computeIfAbsent(className + '.' + fieldName, (k) -> new HashSet<>()).add(currentCaller);
+            }
+            return this;
+        }
+
+        public Builder addConstant(String constant) {
+            constants.add(constant);
+            return this;
+        }
+
+        public ClassSymbol build(String className) {
+            int[] typeIds = distinct(types, typeCount);
+
+            // group the calls by method, keeping the order of the calls in each group
+            long[] keys = new long[callCount];
+            for (int i = 0; i < callCount; i++) {
+                keys[i] = ((long) calls[i * 3] << 32) | i;
+            }
+            Arrays.sort(keys);
+            int methodCount = 0;
+            // (the first call, the start of the group in keys) of each method
+            long[] groups = new long[callCount];
+            for (int i = 0; i < keys.length; i++) {
+                if (i == 0 || (keys[i] >>> 32) != (keys[i - 1] >>> 32)) {
+                    groups[methodCount++] = ((long) (int) keys[i] << 32) | i;
+                }
+            }
+            // keep the methods in the order they are called first
+            Arrays.sort(groups, 0, methodCount);
+            int[] methodIds = new int[methodCount];
+            int[][] methodLines = new int[methodCount][];
+            // the callers are known only if every call is added after a caller is set
+            boolean callersKnown = true;
+            for (int i = 0; i < callCount; i++) {
+                if (calls[i * 3 + 2] == NO_CALLER) {
+                    callersKnown = false;
+                    break;
+                }
+            }
+            int[][] methodCallers = callersKnown ? new int[methodCount][] : null;
+            for (int m = 0; m < methodCount; m++) {
+                int start = (int) groups[m];
+                int end = start;
+                int lineCount = 0;
+                while (end < keys.length && (keys[end] >>> 32) == (keys[start] >>> 32)) {
+                    if (calls[(int) keys[end] * 3 + 1] != NO_LINE) {
+                        lineCount++;
+                    }
+                    end++;
+                }
+                methodIds[m] = (int) (keys[start] >>> 32);
+                if (lineCount > 0) {
+                    int[] lines = new int[lineCount];
+                    int l = 0;
+                    for (int i = start; i < end; i++) {
+                        int line = calls[(int) keys[i] * 3 + 1];
+                        if (line != NO_LINE) {
+                            lines[l++] = line;
+                        }
+                    }
+                    methodLines[m] = lines;
+                }
+                if (methodCallers != null) {
+                    int[] groupCallers = new int[end - start];
+                    for (int i = start; i < end; i++) {
+                        groupCallers[i - start] = calls[(int) keys[i] * 3 + 2];
+                    }
+                    methodCallers[m] = distinct(groupCallers, groupCallers.length);
+                }
+            }
+
+            Set<String> fields = new HashSet<>(staticFieldReaders.keySet());
+            fields.addAll(staticFieldWriters.keySet());
+            String[] staticFields = fields.toArray(new String[0]);
+            Arrays.sort(staticFields);
+            int[][] fieldReaders = new int[staticFields.length][];
+            int[][] fieldWriters = new int[staticFields.length][];
+            for (int f = 0; f < staticFields.length; f++) {
+                fieldReaders[f] = sortedIds(staticFieldReaders.get(staticFields[f]));
+                fieldWriters[f] = sortedIds(staticFieldWriters.get(staticFields[f]));
+            }
+
+            String[] constantArray = constants.toArray(new String[0]);
+            Arrays.sort(constantArray);
+            return new ClassSymbol(typeIds, methodIds, methodLines, methodCallers, callers.toArray(new String[0]),
+                    staticFields, fieldReaders, fieldWriters, constantArray, className);
+        }
+
+        private static int[] sortedIds(Set<Integer> ids) {
+            if (ids == null) {
+                return NO_IDS;
+            }
+            int[] result = new int[ids.size()];
+            int n = 0;
+            for (int id : ids) {
+                result[n++] = id;
+            }
+            Arrays.sort(result);
+            return result;
+        }
+
+        /**
+         * @return the distinct ids in the order they are first added
+         */
+        private static int[] distinct(int[] ids, int count) {
+            if (count == 0) {
+                return NO_IDS;
+            }
+            int[] sorted = Arrays.copyOf(ids, count);
+            Arrays.sort(sorted);
+            int distinctCount = 0;
+            for (int i = 0; i < count; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[distinctCount++] = sorted[i];
+                }
+            }
+            boolean[] added = new boolean[distinctCount];
+            int[] result = new int[distinctCount];
+            int n = 0;
+            for (int i = 0; i < count; i++) {
+                int index = Arrays.binarySearch(sorted, 0, distinctCount, ids[i]);
+                if (!added[index]) {
+                    added[index] = true;
+                    result[n++] = ids[i];
+                }
+            }
+            return result;
+        }
     }
 }
@@ -39,8 +39,12 @@ public class Dependency implements Serializable, Cloneable {
     private transient Class[] nonJdkCallerClass;
     private StackTraceElement[] stacktrace;
     private transient Map<String, Object> context;
-    private transient byte[] currClassBytecode;
+    private transient ClassBytecode currClassBytecode;
     private transient ClassSymbol classSymbol;
+    /**
+     * The static analysis rules already run on the class, rule to whether the issue is found
+     */
+    private transient Map<String, Boolean> staticAnalysisResults;
 
     private SourceInformation sourceInformation;
 
@@ -70,6 +74,10 @@ public class Dependency implements Serializable, Cloneable {
         return locationExternalForm;
     }
 
+    public void setLocationExternalForm(String locationExternalForm) {
+        this.locationExternalForm = locationExternalForm;
+    }
+
     public void setTarget(DependTarget target) {
         this.target = target;
     }
@@ -129,12 +137,23 @@ public class Dependency implements Serializable, Cloneable {
         this.callerMethod = callerMethod;
     }
 
+    /**
+     * @return the bytecode of the class, it's read again if it's not kept in memory any more
+     */
     public byte[] getCurrClassBytecode() {
-        return currClassBytecode;
+        return currClassBytecode == null ? null : currClassBytecode.get();
     }
 
     public void setCurrClassBytecode(byte[] currClassBytecode) {
-        this.currClassBytecode = currClassBytecode;
+        this.currClassBytecode = currClassBytecode == null ? null : ClassBytecode.of(currClassBytecode);
+    }
+
+    public ClassBytecode getClassBytecode() {
+        return currClassBytecode;
+    }
+
+    public void setClassBytecode(ClassBytecode classBytecode) {
+        this.currClassBytecode = classBytecode;
     }
 
     public ClassSymbol getClassSymbol() {
@@ -145,6 +164,14 @@ public class Dependency implements Serializable, Cloneable {
         this.classSymbol = classSymbol;
     }
 
+    public Map<String, Boolean> getStaticAnalysisResults() {
+        return staticAnalysisResults;
+    }
+
+    public void setStaticAnalysisResults(Map<String, Boolean> staticAnalysisResults) {
+        this.staticAnalysisResults = staticAnalysisResults;
+    }
+
     public String getTargetFilePath() {
         return targetFilePath;
     }
@@ -174,7 +201,7 @@ public class Dependency implements Serializable, Cloneable {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Dependency that = (Dependency) o;
-        return Objects.equals(locationExternalForm, that.locationExternalForm) && Objects.equals(target, that.target) && Objects.equals(targetFilePath, that.targetFilePath) && Objects.equals(callerClass, that.callerClass) && Objects.equals(callerMethod, that.callerMethod) && Arrays.equals(nonJdkCallerClass, that.nonJdkCallerClass) && Arrays.equals(stacktrace, that.stacktrace) && Objects.equals(context, that.context) && Arrays.equals(currClassBytecode, that.currClassBytecode) && Objects.equals(classSymbol, that.classSymbol) && Objects.equals(sourceInformation, that.sourceInformation) && Objects.equals(lines, that.lines);
+        return Objects.equals(locationExternalForm, that.locationExternalForm) && Objects.equals(target, that.target) && Objects.equals(targetFilePath, that.targetFilePath) && Objects.equals(callerClass, that.callerClass) && Objects.equals(callerMethod, that.callerMethod) && Arrays.equals(nonJdkCallerClass, that.nonJdkCallerClass) && Arrays.equals(stacktrace, that.stacktrace) && Objects.equals(context, that.context) && Arrays.equals(getCurrClassBytecode(), that.getCurrClassBytecode()) && Objects.equals(classSymbol, that.classSymbol) && Objects.equals(sourceInformation, that.sourceInformation) && Objects.equals(lines, that.lines);
     }
 
     @Override
@@ -182,7 +209,7 @@ public class Dependency implements Serializable, Cloneable {
         int result = Objects.hash(locationExternalForm, target, targetFilePath, callerClass, callerMethod, context, classSymbol, sourceInformation, lines);
         result = 31 * result + Arrays.hashCode(nonJdkCallerClass);
         result = 31 * result + Arrays.hashCode(stacktrace);
-        result = 31 * result + Arrays.hashCode(currClassBytecode);
+        result = 31 * result + Arrays.hashCode(getCurrClassBytecode());
         return result;
     }
 
@@ -197,7 +224,7 @@ public class Dependency implements Serializable, Cloneable {
                 ", nonJdkCallerClass=" + Arrays.toString(nonJdkCallerClass) +
                 ", stacktrace=" + Arrays.toString(stacktrace) +
                 ", context=" + context +
-                ", currClassBytecode=" + Arrays.toString(currClassBytecode) +
+                ", currClassBytecode=" + currClassBytecode +
                 ", classSymbol=" + classSymbol +
                 ", sourceInformation=" + sourceInformation +
                 ", lines=" + lines +
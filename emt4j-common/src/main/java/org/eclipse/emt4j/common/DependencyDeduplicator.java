@@ -0,0 +1,48 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common;
+
+import org.eclipse.emt4j.common.util.FingerprintSet;
+
+/**
+ * Remember the dependencies that have been seen, by their {@link DependencyFingerprint}.
+ * It's used by both analysis and agent, so a dependency is only checked once no matter how many times it's found.
+ * It's thread-safe.
+ */
+public class DependencyDeduplicator {
+    private final FingerprintSet seen = new FingerprintSet();
+
+    /**
+     * @return true if it's the first time to see the dependency
+     */
+    public boolean firstSeen(Dependency dependency) {
+        return seen.add(DependencyFingerprint.high(dependency), DependencyFingerprint.low(dependency));
+    }
+
+    /**
+     * @return true if it's the first time to see the fingerprint
+     */
+    public boolean firstSeen(long high, long low) {
+        return seen.add(high, low);
+    }
+
+    public int size() {
+        return seen.size();
+    }
+}
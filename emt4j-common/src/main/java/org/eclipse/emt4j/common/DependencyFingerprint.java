@@ -0,0 +1,146 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common;
+
+import java.util.Map;
+
+/**
+ * A 128-bit fingerprint of the identity of a dependency.
+ * <p>
+ * Only the fields that tell what depends on what are used: the type, the location, the target and the caller.
+ * Bytecode, class symbol, stacktrace and lines are only details of the same dependency, so they are left out.
+ * The high and low parts are computed by two differently seeded hash functions, they can be computed without
+ * creating any object by {@link #high(Dependency)} and {@link #low(Dependency)}.
+ */
+public final class DependencyFingerprint {
+    private static final long HIGH_SEED = 0x9E3779B97F4A7C15L;
+    private static final long HIGH_MULTIPLIER = 0xC2B2AE3D27D4EB4FL;
+    private static final long LOW_SEED = 0x165667B19E3779F9L;
+    private static final long LOW_MULTIPLIER = 0x87C37B91114253D5L;
+
+    private final long high;
+    private final long low;
+
+    public DependencyFingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    public static DependencyFingerprint of(Dependency dependency) {
+        return new DependencyFingerprint(high(dependency), low(dependency));
+    }
+
+    public static long high(Dependency dependency) {
+        return hash(dependency, HIGH_SEED, HIGH_MULTIPLIER);
+    }
+
+    public static long low(Dependency dependency) {
+        return hash(dependency, LOW_SEED, LOW_MULTIPLIER);
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    private static long hash(Dependency dependency, long seed, long multiplier) {
+        long h = seed;
+        h = mix(h, dependency.getDependType().ordinal(), multiplier);
+        h = mix(h, dependency.getLocationExternalForm(), multiplier);
+        h = mix(h, dependency.getTargetFilePath(), multiplier);
+        DependTarget target = dependency.getTarget();
+        if (target instanceof DependTarget.Method) {
+            DependTarget.Method method = target.asMethod();
+            h = mix(h, method.getClassName(), multiplier);
+            h = mix(h, method.getMethodName(), multiplier);
+            h = mix(h, method.getDesc(), multiplier);
+        } else if (target instanceof DependTarget.Class) {
+            h = mix(h, target.asClass().getClassName(), multiplier);
+        } else if (target instanceof DependTarget.Location) {
+            h = mix(h, target.asLocation().getLocationExternalForm(), multiplier);
+        } else if (target instanceof DependTarget.VMOption) {
+            h = mix(h, target.asVMOption().getVmOption(), multiplier);
+        }
+        Class<?> callerClass = dependency.getCallerClass();
+        h = mix(h, callerClass == null ? null : callerClass.getName(), multiplier);
+        h = mix(h, dependency.getCallerMethod(), multiplier);
+        Map<String, Object> context = dependency.getContext();
+        if (context != null) {
+            // the order of a map is not stable, so combine the entries with a commutative sum.
+            long sum = 0;
+            for (Map.Entry<String, Object> e : context.entrySet()) {
+                sum += finish(mix(mix(seed, e.getKey(), multiplier), String.valueOf(e.getValue()), multiplier));
+            }
+            h = mix(h, sum, multiplier);
+        }
+        return finish(h);
+    }
+
+    /**
+     * The length goes first, so the boundary of each string is a part of the fingerprint.
+     */
+    private static long mix(long h, String s, long multiplier) {
+        if (s == null) {
+            return mix(h, -1L, multiplier);
+        }
+        h = mix(h, s.length(), multiplier);
+        for (int i = 0; i < s.length(); i++) {
+            h = mix(h, s.charAt(i), multiplier);
+        }
+        return h;
+    }
+
+    private static long mix(long h, long v, long multiplier) {
+        h ^= v * multiplier;
+        return Long.rotateLeft(h, 31) * multiplier + 0x52DCE729L;
+    }
+
+    /**
+     * The finalizer of MurmurHash3, every input bit affects every output bit.
+     */
+    private static long finish(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DependencyFingerprint that = (DependencyFingerprint) o;
+        return high == that.high && low == that.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) high;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+}
@@ -39,4 +39,13 @@ public @interface RuleImpl {
      * @return
      */
     int priority() default 3;
+
+    /**
+     * Whether the rule can be called by more than one thread at the same time.
+     * A rule that is thread-safe doesn't change anything after it's initialized, including the dependency it checks.
+     * Otherwise, it's only called by one thread at a time.
+     *
+     * @return
+     */
+    boolean threadSafe() default false;
 }
@@ -40,6 +40,19 @@ public class AsmClassMethodsAccessor implements ClassMethodsAccessor {
 
     static AtomicReference<String> currentMethod = new AtomicReference<>();
 
+    /**
+     * Read the symbols in a byte array of the class file from the constant pool only, see {@link ConstantPoolSymbolReader}.
+     */
+    private final boolean fastSymbol;
+
+    public AsmClassMethodsAccessor() {
+        this(false);
+    }
+
+    public AsmClassMethodsAccessor(boolean fastSymbol) {
+        this.fastSymbol = fastSymbol;
+    }
+
     @Override
     public void visitGivenMethodList(Class targetClass, List<String> methodNameList, MethodVisitor methodVisitor) {
         readClass(targetClass, (b) -> {
@@ -80,6 +93,9 @@ public class AsmClassMethodsAccessor implements ClassMethodsAccessor {
                 }
                 currentMethod.set(methodFullName);
                 if (null == methodNameList || methodNameList.contains(name)) {
+                    if (methodVisitor instanceof RecordSymbolMethodVisitor) {
+                        ((RecordSymbolMethodVisitor) methodVisitor).symbol.setCallerMethod(name, descriptor);
+                    }
                     return methodVisitor;
                 }
                 return super.visitMethod(access, name, descriptor, signature, exceptions);
@@ -159,6 +175,9 @@ public class AsmClassMethodsAccessor implements ClassMethodsAccessor {
 
     @Override
     public Set<String> getReferenceClassSet(byte[] bytecode) {
+        if (fastSymbol) {
+            return new HashSet<>(ConstantPoolSymbolReader.read(bytecode).getTypeSet());
+        }
         RecordSymbolMethodVisitor methodVisitor = new RecordSymbolMethodVisitor();
         visit(bytecode, null, methodVisitor);
         return methodVisitor.getTypeSet();
@@ -174,32 +193,21 @@ public class AsmClassMethodsAccessor implements ClassMethodsAccessor {
     }
 
     private static ClassSymbol createClassSymbol(RecordSymbolMethodVisitor methodVisitor, String className) {
-        ClassSymbol classSymbol = new ClassSymbol();
-        classSymbol.setCallMethodSet(methodVisitor.callMethodSet);
-        classSymbol.setCallMethodToLines(methodVisitor.callMethodToLines);
-        classSymbol.setConstantPoolSet(methodVisitor.constantPoolSet);
-        classSymbol.setTypeSet(methodVisitor.typeSet);
-        classSymbol.setClassName(className);
-        return classSymbol;
+        return methodVisitor.symbol.build(className);
     }
 
     private static class RecordSymbolMethodVisitor extends MethodVisitor {
 
         private int currentLine;
 
-        Set<String> typeSet = new HashSet<>();
-        Set<DependTarget.Method> callMethodSet = new HashSet<>();
-
-        Map<DependTarget.Method, List<Integer>> callMethodToLines = new HashMap<>();
-
-        Set<String> constantPoolSet = new HashSet<>();
+        final ClassSymbol.Builder symbol = new ClassSymbol.Builder();
 
         public RecordSymbolMethodVisitor() {
             super(ASM9);
         }
 
         public Set<String> getTypeSet() {
-            return typeSet;
+            return new HashSet<>(symbol.build(null).getTypeSet());
         }
 
         @Override
@@ -210,7 +218,7 @@ public class AsmClassMethodsAccessor implements ClassMethodsAccessor {
 
         void add(String maybeClass) {
             if (maybeClass != null) {
-                typeSet.add(maybeClass);
+                symbol.addType(maybeClass);
             }
         }
 
@@ -266,6 +274,11 @@ public class AsmClassMethodsAccessor implements ClassMethodsAccessor {
         public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
             add(normalize(owner));
             add(parseInternalForms(descriptor));
+            if (opcode == Opcodes.GETSTATIC) {
+                symbol.addStaticFieldRead(normalize(owner), name);
+            } else if (opcode == Opcodes.PUTSTATIC) {
+                symbol.addStaticFieldWrite(normalize(owner), name);
+            }
             super.visitFieldInsn(opcode, owner, name, descriptor);
         }
 
@@ -281,8 +294,7 @@ public class AsmClassMethodsAccessor implements ClassMethodsAccessor {
             //For simply,we omit the descriptor of method all in jdk migration tool.
             //Omit the descriptor have no problem for functional.
             DependTarget.Method dependTarget = new DependTarget.Method(normalize(owner), name, descriptor, DependType.METHOD);
-            callMethodSet.add(dependTarget);
-            callMethodToLines.computeIfAbsent(dependTarget, i -> new ArrayList<>()).add(currentLine);
+            symbol.addMethod(dependTarget, currentLine);
             super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
         }
 
@@ -367,23 +379,23 @@ public class AsmClassMethodsAccessor implements ClassMethodsAccessor {
         public void visitLdcInsn(Object value) {
             if (value instanceof String) {
                 add((String) value);
-                constantPoolSet.add((String) value);
+                symbol.addConstant((String) value);
             } else if (value instanceof Type) {
                 Type type = (Type) value;
                 int sort = type.getSort();
                 if (sort == Type.OBJECT) {
                     add(type.getClassName());
-                    constantPoolSet.add(type.getClassName());
+                    symbol.addConstant(type.getClassName());
                 } else if (sort == Type.ARRAY) {
                     Type elementType = type.getElementType();
                     if (elementType.getSort() == Type.OBJECT) {
                         add(elementType.getClassName());
-                        constantPoolSet.add(elementType.getClassName());
+                        symbol.addConstant(elementType.getClassName());
                     } else if (elementType.getSort() == Type.ARRAY) {
                         Type elementElementType = elementType.getElementType();
                         if (elementElementType.getSort() == Type.OBJECT) {
                             add(elementElementType.getClassName());
-                            constantPoolSet.add(elementElementType.getClassName());
+                            symbol.addConstant(elementElementType.getClassName());
                         }
                     }
                 }
@@ -406,6 +418,9 @@ public class AsmClassMethodsAccessor implements ClassMethodsAccessor {
 
     @Override
     public ClassSymbol getSymbolInClass(byte[] bytecode) {
+        if (fastSymbol) {
+            return ConstantPoolSymbolReader.read(bytecode);
+        }
         RecordSymbolMethodVisitor methodVisitor = new RecordSymbolMethodVisitor();
         String className = visit(bytecode, null, methodVisitor);
         return createClassSymbol(methodVisitor, className);
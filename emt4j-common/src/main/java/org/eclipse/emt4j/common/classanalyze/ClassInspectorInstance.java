@@ -30,4 +30,11 @@ public class ClassInspectorInstance {
     public static ClassMethodsAccessor getInstance() {
         return instance;
     }
+
+    /**
+     * Read the symbols of the class files from the constant pool only, which is faster but finds fewer symbols.
+     */
+    public static void setFastSymbol(boolean fastSymbol) {
+        instance = new AsmClassMethodsAccessor(fastSymbol);
+    }
 }
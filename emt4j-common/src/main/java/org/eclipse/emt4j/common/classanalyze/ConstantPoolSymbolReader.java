@@ -0,0 +1,123 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common.classanalyze;
+
+import org.eclipse.emt4j.common.ClassSymbol;
+import org.eclipse.emt4j.common.DependTarget;
+import org.eclipse.emt4j.common.DependType;
+import org.objectweb.asm.ClassReader;
+
+/**
+ * Read the symbols of a class from its constant pool only, without visiting the fields and the methods.
+ * <p>
+ * Every class and method a class refers to has an entry in the constant pool, so this finds the same calls as
+ * visiting the code, and the types are found from the class entries and the descriptors of the references.
+ * The differences are:
+ * <ul>
+ *     <li>The types that only appear in the debug information (e.g. the type of local variable) are not found</li>
+ *     <li>The string constants are found, but the class literals (e.g. {@code Foo.class}) are not in the constant pool set,
+ *     because a class entry can't tell whether it's loaded by LDC</li>
+ *     <li>There is no line number of the calls</li>
+ * </ul>
+ */
+class ConstantPoolSymbolReader {
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+
+    static ClassSymbol read(byte[] bytecode) {
+        ClassReader cr = new ClassReader(bytecode);
+        char[] buf = new char[cr.getMaxStringLength()];
+        ClassSymbol.Builder symbol = new ClassSymbol.Builder();
+        int count = cr.getItemCount();
+        for (int i = 1; i < count; i++) {
+            int offset = cr.getItem(i);
+            if (offset == 0) {
+                // the unusable entry after a long or a double
+                continue;
+            }
+            switch (cr.readByte(offset - 1)) {
+                case CONSTANT_CLASS:
+                    addInternalName(symbol, cr.readUTF8(offset, buf));
+                    break;
+                case CONSTANT_STRING:
+                    String value = cr.readUTF8(offset, buf);
+                    symbol.addType(value);
+                    symbol.addConstant(value);
+                    break;
+                case CONSTANT_FIELDREF:
+                    addDescriptor(symbol, readNameAndType(cr, offset, buf, false));
+                    break;
+                case CONSTANT_METHODREF:
+                case CONSTANT_INTERFACE_METHODREF:
+                    String owner = normalize(cr.readClass(offset, buf));
+                    String name = readNameAndType(cr, offset, buf, true);
+                    String descriptor = readNameAndType(cr, offset, buf, false);
+                    addDescriptor(symbol, descriptor);
+                    symbol.addMethod(new DependTarget.Method(owner, name, descriptor, DependType.METHOD));
+                    break;
+                case CONSTANT_METHOD_TYPE:
+                    addDescriptor(symbol, cr.readUTF8(offset, buf));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return symbol.build(cr.getClassName());
+    }
+
+    /**
+     * Read the name or the descriptor of the NameAndType entry referred by a field or method reference.
+     */
+    private static String readNameAndType(ClassReader cr, int refOffset, char[] buf, boolean name) {
+        int nameAndTypeOffset = cr.getItem(cr.readUnsignedShort(refOffset + 2));
+        return cr.readUTF8(name ? nameAndTypeOffset : nameAndTypeOffset + 2, buf);
+    }
+
+    private static void addInternalName(ClassSymbol.Builder symbol, String internalName) {
+        if (internalName.startsWith("[")) {
+            addDescriptor(symbol, internalName);
+        } else {
+            symbol.addType(normalize(internalName));
+        }
+    }
+
+    /**
+     * Add the object types in a field or method descriptor.
+     */
+    private static void addDescriptor(ClassSymbol.Builder symbol, String descriptor) {
+        int start = descriptor.indexOf('L');
+        while (start >= 0) {
+            int end = descriptor.indexOf(';', start);
+            if (end < 0) {
+                return;
+            }
+            symbol.addType(normalize(descriptor.substring(start + 1, end)));
+            start = descriptor.indexOf('L', end);
+        }
+    }
+
+    private static String normalize(String internalName) {
+        return internalName.replace('/', '.');
+    }
+}
@@ -24,12 +24,23 @@ import java.util.Date;
 import java.util.List;
 
 public class VariableHeader implements Serializable {
+    /**
+     * Same as before the dropped dependencies were added, so the files written before can still be read.
+     */
+    private static final long serialVersionUID = 1640538154502098688L;
+
     private int fromVersion;
     private int toVersion;
     private String vmOption;
     private Date date;
     private List<String> features = new ArrayList<>();
 
+    /**
+     * How many dependencies the agent dropped because it couldn't keep up.
+     * The agent writes the header again in the body when it changes.
+     */
+    private long droppedDependencies;
+
     public int getFromVersion() {
         return fromVersion;
     }
@@ -70,6 +81,14 @@ public class VariableHeader implements Serializable {
         this.features = features;
     }
 
+    public long getDroppedDependencies() {
+        return droppedDependencies;
+    }
+
+    public void setDroppedDependencies(long droppedDependencies) {
+        this.droppedDependencies = droppedDependencies;
+    }
+
     @Override
     public String toString() {
         return "VariableHeader{" +
@@ -78,6 +97,7 @@ public class VariableHeader implements Serializable {
                 ", vmOption='" + vmOption + '\'' +
                 ", date=" + date +
                 ", features=" + features +
+                ", droppedDependencies=" + droppedDependencies +
                 '}';
     }
 }
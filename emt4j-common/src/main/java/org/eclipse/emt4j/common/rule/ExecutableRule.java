@@ -18,16 +18,21 @@
  ********************************************************************************/
 package org.eclipse.emt4j.common.rule;
 
+import org.eclipse.emt4j.common.DependType;
 import org.eclipse.emt4j.common.Dependency;
+import org.eclipse.emt4j.common.RuleImpl;
 import org.eclipse.emt4j.common.rule.model.CheckResult;
 import org.eclipse.emt4j.common.rule.model.ConfRuleItem;
 import org.eclipse.emt4j.common.rule.model.ConfRules;
 import org.eclipse.emt4j.common.rule.model.ReportCheckResult;
+import org.mvel2.templates.CompiledTemplate;
+import org.mvel2.templates.TemplateCompiler;
 import org.mvel2.templates.TemplateRuntime;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * <code>ExecutableRule</code> is the core of jdk migration tool.
@@ -38,12 +43,26 @@ import java.util.Map;
 public abstract class ExecutableRule {
     public static int dependencyPriorityLimit;
 
+    /**
+     * The compiled result code templates, shared by all rules
+     */
+    private static final Map<String, CompiledTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
     protected final ConfRuleItem confRuleItem;
     protected final ConfRules confRules;
 
+    /**
+     * Set by {@link InstanceRuleManager} if the rule is indexed by the types from {@link #accepts()}.
+     */
+    boolean typeIndexed;
+
+    private final boolean threadSafe;
+
     public ExecutableRule(ConfRuleItem confRuleItem, ConfRules confRules) {
         this.confRuleItem = confRuleItem;
         this.confRules = confRules;
+        RuleImpl ruleImpl = getClass().getAnnotation(RuleImpl.class);
+        this.threadSafe = ruleImpl != null && ruleImpl.threadSafe();
     }
 
     /**
@@ -91,17 +110,70 @@ public abstract class ExecutableRule {
         return accept(dependency);
     }
 
+    /**
+     * Same as {@link #shouldAccept(Dependency)} for a rule got from {@link InstanceRuleManager#getRuleInstances(DependType)}
+     * by the type of the dependency, it doesn't check the type again.
+     */
+    public boolean shouldAcceptOfType(Dependency dependency) {
+        if (confRuleItem != null && confRuleItem.getPriority() > dependencyPriorityLimit
+                && dependency.isFromDependency()) {
+            return false;
+        }
+        return typeIndexed || accept(dependency);
+    }
+
     private String evalIfNeed(String maybeMvel2Expr, Map<String, Object> context) {
-        if (null == maybeMvel2Expr || "".equals(maybeMvel2Expr) || null == context || context.isEmpty()) {
+        if (null == maybeMvel2Expr || maybeMvel2Expr.indexOf('@') == -1 || null == context || context.isEmpty()) {
+            // a text without '@' has no template expression, it's evaluated to itself
             return maybeMvel2Expr;
         } else {
-            return (String) TemplateRuntime.eval(maybeMvel2Expr, context);
+            CompiledTemplate template = TEMPLATES.computeIfAbsent(maybeMvel2Expr, TemplateCompiler::compileTemplate);
+            return (String) TemplateRuntime.execute(template, context);
         }
     }
 
     protected abstract CheckResult check(Dependency dependency);
 
-    protected abstract boolean accept(Dependency dependency);
+    /**
+     * The types of dependency that the rule checks.
+     * The rule must accept every dependency of these types, then it's only offered the dependencies of these types.
+     *
+     * @return the types, or null if the rule should decide by {@link #accept(Dependency)} for every dependency
+     */
+    public DependType[] accepts() {
+        return null;
+    }
+
+    /**
+     * By default, accept the dependencies of the types returned by {@link #accepts()}.
+     */
+    protected boolean accept(Dependency dependency) {
+        DependType[] types = accepts();
+        if (types != null) {
+            for (DependType type : types) {
+                if (type == dependency.getDependType()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Statistics about how the rule runs (e.g. the time spent on each pattern), used to find slow rules.
+     *
+     * @return the lines of statistics, or an empty list if the rule has none
+     */
+    public List<String> getMetrics() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return true if the rule can be called by more than one thread at the same time, see {@link RuleImpl#threadSafe()}
+     */
+    public boolean isThreadSafe() {
+        return threadSafe;
+    }
 
     public ConfRuleItem getConfRuleItem() {
         return confRuleItem;
@@ -18,6 +18,7 @@
  ********************************************************************************/
 package org.eclipse.emt4j.common.rule;
 
+import org.eclipse.emt4j.common.DependType;
 import org.eclipse.emt4j.common.Feature;
 import org.eclipse.emt4j.common.JdkMigrationException;
 import org.eclipse.emt4j.common.rule.model.ConfRuleItem;
@@ -41,6 +42,10 @@ import static org.eclipse.emt4j.common.IssuePriority.toIntPriority;
 public class InstanceRuleManager {
     private static volatile boolean hasInit = false;
     private static List<ExecutableRule> ruleInstanceList = null;
+    /**
+     * The rules for each dependency type, indexed by the ordinal of the type.
+     */
+    private static ExecutableRule[][] ruleInstancesByType = null;
 
     /**
      * load the rule, then create the rule instance.
@@ -88,12 +93,40 @@ public class InstanceRuleManager {
                 }
             }
             ruleInstanceList = Collections.unmodifiableList(instanceList);
+            ruleInstancesByType = indexByType(instanceList);
             hasInit = true;
         } catch (Exception e) {
             throw new JdkMigrationException("InstanceRuleManager init exception!", e);
         }
     }
 
+    /**
+     * A rule that declares its types by {@link ExecutableRule#accepts()} is put under each of its types,
+     * other rules are put under all types. The rules keep the order in the list.
+     */
+    private static ExecutableRule[][] indexByType(List<ExecutableRule> instanceList) {
+        DependType[] types = DependType.values();
+        List<List<ExecutableRule>> rulesByType = new ArrayList<>(types.length);
+        for (int i = 0; i < types.length; i++) {
+            rulesByType.add(new ArrayList<>());
+        }
+        for (ExecutableRule rule : instanceList) {
+            DependType[] accepts = rule.accepts();
+            rule.typeIndexed = accepts != null;
+            for (DependType type : accepts != null ? accepts : types) {
+                List<ExecutableRule> rules = rulesByType.get(type.ordinal());
+                if (!rules.contains(rule)) {
+                    rules.add(rule);
+                }
+            }
+        }
+        ExecutableRule[][] index = new ExecutableRule[types.length][];
+        for (int i = 0; i < types.length; i++) {
+            index[i] = rulesByType.get(i).toArray(new ExecutableRule[0]);
+        }
+        return index;
+    }
+
     private static void setValue(ExecutableRule executableRule, String attrName, String attrValue) throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
         Method m = executableRule.getClass().getMethod(getSetMethodName(attrName), String.class);
         m.setAccessible(true);
@@ -132,4 +165,12 @@ public class InstanceRuleManager {
         return ruleInstanceList;
     }
 
+    /**
+     * @return the rules that may accept a dependency of the type, check each of them by
+     * {@link ExecutableRule#shouldAcceptOfType(org.eclipse.emt4j.common.Dependency)}. The returned array must not be modified.
+     */
+    public static ExecutableRule[] getRuleInstances(DependType type) {
+        return ruleInstancesByType[type.ordinal()];
+    }
+
 }
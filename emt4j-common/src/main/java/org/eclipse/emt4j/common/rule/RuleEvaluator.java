@@ -0,0 +1,99 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common.rule;
+
+import org.eclipse.emt4j.common.Dependency;
+import org.eclipse.emt4j.common.rule.model.ReportCheckResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Call the rules from {@link InstanceRuleManager#getRuleInstances(org.eclipse.emt4j.common.DependType)} for a dependency.
+ * <p>
+ * The dependencies are checked by more than one thread. A rule that is thread-safe (see {@link ExecutableRule#isThreadSafe()})
+ * may be called by several threads at the same time, any other rule is only called by one thread at a time.
+ */
+public class RuleEvaluator {
+
+    /**
+     * @param dependency the dependency to check
+     * @param propagate  whether to also get the dependencies found by {@link ExecutableRule#propagate(Dependency)}
+     * @return the evaluations that failed or propagated more dependencies, in the order of the rules
+     */
+    public List<Evaluation> evaluate(Dependency dependency, boolean propagate) {
+        List<Evaluation> result = new ArrayList<>();
+        for (ExecutableRule rule : InstanceRuleManager.getRuleInstances(dependency.getDependType())) {
+            if (rule.shouldAcceptOfType(dependency)) {
+                Evaluation evaluation;
+                if (rule.isThreadSafe()) {
+                    evaluation = call(rule, dependency, propagate);
+                } else {
+                    synchronized (rule) {
+                        evaluation = call(rule, dependency, propagate);
+                    }
+                }
+                if (evaluation != null) {
+                    result.add(evaluation);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the evaluation, or null if the rule passed and propagated nothing
+     */
+    private static Evaluation call(ExecutableRule rule, Dependency dependency, boolean propagate) {
+        ReportCheckResult checkResult = rule.execute(dependency);
+        List<Dependency> more = propagate ? rule.propagate(dependency) : Collections.emptyList();
+        return !checkResult.isPass() || !more.isEmpty() ? new Evaluation(rule, checkResult, more) : null;
+    }
+
+    /**
+     * The result of calling a rule for a dependency.
+     */
+    public static class Evaluation {
+        private final ExecutableRule rule;
+        private final ReportCheckResult checkResult;
+        private final List<Dependency> more;
+
+        Evaluation(ExecutableRule rule, ReportCheckResult checkResult, List<Dependency> more) {
+            this.rule = rule;
+            this.checkResult = checkResult;
+            this.more = more;
+        }
+
+        public ExecutableRule getRule() {
+            return rule;
+        }
+
+        public ReportCheckResult getCheckResult() {
+            return checkResult;
+        }
+
+        /**
+         * @return the dependencies found by {@link ExecutableRule#propagate(Dependency)}, or an empty list if not asked for
+         */
+        public List<Dependency> getMore() {
+            return more;
+        }
+    }
+}
@@ -22,9 +22,7 @@ import org.eclipse.emt4j.common.rule.ExecutableRule;
 import org.eclipse.emt4j.common.rule.model.CheckResult;
 import org.eclipse.emt4j.common.rule.model.ConfRuleItem;
 import org.eclipse.emt4j.common.rule.model.ConfRules;
-import org.eclipse.emt4j.common.util.ClassUtil;
-import org.eclipse.emt4j.common.util.FileUtil;
-import org.eclipse.emt4j.common.util.JdkClassUtil;
+import org.eclipse.emt4j.common.util.PackageTrie;
 import org.eclipse.emt4j.common.DependType;
 import org.eclipse.emt4j.common.Dependency;
 import org.eclipse.emt4j.common.RuleImpl;
@@ -36,20 +34,24 @@ import java.util.*;
  * If reference a class that is not exported by default, and the class is not in java.base,
  * then need an explicit "--add-exports" to JVM option.
  */
-@RuleImpl(type = "add-exports")
+@RuleImpl(type = "add-exports", threadSafe = true)
 public class AddExportsRule extends ExecutableRule {
 
     private String packagesFile;
     private String moduleToPackageFile;
     private String defaultExportsFile;
-    protected Map<String, String> exportPackageToModule = new HashMap<>();
-    private Set<String> packageSet = new HashSet<>();
+
+    /**
+     * Package to the module that exports it
+     */
+    protected PackageTrie exportPackageToModule;
+    private PackageTrie packageSet;
 
     /**
      * JDK 11 internal export all packages that exist in JDK 8 to unnamed
      * If the reference class's package is in the list, no need to add --add-exports.
      */
-    protected Set<String> jdkDefaultExportToUnnamed = new HashSet<>();
+    protected PackageTrie jdkDefaultExportToUnnamed;
 
     public AddExportsRule(ConfRuleItem confRuleItem, ConfRules confRules) {
         super(confRuleItem, confRules);
@@ -57,27 +59,24 @@ public class AddExportsRule extends ExecutableRule {
 
     @Override
     public void init() {
-        FileUtil.readPlainTextFromResource(confRules.getRuleDataPathPrefix() + moduleToPackageFile, false).forEach((l) -> {
-            String[] arr = l.split(",");
-            exportPackageToModule.put(arr[0].trim(), arr[1].trim());
-        });
-        packageSet.addAll(FileUtil.readPlainTextFromResource(confRules.getRuleDataPathPrefix() + packagesFile, false));
-        jdkDefaultExportToUnnamed.addAll(FileUtil.readPlainTextFromResource(confRules.getRuleDataPathPrefix() + defaultExportsFile, false));
+        exportPackageToModule = PackageTrie.ofPackageToModule(confRules.getRuleDataPathPrefix() + moduleToPackageFile);
+        packageSet = PackageTrie.ofPackages(confRules.getRuleDataPathPrefix() + packagesFile);
+        jdkDefaultExportToUnnamed = PackageTrie.ofPackages(confRules.getRuleDataPathPrefix() + defaultExportsFile);
     }
 
     @Override
     public CheckResult check(Dependency dependency) {
         String className = dependency.getTarget().asClass().getClassName();
-        Optional<String> packageName = ClassUtil.getPackage(className);
-        if (!packageName.isPresent()) {
+        int packageEnd = PackageTrie.packageEnd(className);
+        if (packageEnd == -1) {
             return CheckResult.PASS;
         }
 
-        if (packageName.get().startsWith("com.sun.proxy")) {
+        if (className.startsWith("com.sun.proxy") && packageEnd >= "com.sun.proxy".length()) {
             return CheckResult.PASS;
         }
 
-        if (matchModule(packageName.get()) != null) {
+        if (exportPackageToModule.longestMatch(className, packageEnd) != -1) {
             // skip check for normal module classes now
             return CheckResult.PASS;
         }
@@ -85,22 +84,24 @@ public class AddExportsRule extends ExecutableRule {
         Set<String> typeSet = dependency.getClassSymbol().getTypeSet();
         Set<String> shouldExports = new HashSet<>();
         for (String type : typeSet) {
-            packageName = ClassUtil.getPackage(type);
-            if (!packageName.isPresent()) {
+            packageEnd = PackageTrie.packageEnd(type);
+            if (packageEnd == -1) {
                 continue;
             }
-            if (jdkDefaultExportToUnnamed.contains(packageName.get())) {
+            if (jdkDefaultExportToUnnamed.find(type, packageEnd) != -1) {
                 continue;
             }
-            String[] modAndPkg = matchModule(packageName.get());
-            if (modAndPkg == null) {
+            int matched = exportPackageToModule.longestMatch(type, packageEnd);
+            if (matched == -1) {
                 continue;
             }
-            if ("java.base".equals(modAndPkg[0]) || !packageSet.contains(modAndPkg[1])) {
+            String module = exportPackageToModule.getValue(matched);
+            String matchedPackage = exportPackageToModule.getPackage(matched);
+            if ("java.base".equals(module) || !packageSet.contains(matchedPackage)) {
                 continue;
             }
 
-            shouldExports.add(modAndPkg[0] + "/" + modAndPkg[1]);
+            shouldExports.add(module + "/" + matchedPackage);
         }
 
         if (shouldExports.isEmpty()) {
@@ -124,35 +125,19 @@ public class AddExportsRule extends ExecutableRule {
                 }
             }
         }
+        CheckResult checkResult = CheckResult.fail(context);
         if (index != -1) {
-            dependency.setStacktrace(Arrays.copyOfRange(stacktrace, index + 1, stacktrace.length));
+            // report a copy, the dependency is shared with the other rules that may be checking it at the same time
+            Dependency stripped = dependency.clone();
+            stripped.setStacktrace(Arrays.copyOfRange(stacktrace, index + 1, stacktrace.length));
+            checkResult.getPropagated().add(stripped);
         }
-        return CheckResult.fail(context);
+        return checkResult;
     }
 
     @Override
-    public boolean accept(Dependency dependency) {
-        return DependType.WHOLE_CLASS== dependency.getDependType();
-    }
-
-    private String[] matchModule(String packageName) {
-        String currPackage = packageName;
-        String module = exportPackageToModule.get(packageName);
-        if (module == null) {
-            //search to parent package until found module.
-            int index = packageName.lastIndexOf('.');
-            while (index != -1) {
-                currPackage = packageName.substring(0, index);
-                module = exportPackageToModule.get(currPackage);
-                if (module != null) {
-                    return new String[]{module, currPackage};
-                }
-                index = packageName.substring(0, index).lastIndexOf('.');
-            }
-            return null;
-        } else {
-            return new String[]{module, currPackage};
-        }
+    public DependType[] accepts() {
+        return new DependType[]{DependType.WHOLE_CLASS};
     }
 
     private CheckResult buildAddExportOption(String sourceModule, String sourcePackage) {
@@ -15,7 +15,7 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-@RuleImpl(type = "deprecated-api")
+@RuleImpl(type = "deprecated-api", threadSafe = true)
 public class DeprecatedAPIRule extends ExecutableRule {
     private String classListFile;
     private Set<String> deprecatedClasses = new HashSet<>();
@@ -55,8 +55,8 @@ public class DeprecatedAPIRule extends ExecutableRule {
     }
 
     @Override
-    public boolean accept(Dependency dependency) {
-        return DependType.WHOLE_CLASS == dependency.getDependType();
+    public DependType[] accepts() {
+        return new DependType[]{DependType.WHOLE_CLASS};
     }
 
     public void setClassListFile(String classListFile) {
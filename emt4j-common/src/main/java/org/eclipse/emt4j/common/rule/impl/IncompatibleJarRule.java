@@ -28,6 +28,7 @@ import org.eclipse.emt4j.common.util.FileUtil;
 import org.eclipse.emt4j.common.util.JarFileInfoUtil;
 import org.mvel2.MVEL;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -39,7 +40,7 @@ import static org.eclipse.emt4j.common.util.StringUtils.stripDoubleQuote;
  * There are some jars that contain the incompatible problems in advance.
  * Try to match the input jars for all these rules.
  */
-@RuleImpl(type = "incompatible-jar")
+@RuleImpl(type = "incompatible-jar", threadSafe = true)
 public class IncompatibleJarRule extends ExecutableRule {
     private String jarRuleFile;
     private Map<String, JarRule> sortArtifactToJarRule = new HashMap<>();
@@ -62,7 +63,7 @@ public class IncompatibleJarRule extends ExecutableRule {
             Map<String, Object> mvelMap = new HashMap<>();
             mvelMap.put("$version", new Version(jarFileInfo.get().getVersion()));
             mvelMap.put("$jar", new JarFileName(jarFileInfo.get().getJarFileName()));
-            Object result = MVEL.eval(jarRule.getRule(), mvelMap);
+            Object result = MVEL.executeExpression(jarRule.getCompiledRule(), mvelMap);
             if (result instanceof Boolean) {
                 if ((Boolean) result) {
                     return CheckResult.PASS;
@@ -83,19 +84,23 @@ public class IncompatibleJarRule extends ExecutableRule {
 
     @Override
     public void init() {
+        Map<String, Serializable> compiledRules = new HashMap<>();
         FileUtil.readPlainTextFromResource(confRules.getRuleDataPathPrefix() + jarRuleFile, false).forEach((l) -> {
             String[] artifactRule = l.split(",");
             String[] artifacts = stripDoubleQuote(artifactRule[0]).split("\\|");
             String rule = stripDoubleQuote(artifactRule[1]);
+            Serializable compiledRule = compiledRules.computeIfAbsent(rule, MVEL::compileExpression);
             for (String artifact : artifacts) {
-                sortArtifactToJarRule.put(key(JarFileInfoUtil.sortArtifactFragments(artifact)), new JarRule(artifact, rule));
+                JarRule jarRule = new JarRule(artifact, rule);
+                jarRule.setCompiledRule(compiledRule);
+                sortArtifactToJarRule.put(key(JarFileInfoUtil.sortArtifactFragments(artifact)), jarRule);
             }
         });
     }
 
     @Override
-    public boolean accept(Dependency dependency) {
-        return DependType.CODE_SOURCE == dependency.getDependType();
+    public DependType[] accepts() {
+        return new DependType[]{DependType.CODE_SOURCE};
     }
 
     public String getJarRuleFile() {
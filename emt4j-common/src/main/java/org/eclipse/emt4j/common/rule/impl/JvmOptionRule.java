@@ -38,7 +38,7 @@ import java.util.function.Consumer;
 /**
  * Check the JVM option difference.
  */
-@RuleImpl(type = "jvm-option")
+@RuleImpl(type = "jvm-option", threadSafe = true)
 public class JvmOptionRule extends ExecutableRule {
     private String jvmOptionFile;
     private Map<String, VmOptionItem> deprecatedVmOptionMap;
@@ -114,8 +114,8 @@ public class JvmOptionRule extends ExecutableRule {
     }
 
     @Override
-    public boolean accept(Dependency dependency) {
-        return DependType.VM_OPTION == dependency.getDependType();
+    public DependType[] accepts() {
+        return new DependType[]{DependType.VM_OPTION};
     }
 
 
@@ -24,10 +24,9 @@ import org.eclipse.emt4j.common.rule.model.CheckResult;
 import org.eclipse.emt4j.common.rule.model.ConfRuleItem;
 import org.eclipse.emt4j.common.rule.model.ConfRules;
 import org.eclipse.emt4j.common.util.FileUtil;
+import org.eclipse.emt4j.common.util.MultiPatternMatcher;
 
 import java.util.List;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 
 /**
@@ -35,10 +34,12 @@ import java.util.stream.Collectors;
  * Compared to TouchedMethodRule, NameBasedTouchedMethodRule only checks method names,
  * not method descriptions, and uses regular expressions for matching.
  */
-@RuleImpl(type = "name-based-touched-method")
+@RuleImpl(type = "name-based-touched-method", threadSafe = true)
 public class NameBasedTouchedMethodRule extends ExecutableRule {
+    public static final String MATCHED_PATTERN = "matchedPattern";
+
     private String methodListFile;
-    protected List<Pattern> callMethods;
+    protected MultiPatternMatcher callMethods;
 
     public String getMethodListFile() {
         return methodListFile;
@@ -55,18 +56,62 @@ public class NameBasedTouchedMethodRule extends ExecutableRule {
     @Override
     public void init() {
         List<String> lines = FileUtil.readPlainTextFromResource(confRules.getRuleDataPathPrefix() + methodListFile, false);
-        callMethods = lines.stream().map(Pattern::compile).collect(Collectors.toList());
+        callMethods = new MultiPatternMatcher(lines);
     }
 
     @Override
     public CheckResult check(Dependency dependency) {
         DependTarget.Method method = dependency.getTarget().asMethod();
-        String name = method.getClassName() + "." + method.getMethodName();
-        return callMethods.stream().noneMatch(pattern -> pattern.matcher(name).matches()) ? CheckResult.PASS : CheckResult.FAIL;
+        int matched = callMethods.match(new MethodName(method.getClassName(), method.getMethodName()));
+        return matched < 0 ? CheckResult.PASS : CheckResult.fail(MATCHED_PATTERN, callMethods.getPattern(matched));
+    }
+
+    @Override
+    public List<String> getMetrics() {
+        return callMethods.getMetrics();
     }
 
     @Override
-    public boolean accept(Dependency dependency) {
-        return DependType.METHOD == dependency.getDependType();
+    public DependType[] accepts() {
+        return new DependType[]{DependType.METHOD};
+    }
+
+    /**
+     * The text "className.methodName" to match, without concatenating the strings.
+     */
+    private static class MethodName implements CharSequence {
+        private final String className;
+        private final String methodName;
+
+        MethodName(String className, String methodName) {
+            this.className = className;
+            this.methodName = methodName;
+        }
+
+        @Override
+        public int length() {
+            return className.length() + 1 + methodName.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < className.length()) {
+                return className.charAt(index);
+            } else if (index == className.length()) {
+                return '.';
+            } else {
+                return methodName.charAt(index - className.length() - 1);
+            }
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return className + "." + methodName;
+        }
     }
 }
@@ -27,14 +27,14 @@ import org.eclipse.emt4j.common.rule.model.CheckResult;
 import org.eclipse.emt4j.common.rule.model.ConfRuleItem;
 import org.eclipse.emt4j.common.rule.model.ConfRules;
 import org.eclipse.emt4j.common.util.FileUtil;
-import org.eclipse.emt4j.common.util.ClassUtil;
+import org.eclipse.emt4j.common.util.PackageTrie;
 
 import java.util.*;
 
 /**
  * When referring to a class, this rule will be called.
  */
-@RuleImpl(type = "reference-class")
+@RuleImpl(type = "reference-class", threadSafe = true)
 public class ReferenceClassRule extends ExecutableRule {
 
     /**
@@ -43,6 +43,11 @@ public class ReferenceClassRule extends ExecutableRule {
     protected Set<String> classPackageSet = new HashSet<>();
     private String classPackageFile;
 
+    /**
+     * The packages of the white list, shared with other rules that read the same file
+     */
+    private PackageTrie packageTrie;
+
     /**
      * if true, check if the caller's class's bytecode reference this class.
      * Set to true can avoid some noise
@@ -62,7 +67,12 @@ public class ReferenceClassRule extends ExecutableRule {
     @Override
     public void init() {
         try {
-            classPackageSet.addAll(FileUtil.readPlainTextFromResource(confRules.getRuleDataPathPrefix() + classPackageFile, false));
+            if ("by-package".equals(matchType)) {
+                packageTrie = PackageTrie.ofPackages(confRules.getRuleDataPathPrefix() + classPackageFile);
+                classPackageSet.addAll(packageTrie.getPackages());
+            } else {
+                classPackageSet.addAll(FileUtil.readPlainTextFromResource(confRules.getRuleDataPathPrefix() + classPackageFile, false));
+            }
         } catch (Throwable e) {
             e.printStackTrace();
         }
@@ -70,19 +80,17 @@ public class ReferenceClassRule extends ExecutableRule {
 
     @Override
     public CheckResult check(Dependency dependency) {
-        Optional<String> matchPart = Optional.empty();
+        boolean matched;
         String className = dependency.getTarget().asClass().getClassName();
         if ("by-package".equals(matchType)) {
-            matchPart = ClassUtil.maxLongMatch(className, classPackageSet);
+            matched = packageTrie != null && packageTrie.longestMatchOfClass(className) != -1;
         } else if ("by-class".equals(matchType)) {
-            if (classPackageSet.contains(className)) {
-                matchPart = Optional.of(className);
-            }
+            matched = classPackageSet.contains(className);
         } else {
             throw new RuntimeException("Unknown match-type: " + matchType);
         }
 
-        if (matchPart.isPresent()) {
+        if (matched) {
             if ("true".equals(mustContainInBytecode)
                     && !containInBytecode(dependency.getNonJdkCallerClass(), className)) {
                 return CheckResult.PASS;
@@ -111,9 +119,8 @@ public class ReferenceClassRule extends ExecutableRule {
     }
 
     @Override
-    public boolean accept(Dependency dependency) {
-        return DependType.CLASS == dependency.getDependType()
-                || DependType.METHOD_TO_CLASS_DEEP_REFLECTION == dependency.getDependType();
+    public DependType[] accepts() {
+        return new DependType[]{DependType.CLASS, DependType.METHOD_TO_CLASS_DEEP_REFLECTION};
     }
 
     public void setClassPackageFile(String classPackageFile) {
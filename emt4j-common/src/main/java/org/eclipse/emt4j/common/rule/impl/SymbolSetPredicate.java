@@ -0,0 +1,236 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common.rule.impl;
+
+import org.eclipse.emt4j.common.ClassSymbol;
+import org.eclipse.emt4j.common.DependTarget;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A MVEL2 rule of {@link WholeClassRule} that only checks whether the symbol sets contain some values, e.g.
+ * <pre>
+ * methodSet.contains('java.util.Arrays.asList') &amp;&amp; (cpSet.contains('a') || cpSet.contains("b"))
+ * </pre>
+ * It's evaluated against the {@link ClassSymbol} directly, without the MVEL2 interpreter and without building
+ * the set of method identifiers: the called methods are looked up in a map of the methods in the rule once,
+ * then the expression is evaluated on which of them are found.
+ * <p>
+ * The predicate can't be changed after created, so it can be shared by threads.
+ */
+class SymbolSetPredicate {
+    private static final String METHOD_SET = "methodSet";
+    private static final String TYPE_SET = "typeSet";
+    private static final String CP_SET = "cpSet";
+
+    private final Node root;
+    // class name -> method name -> the bit of the method
+    private final Map<String, Map<String, Long>> methodBits;
+
+    private SymbolSetPredicate(Node root, Map<String, Map<String, Long>> methodBits) {
+        this.root = root;
+        this.methodBits = methodBits;
+    }
+
+    /**
+     * @return the predicate of the expression, or null if the expression is not a combination of
+     * <code>methodSet.contains</code>, <code>typeSet.contains</code> and <code>cpSet.contains</code>
+     * with <code>&amp;&amp;</code>, <code>||</code> and parentheses, or there is no expression
+     */
+    static SymbolSetPredicate lower(String expression) {
+        if (expression == null) {
+            return null;
+        }
+        Parser parser = new Parser(expression);
+        Node root = parser.parseOr();
+        if (root == null || parser.skipSpaces() != expression.length() || parser.methods.size() > Long.SIZE) {
+            return null;
+        }
+        Map<String, Map<String, Long>> methodBits = new HashMap<>();
+        for (int i = 0; i < parser.methods.size(); i++) {
+            String method = parser.methods.get(i);
+            int dot = method.lastIndexOf('.');
+            if (dot == -1) {
+                // never equals to "className.methodName"
+                continue;
+            }
+            methodBits.computeIfAbsent(method.substring(0, dot), (k) -> new HashMap<>())
+                    .merge(method.substring(dot + 1), 1L << i, (a, b) -> a | b);
+        }
+        return new SymbolSetPredicate(root, methodBits);
+    }
+
+    boolean test(ClassSymbol symbol) {
+        long calledMethods = 0;
+        if (!methodBits.isEmpty()) {
+            for (DependTarget.Method method : symbol.getCallMethodSet()) {
+                Map<String, Long> names = methodBits.get(method.getClassName());
+                if (names != null) {
+                    Long bits = names.get(method.getMethodName());
+                    if (bits != null) {
+                        calledMethods |= bits;
+                    }
+                }
+            }
+        }
+        return root.eval(symbol, calledMethods);
+    }
+
+    /**
+     * The methods of the class that call any method in the rule, and the methods that read a static field written by
+     * them. Any other method can't see a value returned by a method in the rule, so a static analysis after the rule
+     * only needs to analyze these methods.
+     *
+     * @return name + descriptor of the methods, or null if the rule has no method or the callers are unknown
+     */
+    Set<String> callerMethods(ClassSymbol symbol) {
+        if (methodBits.isEmpty()) {
+            return null;
+        }
+        Set<String> result = new LinkedHashSet<>();
+        for (DependTarget.Method method : symbol.getCallMethodSet()) {
+            Map<String, Long> names = methodBits.get(method.getClassName());
+            if (names != null && names.containsKey(method.getMethodName())) {
+                Set<String> callers = symbol.getCallerMethods(method);
+                if (callers == null) {
+                    return null;
+                }
+                result.addAll(callers);
+            }
+        }
+        Set<String> readers = symbol.getStaticFieldReaders(result);
+        if (readers == null) {
+            return null;
+        }
+        result.addAll(readers);
+        return result;
+    }
+
+    private interface Node {
+        boolean eval(ClassSymbol symbol, long calledMethods);
+    }
+
+    private static class Parser {
+        private final String text;
+        private int pos;
+        private final List<String> methods = new ArrayList<>();
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Node parseOr() {
+            Node left = parseAnd();
+            while (left != null && consume("||")) {
+                Node l = left;
+                Node r = parseAnd();
+                left = r == null ? null : (s, m) -> l.eval(s, m) || r.eval(s, m);
+            }
+            return left;
+        }
+
+        Node parseAnd() {
+            Node left = parseTerm();
+            while (left != null && consume("&&")) {
+                Node l = left;
+                Node r = parseTerm();
+                left = r == null ? null : (s, m) -> l.eval(s, m) && r.eval(s, m);
+            }
+            return left;
+        }
+
+        Node parseTerm() {
+            if (consume("(")) {
+                Node node = parseOr();
+                return node != null && consume(")") ? node : null;
+            }
+            String set;
+            if (consume(METHOD_SET)) {
+                set = METHOD_SET;
+            } else if (consume(TYPE_SET)) {
+                set = TYPE_SET;
+            } else if (consume(CP_SET)) {
+                set = CP_SET;
+            } else {
+                return null;
+            }
+            if (!consume(".contains") || !consume("(")) {
+                return null;
+            }
+            String value = parseString();
+            if (value == null || !consume(")")) {
+                return null;
+            }
+            if (METHOD_SET.equals(set)) {
+                long bit = 1L << methods.size();
+                methods.add(value);
+                return (s, m) -> (m & bit) != 0;
+            } else if (TYPE_SET.equals(set)) {
+                return (s, m) -> s.getTypeSet().contains(value);
+            } else {
+                return (s, m) -> s.getConstantPoolSet().contains(value);
+            }
+        }
+
+        private String parseString() {
+            skipSpaces();
+            if (pos >= text.length()) {
+                return null;
+            }
+            char quote = text.charAt(pos);
+            if (quote != '\'' && quote != '"') {
+                return null;
+            }
+            int end = text.indexOf(quote, pos + 1);
+            if (end == -1 || text.lastIndexOf('\\', end) > pos) {
+                return null;
+            }
+            String value = text.substring(pos + 1, end);
+            pos = end + 1;
+            return value;
+        }
+
+        private boolean consume(String token) {
+            skipSpaces();
+            if (text.startsWith(token, pos)) {
+                int end = pos + token.length();
+                if (Character.isJavaIdentifierPart(token.charAt(token.length() - 1))
+                        && end < text.length() && Character.isJavaIdentifierPart(text.charAt(end))) {
+                    // a longer identifier
+                    return false;
+                }
+                pos = end;
+                return true;
+            }
+            return false;
+        }
+
+        int skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+            return pos;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.eclipse.emt4j.common.rule.model.CheckResult;
 import org.eclipse.emt4j.common.rule.model.ConfRuleItem;
 import org.eclipse.emt4j.common.rule.model.ConfRules;
 import org.eclipse.emt4j.common.util.FileUtil;
+import org.eclipse.emt4j.common.util.MethodIndex;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -32,10 +33,11 @@ import java.util.List;
 /**
  * When reference to a method in a method list.
  */
-@RuleImpl(type = "touched-method")
+@RuleImpl(type = "touched-method", threadSafe = true)
 public class TouchedMethodRule extends ExecutableRule {
     private String methodListFile;
     protected List<MethodDesc> callMethods;
+    private MethodIndex methodIndex;
 
     public String getMethodListFile() {
         return methodListFile;
@@ -59,21 +61,22 @@ public class TouchedMethodRule extends ExecutableRule {
             String desc = line.substring(line.indexOf('('));
             callMethods.add(new MethodDesc(className, className.replace('/', '.'), methodName, desc));
         }
+        methodIndex = new MethodIndex(callMethods);
     }
 
     @Override
     public CheckResult check(Dependency dependency) {
         DependTarget.Method method = dependency.getTarget().asMethod();
         if (method.getDesc() != null && method.getDesc().length() > 1) {
-            return callMethods.stream().noneMatch((m) -> m.getMethodIdentifier().equals(method.toMethodIdentifier()))
-                    ? CheckResult.PASS : CheckResult.FAIL;
+            return methodIndex.contains(method.getClassName(), method.getMethodName(), method.getDesc())
+                    ? CheckResult.FAIL : CheckResult.PASS;
         }
-        return callMethods.stream().noneMatch((m) -> m.getMethodIdentifierNoDesc().equals(method.toMethodIdentifierNoDesc()))
-                ? CheckResult.PASS : CheckResult.FAIL;
+        return methodIndex.contains(method.getClassName(), method.getMethodName())
+                ? CheckResult.FAIL : CheckResult.PASS;
     }
 
     @Override
-    public boolean accept(Dependency dependency) {
-        return DependType.METHOD == dependency.getDependType();
+    public DependType[] accepts() {
+        return new DependType[]{DependType.METHOD};
     }
 }
@@ -20,15 +20,21 @@ package org.eclipse.emt4j.common.rule.impl;
 
 import org.eclipse.emt4j.common.*;
 import org.eclipse.emt4j.common.rule.ExecutableRule;
+import org.eclipse.emt4j.common.rule.InstanceRuleManager;
 import org.eclipse.emt4j.common.rule.model.CheckResult;
 import org.eclipse.emt4j.common.rule.model.ConfRuleItem;
 import org.eclipse.emt4j.common.rule.model.ConfRules;
 import org.eclipse.emt4j.common.staticanalysis.StaticAnalysisEntry;
 import org.eclipse.emt4j.common.util.FileUtil;
 import org.mvel2.MVEL;
+import org.mvel2.integration.impl.MapVariableResolverFactory;
 
+import java.io.Serializable;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -37,11 +43,22 @@ import java.util.stream.Collectors;
  * Some rules not only need a method or a field but require all symbols in a class.
  * Read all methods,types,constant pools, then execute the MVEL2 expression to check it.
  */
-@RuleImpl(type = "whole-class")
+@RuleImpl(type = "whole-class", threadSafe = true)
 public class WholeClassRule extends ExecutableRule {
     private String mvel2RuleFile;
     private String mvel2Rule;
 
+    /**
+     * The rule lowered to set lookups, or null if it needs MVEL2 to evaluate
+     */
+    private SymbolSetPredicate predicate;
+    private Serializable compiledRule;
+
+    /**
+     * The variables of the rule and the resolver factory over them, reused by the evaluations in a thread
+     */
+    private final ThreadLocal<Variables> variables = ThreadLocal.withInitial(Variables::new);
+
     private String staticAnalysisRule;
 
     public WholeClassRule(ConfRuleItem confRuleItem, ConfRules confRules) {
@@ -50,31 +67,133 @@ public class WholeClassRule extends ExecutableRule {
 
     @Override
     public void init() {
+        if (mvel2RuleFile == null) {
+            throw new JdkMigrationException("Whole class rule " + confRuleItem.getResultCode() + " has no mvel2-rule-file!");
+        }
         mvel2Rule = String.join(" ", FileUtil.readPlainTextFromResource(confRules.getRuleDataPathPrefix() + mvel2RuleFile, false));
+        predicate = SymbolSetPredicate.lower(mvel2Rule);
+        if (predicate == null) {
+            compiledRule = MVEL.compileExpression(mvel2Rule);
+        }
     }
 
     @Override
     protected CheckResult check(Dependency dependency) {
-        Map<String, Object> mvelMap = new HashMap<>();
-        mvelMap.put("typeSet", dependency.getClassSymbol().getTypeSet());
-        mvelMap.put("methodSet", toMethodIdentifierSet(dependency.getClassSymbol().getCallMethodSet()));
-        mvelMap.put("cpSet", dependency.getClassSymbol().getConstantPoolSet());
-        Object result = MVEL.eval(mvel2Rule, mvelMap);
-        if (result instanceof Boolean) {
-            if (staticAnalysisRule == null) {
-                return ((Boolean) result) ? CheckResult.FAIL : CheckResult.PASS;
-            } else {
-                if ((Boolean) result) {
-                    boolean found = StaticAnalysisEntry.analyze(staticAnalysisRule, dependency.getTarget().asClass().getClassName(), dependency.getCurrClassBytecode());
-                    return found ? CheckResult.FAIL : CheckResult.PASS;
+        boolean result = test(dependency.getClassSymbol());
+        if (staticAnalysisRule == null) {
+            return result ? CheckResult.FAIL : CheckResult.PASS;
+        } else {
+            if (result) {
+                Map<String, Boolean> done = dependency.getStaticAnalysisResults();
+                Boolean found = done == null ? null : done.get(staticAnalysisRule);
+                if (found == null) {
+                    found = StaticAnalysisEntry.analyze(staticAnalysisRule, dependency.getTarget().asClass().getClassName(),
+                            dependency.getCurrClassBytecode(), methodsToAnalyze(dependency.getClassSymbol()));
                 }
-                return CheckResult.PASS;
+                return found ? CheckResult.FAIL : CheckResult.PASS;
             }
+            return CheckResult.PASS;
+        }
+    }
+
+    private boolean test(ClassSymbol symbol) {
+        Object result = predicate != null ? predicate.test(symbol) : eval(symbol);
+        if (result instanceof Boolean) {
+            return (Boolean) result;
         } else {
             throw new JdkMigrationException("Mvel2 rule file" + mvel2RuleFile + " must return a boolean result!Now result type is : " + result.getClass());
         }
     }
 
+    /**
+     * Only the methods that call the methods in the rule, or read what they store in static fields, need to be analyzed.
+     *
+     * @return the methods, or null to analyze all methods
+     */
+    private Set<String> methodsToAnalyze(ClassSymbol symbol) {
+        return predicate != null ? predicate.callerMethods(symbol) : null;
+    }
+
+    /**
+     * Run the static analysis of the rules on the classes of a jar together in one Soot scene, and keep the results
+     * in the dependencies, so {@link #check(Dependency)} doesn't analyze each class on its own. A class is only
+     * analyzed for the rules that pass on its symbols.
+     *
+     * @param wholeClasses the WHOLE_CLASS dependencies of classes in the same jar
+     */
+    public static void analyzeTogether(List<Dependency> wholeClasses) {
+        // all classes are put into the scene, so the references between them are resolved
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        // e.g. the versions of a class in a multi-release jar, they are analyzed on their own
+        Set<String> duplicated = new HashSet<>();
+        for (Dependency dependency : wholeClasses) {
+            byte[] bytecode = dependency.getCurrClassBytecode();
+            if (bytecode != null && classes.putIfAbsent(dependency.getTarget().asClass().getClassName(), bytecode) != null) {
+                duplicated.add(dependency.getTarget().asClass().getClassName());
+            }
+        }
+        duplicated.forEach(classes::remove);
+
+        Map<String, Map<String, Set<String>>> requests = new HashMap<>();
+        for (ExecutableRule rule : InstanceRuleManager.getRuleInstances(DependType.WHOLE_CLASS)) {
+            // the classes are analyzed by many threads, leave a rule that is not thread-safe to the rule evaluator
+            if (!(rule instanceof WholeClassRule) || ((WholeClassRule) rule).staticAnalysisRule == null || !rule.isThreadSafe()) {
+                continue;
+            }
+            WholeClassRule wholeClassRule = (WholeClassRule) rule;
+            for (Dependency dependency : wholeClasses) {
+                ClassSymbol symbol = dependency.getClassSymbol();
+                if (symbol == null || !classes.containsKey(dependency.getTarget().asClass().getClassName())
+                        || !wholeClassRule.test(symbol)) {
+                    continue;
+                }
+                Set<String> methods = wholeClassRule.methodsToAnalyze(symbol);
+                if (methods != null && methods.isEmpty()) {
+                    continue;
+                }
+                Map<String, Set<String>> rules = requests.computeIfAbsent(dependency.getTarget().asClass().getClassName(),
+                        (k) -> new HashMap<>());
+                String staticAnalysis = wholeClassRule.staticAnalysisRule;
+                if (rules.containsKey(staticAnalysis)) {
+                    // the rules sharing a static analysis analyze the methods of all of them
+                    Set<String> before = rules.get(staticAnalysis);
+                    rules.put(staticAnalysis, before == null || methods == null ? null : union(before, methods));
+                } else {
+                    rules.put(staticAnalysis, methods);
+                }
+            }
+        }
+        if (requests.isEmpty()) {
+            return;
+        }
+        Map<String, Map<String, Boolean>> results = StaticAnalysisEntry.analyze(classes, requests);
+        for (Dependency dependency : wholeClasses) {
+            Map<String, Boolean> done = results.get(dependency.getTarget().asClass().getClassName());
+            if (done != null) {
+                dependency.setStaticAnalysisResults(done);
+            }
+        }
+    }
+
+    private static Set<String> union(Set<String> a, Set<String> b) {
+        Set<String> result = new HashSet<>(a);
+        result.addAll(b);
+        return result;
+    }
+
+    private Object eval(ClassSymbol symbol) {
+        Variables vars = variables.get();
+        Map<String, Object> mvelMap = vars.map;
+        mvelMap.put("typeSet", symbol.getTypeSet());
+        mvelMap.put("methodSet", toMethodIdentifierSet(symbol.getCallMethodSet()));
+        mvelMap.put("cpSet", symbol.getConstantPoolSet());
+        try {
+            return MVEL.executeExpression(compiledRule, vars.factory);
+        } finally {
+            mvelMap.clear();
+        }
+    }
+
     private Set<String> toMethodIdentifierSet(Set<DependTarget.Method> callMethodSet) {
         if (callMethodSet == null || callMethodSet.isEmpty()) {
             return Collections.emptySet();
@@ -83,9 +202,14 @@ public class WholeClassRule extends ExecutableRule {
         }
     }
 
+    private static class Variables {
+        private final Map<String, Object> map = new HashMap<>();
+        private final MapVariableResolverFactory factory = new MapVariableResolverFactory(map);
+    }
+
     @Override
-    public boolean accept(Dependency dependency) {
-        return DependType.WHOLE_CLASS == dependency.getDependType();
+    public DependType[] accepts() {
+        return new DependType[]{DependType.WHOLE_CLASS};
     }
 
     public void setMvel2RuleFile(String mvel2RuleFile) {
@@ -90,6 +90,10 @@ public class CheckResult implements Serializable {
     }
 
     public List<Dependency> getPropagated() {
+        // it's not serialized, e.g. a result loaded from the cache doesn't have it.
+        if (propagated == null) {
+            propagated = new ArrayList<>();
+        }
         return propagated;
     }
 
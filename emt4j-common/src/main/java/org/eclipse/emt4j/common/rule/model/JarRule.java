@@ -18,9 +18,12 @@
  ********************************************************************************/
 package org.eclipse.emt4j.common.rule.model;
 
+import java.io.Serializable;
+
 public class JarRule {
     private String artifact;
     private String  rule;
+    private Serializable compiledRule;
 
     public String getArtifact() {
         return artifact;
@@ -38,6 +41,14 @@ public class JarRule {
         this.rule = rule;
     }
 
+    public Serializable getCompiledRule() {
+        return compiledRule;
+    }
+
+    public void setCompiledRule(Serializable compiledRule) {
+        this.compiledRule = compiledRule;
+    }
+
     public JarRule(String artifact, String rule) {
         this.artifact = artifact;
         this.rule = rule;
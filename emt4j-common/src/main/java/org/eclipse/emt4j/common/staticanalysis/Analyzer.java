@@ -21,8 +21,17 @@ package org.eclipse.emt4j.common.staticanalysis;
 
 import soot.SootClass;
 
+import java.util.Set;
+
 public interface Analyzer {
     boolean analyze(SootClass clazz);
 
+    /**
+     * Same as {@link #analyze(SootClass)}, but only analyze the given methods.
+     *
+     * @param methods name + descriptor of the methods (e.g. <code>foo(I)V</code>), or null to analyze all methods
+     */
+    boolean analyze(SootClass clazz, Set<String> methods);
+
     String rule();
 }
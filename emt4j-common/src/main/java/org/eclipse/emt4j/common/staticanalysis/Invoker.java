@@ -19,6 +19,22 @@
 
 package org.eclipse.emt4j.common.staticanalysis;
 
+import java.util.Map;
+import java.util.Set;
+
 public interface Invoker {
-    boolean invoke(String rule, String className, byte[] bytecodes);
+    /**
+     * @param methods name + descriptor of the methods to analyze, or null to analyze all methods
+     */
+    boolean invoke(String rule, String className, byte[] bytecodes, Set<String> methods);
+
+    /**
+     * Analyze the classes in one scene.
+     *
+     * @param classes  class name to bytecode, all of them are in the scene so the references between them are resolved
+     * @param requests class name to the rules to run on the class, each rule to the methods to analyze or null
+     * @return class name to the rules that are done, each rule to whether the issue is found. A rule that failed on
+     * the class is not included.
+     */
+    Map<String, Map<String, Boolean>> invoke(Map<String, byte[]> classes, Map<String, Map<String, Set<String>>> requests);
 }
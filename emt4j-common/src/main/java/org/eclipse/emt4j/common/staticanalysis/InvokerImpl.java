@@ -24,44 +24,46 @@ import org.eclipse.emt4j.common.staticanalysis.impl.CLDRDateFormatAnalyzer;
 import org.eclipse.emt4j.common.staticanalysis.impl.CLDRNumberFormatAnalyzer;
 import org.eclipse.emt4j.common.staticanalysis.impl.CastArraysAsListToArrayAnalyzer;
 import org.eclipse.emt4j.common.staticanalysis.impl.CastSystemClassLoaderToURLClassLoaderAnalyzer;
+import org.eclipse.emt4j.common.staticanalysis.impl.MethodAnalysisCache;
 import org.eclipse.emt4j.common.staticanalysis.impl.PatternCompileAnalyzer;
 import soot.G;
 import soot.Scene;
 import soot.SootClass;
+import soot.SourceLocator;
+import soot.asm.AsmClassProvider;
 import soot.options.Options;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-
+import java.util.Set;
+
+/**
+ * Analyze classes with Soot.
+ * <p>
+ * An invoker is used by one thread at a time, see {@link StaticAnalysisEntry}. It keeps the Soot scene between
+ * classes, so the JDK classes and the Jimple bodies loaded for a class are reused by the next classes and by the
+ * other rules on the same class. The scene is reset after {@link #MAX_CLASSES_PER_SCENE} classes to cap the memory.
+ * <p>
+ * The classes to analyze are registered with the {@link MemoryClassProvider} before any of them is loaded, so a
+ * class that refers to another registered class makes Soot load it from the provider, and it's resolved in place
+ * when it's analyzed. A class that is not registered when it's referred to becomes a phantom class, which can't be
+ * loaded again, so the scene is reset when such a class comes. The classes analyzed before don't change the result
+ * of a class, see {@link MethodAnalysisCache}.
+ */
 class InvokerImpl implements Invoker {
 
-    private final File directory;
+    private static final int MAX_CLASSES_PER_SCENE = 500;
 
     private final Map<String, Analyzer> analyzerMap = new HashMap<>();
 
-    InvokerImpl() throws IOException {
-
-        directory = Files.createTempDirectory("files-for-static-analysis-" + Thread.currentThread().getId() + "-").toFile();
-
-        directory.deleteOnExit();
+    private final MemoryClassProvider classProvider = new MemoryClassProvider();
 
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            try {
-                //noinspection resource
-                Files.walk(directory.toPath())
-                     .sorted(Comparator.reverseOrder())
-                     .map(Path::toFile)
-                     .forEach(File::delete);
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }));
+    private boolean sceneReady;
 
+    InvokerImpl() {
         add(new CastArraysAsListToArrayAnalyzer());
         add(new PatternCompileAnalyzer());
         add(new CastSystemClassLoaderToURLClassLoaderAnalyzer());
@@ -81,48 +83,132 @@ class InvokerImpl implements Invoker {
         Options.v().set_keep_line_number(true);
         // TODO: learn what this does
         Options.v().set_wrong_staticness(Options.wrong_staticness_ignore);
-        Options.v().set_soot_classpath(directory.getAbsolutePath());
+        // classes are loaded into the scene after it's resolved
+        Options.v().set_ignore_resolving_levels(true);
+        classProvider.clear();
+        MethodAnalysisCache.clear();
+        // the classes to analyze come from memory, the JDK classes come from the default classpath
+        SourceLocator.v().setClassProviders(Arrays.asList(classProvider, new AsmClassProvider()));
+        Scene.v().loadNecessaryClasses();
+        sceneReady = true;
     }
 
-    private Path writeTo(String className, byte[] bytecodes) {
-        String[] split = className.split("\\.");
-        // create package
-        File current = directory;
-        for (int i = 0; i < split.length - 1; i++) {
-            current = new File(current, split[i]);
-            //noinspection ResultOfMethodCallIgnored
-            current.mkdir();
+    /**
+     * Register the classes with the class provider, the scene is reset first if they can't be added to it.
+     *
+     * @param classes class name to bytecode
+     */
+    private void register(Map<String, byte[]> classes) {
+        boolean reuse = sceneReady;
+        int newClasses = 0;
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            if (!reuse) {
+                break;
+            }
+            byte[] registered = classProvider.get(entry.getKey());
+            if (registered != null) {
+                // another class with the same name can't be put into the scene
+                reuse = registered == entry.getValue() || Arrays.equals(registered, entry.getValue());
+            } else {
+                // a phantom class because a class analyzed before refers to it
+                reuse = !Scene.v().containsClass(entry.getKey());
+                newClasses++;
+            }
         }
-        try {
-            return Files.write(current.toPath().resolve(split[split.length - 1] + ".class"), bytecodes);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        if (classProvider.size() + newClasses > MAX_CLASSES_PER_SCENE) {
+            reuse = false;
+        }
+        if (!reuse) {
+            reset();
         }
+        classes.forEach(classProvider::add);
     }
 
-    @Override
-    public boolean invoke(String rule, String className, byte[] bytecodes) {
+    /**
+     * @return the registered class, which is already in the scene if a class loaded before refers to it
+     */
+    private SootClass resolve(String className) {
+        SootClass clazz = Scene.v().containsClass(className)
+                ? Scene.v().forceResolve(className, SootClass.BODIES)
+                : Scene.v().loadClassAndSupport(className);
+        clazz.setApplicationClass();
+        return clazz;
+    }
+
+    private SootClass load(String className, byte[] bytecodes) {
+        register(Collections.singletonMap(className, bytecodes));
+        return resolve(className);
+    }
+
+    /**
+     * @return the name of the class to analyze, or null if it's not analyzed
+     */
+    private static String toClassName(String className) {
         if (className.endsWith("module-info") || className.endsWith("package-info")) {
-            return false;
+            return null;
         }
 
         if (className.endsWith(".class")) {
             className = className.substring(0, className.length() - ".class".length());
         }
+        return className;
+    }
 
-        reset();
+    @Override
+    public boolean invoke(String rule, String className, byte[] bytecodes, Set<String> methods) {
+        className = toClassName(className);
+        if (className == null) {
+            return false;
+        }
 
         Analyzer analyzer = analyzerMap.get(rule);
-        Path path = writeTo(className, bytecodes);
         try {
-            SootClass clazz = Scene.v().loadClassAndSupport(className);
-            clazz.setApplicationClass();
-            Scene.v().loadNecessaryClasses();
+            return analyzer.analyze(load(className, bytecodes), methods);
+        } catch (RuntimeException e) {
+            // don't reuse a scene that may be broken
+            sceneReady = false;
+            throw e;
+        }
+    }
 
-            return analyzer.analyze(clazz);
-        } finally {
-            path.toFile().delete();
+    @Override
+    public Map<String, Map<String, Boolean>> invoke(Map<String, byte[]> classes, Map<String, Map<String, Set<String>>> requests) {
+        Map<String, byte[]> batch = new LinkedHashMap<>();
+        classes.forEach((name, bytecodes) -> {
+            String className = toClassName(name);
+            if (className != null) {
+                batch.put(className, bytecodes);
+            }
+        });
+        Map<String, Map<String, Boolean>> result = new HashMap<>();
+        boolean registered = false;
+        for (Map.Entry<String, Map<String, Set<String>>> request : requests.entrySet()) {
+            String className = toClassName(request.getKey());
+            if (className == null || !batch.containsKey(className)) {
+                continue;
+            }
+            for (Map.Entry<String, Set<String>> rule : request.getValue().entrySet()) {
+                Analyzer analyzer = analyzerMap.get(rule.getKey());
+                if (analyzer == null) {
+                    continue;
+                }
+                try {
+                    // all classes of the batch are registered before the first one is loaded, and again in a new
+                    // scene after a failure
+                    if (!registered || !sceneReady) {
+                        register(batch);
+                        registered = true;
+                    }
+                    boolean found = analyzer.analyze(resolve(className), rule.getValue());
+                    result.computeIfAbsent(request.getKey(), (k) -> new HashMap<>()).put(rule.getKey(), found);
+                } catch (RuntimeException e) {
+                    // the failure is reported when the rule analyzes the class on its own, don't reuse a scene
+                    // that may be broken for the other classes
+                    sceneReady = false;
+                }
+            }
         }
+        return result;
     }
 
 }
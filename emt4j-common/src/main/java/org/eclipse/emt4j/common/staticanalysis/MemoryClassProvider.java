@@ -0,0 +1,109 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common.staticanalysis;
+
+import soot.ClassProvider;
+import soot.ClassSource;
+import soot.IFoundFile;
+import soot.asm.AsmClassSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipFile;
+
+/**
+ * Provide the classes to analyze to Soot from memory, so the bytecode doesn't need to be written to a directory
+ * on the Soot classpath.
+ */
+class MemoryClassProvider implements ClassProvider {
+    private final Map<String, byte[]> classes = new HashMap<>();
+
+    void add(String className, byte[] bytecodes) {
+        classes.put(className, bytecodes);
+    }
+
+    byte[] get(String className) {
+        return classes.get(className);
+    }
+
+    int size() {
+        return classes.size();
+    }
+
+    void clear() {
+        classes.clear();
+    }
+
+    @Override
+    public ClassSource find(String className) {
+        byte[] bytecodes = classes.get(className);
+        if (bytecodes == null) {
+            return null;
+        }
+        return new AsmClassSource(className, new MemoryFoundFile(className, bytecodes)) {
+        };
+    }
+
+    private static class MemoryFoundFile implements IFoundFile {
+        private final String path;
+        private final byte[] bytecodes;
+
+        MemoryFoundFile(String className, byte[] bytecodes) {
+            this.path = className.replace('.', '/') + ".class";
+            this.bytecodes = bytecodes;
+        }
+
+        @Override
+        public String getFilePath() {
+            return path;
+        }
+
+        @Override
+        public boolean isZipFile() {
+            return false;
+        }
+
+        @Override
+        public ZipFile getZipFile() {
+            return null;
+        }
+
+        @Override
+        public File getFile() {
+            return null;
+        }
+
+        @Override
+        public String getAbsolutePath() {
+            return path;
+        }
+
+        @Override
+        public InputStream inputStream() {
+            return new ByteArrayInputStream(bytecodes);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -25,6 +25,12 @@ import java.io.File;
 import java.lang.reflect.Constructor;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 public class StaticAnalysisEntry {
 
@@ -45,7 +51,20 @@ public class StaticAnalysisEntry {
         }
     }
 
-    private static final ThreadLocal<Invoker> INVOKER = ThreadLocal.withInitial(() -> {
+    /**
+     * The invokers are pooled, at most one for each core. Each invoker has its own class loader, so its own Soot
+     * instance, and is used by one thread at a time.
+     */
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    private static final LinkedBlockingDeque<Invoker> IDLE_INVOKERS = new LinkedBlockingDeque<>();
+    private static final AtomicInteger CREATED_INVOKERS = new AtomicInteger();
+    /**
+     * The invoker used by the thread last time. A thread usually analyzes the same class for several rules in a row,
+     * the class is still in the scene of that invoker.
+     */
+    private static final ThreadLocal<Invoker> LAST_INVOKER = new ThreadLocal<>();
+
+    private static Invoker createInvoker() {
         try {
             ClassLoader classLoader = StaticAnalysisEntry.class.getClassLoader();
             SootAnalysisClassLoader sootAnalysisClassLoader;
@@ -69,9 +88,74 @@ public class StaticAnalysisEntry {
         } catch (Throwable t) {
             throw new JdkMigrationException(t);
         }
-    });
+    }
+
+    private static Invoker borrowInvoker() throws InterruptedException {
+        Invoker last = LAST_INVOKER.get();
+        if (last != null && IDLE_INVOKERS.remove(last)) {
+            return last;
+        }
+        Invoker invoker = IDLE_INVOKERS.pollFirst();
+        if (invoker != null) {
+            return invoker;
+        }
+        if (CREATED_INVOKERS.incrementAndGet() <= POOL_SIZE) {
+            try {
+                return createInvoker();
+            } catch (RuntimeException e) {
+                CREATED_INVOKERS.decrementAndGet();
+                throw e;
+            }
+        }
+        CREATED_INVOKERS.decrementAndGet();
+        return IDLE_INVOKERS.takeFirst();
+    }
 
     public static boolean analyze(String rule, String className, byte[] bytecodes) {
-        return INVOKER.get().invoke(rule, className, bytecodes);
+        return analyze(rule, className, bytecodes, null);
+    }
+
+    /**
+     * Analyze only some methods of the class.
+     *
+     * @param methods name + descriptor of the methods, or null to analyze all methods
+     */
+    public static boolean analyze(String rule, String className, byte[] bytecodes, Set<String> methods) {
+        if (methods != null && methods.isEmpty()) {
+            return false;
+        }
+        return withInvoker((invoker) -> invoker.invoke(rule, className, bytecodes, methods));
+    }
+
+    /**
+     * Analyze the classes of a jar in one Soot scene, so the JDK classes are loaded once for all of them and the
+     * references between them are resolved to the classes themselves.
+     *
+     * @param classes  class name to bytecode
+     * @param requests class name to the rules to run on the class, each rule to the methods to analyze or null
+     * @return class name to the rules that are done, each rule to whether the issue is found. A rule that failed on
+     * a class is not included, analyze it again with {@link #analyze(String, String, byte[], Set)} to see the failure.
+     */
+    public static Map<String, Map<String, Boolean>> analyze(Map<String, byte[]> classes, Map<String, Map<String, Set<String>>> requests) {
+        if (classes.isEmpty() || requests.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return withInvoker((invoker) -> invoker.invoke(classes, requests));
+    }
+
+    private static <T> T withInvoker(Function<Invoker, T> action) {
+        Invoker invoker;
+        try {
+            invoker = borrowInvoker();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JdkMigrationException(e);
+        }
+        try {
+            return action.apply(invoker);
+        } finally {
+            LAST_INVOKER.set(invoker);
+            IDLE_INVOKERS.offerFirst(invoker);
+        }
     }
 }
@@ -26,26 +26,28 @@ import soot.SootMethod;
 import soot.Unit;
 import soot.Value;
 import soot.jimple.CastExpr;
-import soot.jimple.JimpleBody;
 import soot.jimple.StaticFieldRef;
 import soot.jimple.internal.JAssignStmt;
-import soot.toolkits.graph.ExceptionalUnitGraph;
-import soot.toolkits.graph.ExceptionalUnitGraphFactory;
 import soot.toolkits.scalar.SimpleLocalDefs;
 
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 
 abstract class BaseAnalyzer implements Analyzer {
     @Override
     public boolean analyze(SootClass clazz) {
+        return analyze(clazz, null);
+    }
+
+    @Override
+    public boolean analyze(SootClass clazz, Set<String> methodsToAnalyze) {
+        MethodAnalysisCache.setAnalyzedClass(clazz);
         List<SootMethod> methods = clazz.getMethods();
         for (int i = 0; i < methods.size(); i++) {
             SootMethod method = methods.get(i);
-            if (!method.isAbstract() && !method.isNative()) {
+            if (!method.isAbstract() && !method.isNative()
+                    && (methodsToAnalyze == null || methodsToAnalyze.contains(nameAndDescriptor(method)))) {
                 if (doAnalyze(method)) {
                     return true;
                 }
@@ -54,6 +56,12 @@ abstract class BaseAnalyzer implements Analyzer {
         return false;
     }
 
+    private static String nameAndDescriptor(SootMethod method) {
+        // <class: name(parameters)return>
+        String signature = method.getBytecodeSignature();
+        return signature.substring(signature.indexOf(": ") + 2, signature.length() - 1);
+    }
+
     abstract boolean doAnalyze(SootMethod method);
 
     protected final static Set<Value> getDefValues(SimpleLocalDefs localDefs, Unit unit, Local local) {
@@ -69,7 +77,7 @@ abstract class BaseAnalyzer implements Analyzer {
                     values.addAll(getDefValues(localDefs, def, (Local) ((CastExpr) rightOp).getOp()));
                 } else if (rightOp instanceof StaticFieldRef) {
                     StaticFieldRef ref = (StaticFieldRef) rightOp;
-                    values.addAll(globalTarget(ref));
+                    values.addAll(MethodAnalysisCache.staticFieldValues(ref));
                 } else {
                     values.add(rightOp);
                 }
@@ -95,29 +103,4 @@ abstract class BaseAnalyzer implements Analyzer {
         }
         return units;
     }
-
-    private static Set<Value> globalTarget(StaticFieldRef fieldRef) {
-        SootClass declaringClass = fieldRef.getField().getDeclaringClass();
-        Optional<SootMethod> clinit = declaringClass.getMethods().stream().filter(m -> "<clinit>".equals(m.getName())).findFirst();
-        if (!clinit.isPresent()) {
-            return Collections.emptySet();
-        }
-        SootMethod method = clinit.get();
-        JimpleBody body = (JimpleBody) method.retrieveActiveBody();
-        Local targetLocal = null;
-        Unit targetUnit = null;
-        for (Unit unit : body.getUnits()) {
-            if (unit instanceof JAssignStmt) {
-                JAssignStmt assignStmt = (JAssignStmt) unit;
-                if (assignStmt.getLeftOp().equivTo(fieldRef)) {
-                    if (assignStmt.getRightOp() instanceof Local) targetLocal = (Local) assignStmt.getRightOp();
-                    targetUnit = unit;
-                    break;
-                }
-            }
-        }
-        ExceptionalUnitGraph graph = ExceptionalUnitGraphFactory.createExceptionalUnitGraph(body);
-        SimpleLocalDefs localDefs = new SimpleLocalDefs(graph);
-        return getDefValues(localDefs, targetUnit, targetLocal);
-    }
 }
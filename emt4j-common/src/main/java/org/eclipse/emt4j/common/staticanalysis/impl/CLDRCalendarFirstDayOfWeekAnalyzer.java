@@ -35,7 +35,7 @@ public class CLDRCalendarFirstDayOfWeekAnalyzer extends BaseAnalyzer {
     }
 
     boolean doAnalyze(SootMethod method) {
-        JimpleBody body = (JimpleBody) method.retrieveActiveBody();
+        JimpleBody body = MethodAnalysisCache.body(method);
 
         for (Unit unit : body.getUnits()) {
             List<ValueBox> boxes = unit.getUseBoxes();
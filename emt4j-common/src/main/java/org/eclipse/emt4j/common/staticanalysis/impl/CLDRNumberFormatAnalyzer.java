@@ -22,9 +22,6 @@ package org.eclipse.emt4j.common.staticanalysis.impl;
 import soot.*;
 import soot.jimple.JimpleBody;
 import soot.jimple.internal.JVirtualInvokeExpr;
-import soot.toolkits.graph.ExceptionalUnitGraph;
-import soot.toolkits.graph.ExceptionalUnitGraphFactory;
-import soot.toolkits.graph.UnitGraph;
 import soot.toolkits.scalar.SimpleLocalDefs;
 import soot.toolkits.scalar.SimpleLocalUses;
 import soot.toolkits.scalar.UnitValueBoxPair;
@@ -39,10 +36,8 @@ public class CLDRNumberFormatAnalyzer extends BaseAnalyzer {
     }
 
     boolean doAnalyze(SootMethod method) {
-        JimpleBody body = (JimpleBody) method.retrieveActiveBody();
-        ExceptionalUnitGraph graph = ExceptionalUnitGraphFactory.createExceptionalUnitGraph(body);
-
-        SimpleLocalDefs localDefs = new SimpleLocalDefs(graph);
+        JimpleBody body = MethodAnalysisCache.body(method);
+        SimpleLocalDefs localDefs = MethodAnalysisCache.localDefs(method);
         for (Unit unit : body.getUnits()) {
             List<ValueBox> boxes = unit.getUseBoxes();
             for (ValueBox box : boxes) {
@@ -56,7 +51,7 @@ public class CLDRNumberFormatAnalyzer extends BaseAnalyzer {
                             && invokeMethod.getParameterCount() > 0) {
                         List<ValueBox> useBoxes = invoke.getUseBoxes();
                         Local local = (Local) useBoxes.get(0).getValue();
-                        if (isTarget(localDefs, unit, local, graph)) {
+                        if (isTarget(localDefs, unit, local, method)) {
                             return true;
                         }
                     }
@@ -66,10 +61,10 @@ public class CLDRNumberFormatAnalyzer extends BaseAnalyzer {
         return false;
     }
 
-    private static boolean isTarget(SimpleLocalDefs localDefs, Unit unit, Local local, UnitGraph unitGraph) {
+    private static boolean isTarget(SimpleLocalDefs localDefs, Unit unit, Local local, SootMethod method) {
         Set<Unit> units = getDefUnits(localDefs, unit, local);
+        SimpleLocalUses localUses = MethodAnalysisCache.localUses(method);
         for (Unit unit1 : units) {
-            SimpleLocalUses localUses = new SimpleLocalUses(unitGraph, localDefs);
             List<UnitValueBoxPair> pairList = localUses.getUsesOf(unit1);
             for (UnitValueBoxPair pair : pairList) {
                 List<ValueBox> boxes = pair.unit.getUseBoxes();
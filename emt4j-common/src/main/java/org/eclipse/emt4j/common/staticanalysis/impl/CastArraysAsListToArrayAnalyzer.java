@@ -31,8 +31,6 @@ import soot.jimple.JimpleBody;
 import soot.jimple.internal.JCastExpr;
 import soot.jimple.internal.JInterfaceInvokeExpr;
 import soot.jimple.internal.JStaticInvokeExpr;
-import soot.toolkits.graph.ExceptionalUnitGraph;
-import soot.toolkits.graph.ExceptionalUnitGraphFactory;
 import soot.toolkits.scalar.SimpleLocalDefs;
 
 import java.util.List;
@@ -46,10 +44,8 @@ public class CastArraysAsListToArrayAnalyzer extends BaseAnalyzer {
     }
 
     boolean doAnalyze(SootMethod method) {
-        JimpleBody body = (JimpleBody) method.retrieveActiveBody();
-        ExceptionalUnitGraph graph = ExceptionalUnitGraphFactory.createExceptionalUnitGraph(body);
-
-        SimpleLocalDefs localDefs = new SimpleLocalDefs(graph);
+        JimpleBody body = MethodAnalysisCache.body(method);
+        SimpleLocalDefs localDefs = MethodAnalysisCache.localDefs(method);
         for (Unit unit : body.getUnits()) {
             List<ValueBox> boxes = unit.getUseBoxes();
             for (ValueBox box : boxes) {
@@ -0,0 +1,192 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common.staticanalysis.impl;
+
+import soot.Local;
+import soot.SootClass;
+import soot.SootField;
+import soot.SootMethod;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.JimpleBody;
+import soot.jimple.StaticFieldRef;
+import soot.jimple.internal.JAssignStmt;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+import soot.toolkits.graph.ExceptionalUnitGraphFactory;
+import soot.toolkits.scalar.SimpleLocalDefs;
+import soot.toolkits.scalar.SimpleLocalUses;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The body, unit graph, local defs and local uses of methods, and the values of static fields assigned in
+ * <code>&lt;clinit&gt;</code>, built once and shared by all analyzers.
+ * <p>
+ * The analyzers of a class run one after another on the same class, so the results of the recent classes are kept.
+ * Each invoker has its own class loader and is used by one thread at a time, so the cache is not shared by threads.
+ */
+public final class MethodAnalysisCache {
+    private static final int MAX_CLASSES = 16;
+
+    private static final Map<SootClass, ClassCache> CLASSES = new LinkedHashMap<SootClass, ClassCache>(32, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SootClass, ClassCache> eldest) {
+            return size() > MAX_CLASSES;
+        }
+    };
+
+    /**
+     * The class being analyzed
+     */
+    private static SootClass analyzedClass;
+
+    private MethodAnalysisCache() {
+    }
+
+    /**
+     * Must be called when the Soot scene is reset.
+     */
+    public static void clear() {
+        CLASSES.clear();
+        analyzedClass = null;
+    }
+
+    static void setAnalyzedClass(SootClass clazz) {
+        analyzedClass = clazz;
+    }
+
+    static JimpleBody body(SootMethod method) {
+        return method(method).body();
+    }
+
+    static SimpleLocalDefs localDefs(SootMethod method) {
+        return method(method).localDefs();
+    }
+
+    static SimpleLocalUses localUses(SootMethod method) {
+        return method(method).localUses();
+    }
+
+    /**
+     * Another class to analyze is only in the scene if it has been analyzed before by the same invoker, so it's
+     * treated as a phantom class, then the result doesn't depend on the classes analyzed before.
+     *
+     * @return the values assigned to the static field in <code>&lt;clinit&gt;</code> of its class, the class must be
+     * the class being analyzed or a JDK class
+     */
+    static Set<Value> staticFieldValues(StaticFieldRef fieldRef) {
+        SootField field = fieldRef.getField();
+        if (field.getDeclaringClass().isApplicationClass() && field.getDeclaringClass() != analyzedClass) {
+            return Collections.emptySet();
+        }
+        ClassCache classCache = CLASSES.computeIfAbsent(field.getDeclaringClass(), (c) -> new ClassCache());
+        Set<Value> values = classCache.staticFieldValues.get(field);
+        if (values == null) {
+            // a field assigned from itself is not analyzed again
+            classCache.staticFieldValues.put(field, Collections.emptySet());
+            values = computeStaticFieldValues(fieldRef);
+            classCache.staticFieldValues.put(field, values);
+        }
+        return values;
+    }
+
+    private static Set<Value> computeStaticFieldValues(StaticFieldRef fieldRef) {
+        SootClass declaringClass = fieldRef.getField().getDeclaringClass();
+        SootMethod clinit = null;
+        for (SootMethod method : declaringClass.getMethods()) {
+            if ("<clinit>".equals(method.getName())) {
+                clinit = method;
+                break;
+            }
+        }
+        if (clinit == null) {
+            return Collections.emptySet();
+        }
+        Local targetLocal = null;
+        Unit targetUnit = null;
+        for (Unit unit : body(clinit).getUnits()) {
+            if (unit instanceof JAssignStmt) {
+                JAssignStmt assignStmt = (JAssignStmt) unit;
+                if (assignStmt.getLeftOp().equivTo(fieldRef)) {
+                    if (assignStmt.getRightOp() instanceof Local) targetLocal = (Local) assignStmt.getRightOp();
+                    targetUnit = unit;
+                    break;
+                }
+            }
+        }
+        if (targetUnit == null || targetLocal == null) {
+            return Collections.emptySet();
+        }
+        return BaseAnalyzer.getDefValues(localDefs(clinit), targetUnit, targetLocal);
+    }
+
+    private static MethodCache method(SootMethod method) {
+        ClassCache classCache = CLASSES.computeIfAbsent(method.getDeclaringClass(), (c) -> new ClassCache());
+        return classCache.methods.computeIfAbsent(method, MethodCache::new);
+    }
+
+    private static class ClassCache {
+        private final Map<SootMethod, MethodCache> methods = new HashMap<>();
+        private final Map<SootField, Set<Value>> staticFieldValues = new HashMap<>();
+    }
+
+    private static class MethodCache {
+        private final SootMethod method;
+        private JimpleBody body;
+        private ExceptionalUnitGraph graph;
+        private SimpleLocalDefs localDefs;
+        private SimpleLocalUses localUses;
+
+        MethodCache(SootMethod method) {
+            this.method = method;
+        }
+
+        JimpleBody body() {
+            if (body == null) {
+                body = (JimpleBody) method.retrieveActiveBody();
+            }
+            return body;
+        }
+
+        ExceptionalUnitGraph graph() {
+            if (graph == null) {
+                graph = ExceptionalUnitGraphFactory.createExceptionalUnitGraph(body());
+            }
+            return graph;
+        }
+
+        SimpleLocalDefs localDefs() {
+            if (localDefs == null) {
+                localDefs = new SimpleLocalDefs(graph());
+            }
+            return localDefs;
+        }
+
+        SimpleLocalUses localUses() {
+            if (localUses == null) {
+                localUses = new SimpleLocalUses(graph(), localDefs());
+            }
+            return localUses;
+        }
+    }
+}
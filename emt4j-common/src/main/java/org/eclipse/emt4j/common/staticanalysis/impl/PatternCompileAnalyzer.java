@@ -37,7 +37,7 @@ public class PatternCompileAnalyzer extends BaseAnalyzer {
 
     @Override
     boolean doAnalyze(SootMethod method) {
-        JimpleBody body = (JimpleBody) method.retrieveActiveBody();
+        JimpleBody body = MethodAnalysisCache.body(method);
         for (Unit unit : body.getUnits()) {
             Stmt stmt = (Stmt) unit;
             if (!stmt.containsInvokeExpr()) {
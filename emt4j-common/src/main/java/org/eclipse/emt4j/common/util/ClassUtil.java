@@ -19,7 +19,6 @@
 package org.eclipse.emt4j.common.util;
 
 import java.util.Optional;
-import java.util.Set;
 
 public class ClassUtil {
 
@@ -32,24 +31,6 @@ public class ClassUtil {
     }
 
 
-    public static Optional<String> maxLongMatch(String className, Set<String> allPackages) {
-        if (null == className || "".equals(className)) {
-            return Optional.empty();
-        } else {
-            int index = className.lastIndexOf('.');
-            if (-1 == index) {
-                return Optional.empty();
-            }
-            do {
-                if (allPackages.contains(className.substring(0, index))) {
-                    return Optional.of(className.substring(0, index));
-                }
-                index = className.substring(0, index).lastIndexOf('.');
-            } while (index != -1);
-            return Optional.empty();
-        }
-    }
-
     public static Optional<String> getPackage(String className) {
         if (className == null || "".equals(className)) {
             return Optional.empty();
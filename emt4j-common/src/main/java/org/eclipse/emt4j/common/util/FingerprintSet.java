@@ -0,0 +1,141 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common.util;
+
+/**
+ * A set of 128-bit fingerprints, each one is given as two longs.
+ * <p>
+ * The fingerprints are stored in open addressing tables of primitive longs, so adding a fingerprint doesn't
+ * allocate any object except when a table grows. The set is divided into segments and each segment has its
+ * own lock, so different threads rarely contend with each other.
+ * <p>
+ * The fingerprints should already be well mixed, the set uses their bits directly to find the segment and the slot.
+ */
+public class FingerprintSet {
+    private static final int SEGMENT_BITS = 6;
+    private static final int INITIAL_SEGMENT_CAPACITY = 64;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    public FingerprintSet() {
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * @return true if the fingerprint is not in the set before
+     */
+    public boolean add(long high, long low) {
+        return segmentFor(low).add(high, low);
+    }
+
+    public boolean contains(long high, long low) {
+        return segmentFor(low).contains(high, low);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment segmentFor(long low) {
+        return segments[(int) (low >>> (Long.SIZE - SEGMENT_BITS))];
+    }
+
+    private static final class Segment {
+        /**
+         * high and low of the fingerprint at 2*i and 2*i+1, (0,0) means empty slot.
+         */
+        private long[] table = new long[INITIAL_SEGMENT_CAPACITY * 2];
+        private int size;
+        /**
+         * The fingerprint (0,0) can't be stored in the table.
+         */
+        private boolean containsZero;
+
+        synchronized boolean add(long high, long low) {
+            if (high == 0 && low == 0) {
+                if (containsZero) {
+                    return false;
+                }
+                containsZero = true;
+                size++;
+                return true;
+            }
+            int slot = find(table, high, low);
+            if (table[slot] != 0 || table[slot + 1] != 0) {
+                return false;
+            }
+            table[slot] = high;
+            table[slot + 1] = low;
+            // keep the load factor under 2/3, so the probe sequences stay short
+            if (++size * 3 > table.length) {
+                resize();
+            }
+            return true;
+        }
+
+        synchronized boolean contains(long high, long low) {
+            if (high == 0 && low == 0) {
+                return containsZero;
+            }
+            int slot = find(table, high, low);
+            return table[slot] != 0 || table[slot + 1] != 0;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private void resize() {
+            long[] old = table;
+            long[] newTable = new long[old.length * 2];
+            for (int i = 0; i < old.length; i += 2) {
+                if (old[i] != 0 || old[i + 1] != 0) {
+                    int slot = find(newTable, old[i], old[i + 1]);
+                    newTable[slot] = old[i];
+                    newTable[slot + 1] = old[i + 1];
+                }
+            }
+            table = newTable;
+        }
+
+        /**
+         * Linear probing from the slot given by the high part.
+         *
+         * @return the index of the slot that contains the fingerprint, or the empty slot where it should be put.
+         */
+        private static int find(long[] table, long high, long low) {
+            int mask = (table.length >> 1) - 1;
+            int i = (int) high & mask;
+            while (true) {
+                long h = table[i << 1];
+                long l = table[(i << 1) + 1];
+                if ((h == 0 && l == 0) || (h == high && l == low)) {
+                    return i << 1;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+    }
+}
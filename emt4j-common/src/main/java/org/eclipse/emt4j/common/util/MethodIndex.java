@@ -0,0 +1,106 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common.util;
+
+import org.eclipse.emt4j.common.MethodDesc;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Find whether a method is in a list of methods, by hash lookups instead of comparing with each method.
+ * <p>
+ * The methods are indexed by class name, then by method name, then by descriptor. A bloom filter of the class
+ * names is checked first, so most methods that are not in the list are rejected without a map lookup.
+ * The index can't be changed after created, so it can be shared by threads.
+ */
+public class MethodIndex {
+    private static final int BLOOM_BITS_PER_CLASS = 16;
+    private static final int MIN_BLOOM_BITS = 64;
+
+    private final Map<String, Map<String, Set<String>>> methods = new HashMap<>();
+    private final long[] classBloom;
+    private final int bloomShift;
+
+    public MethodIndex(Collection<MethodDesc> methodDescs) {
+        for (MethodDesc methodDesc : methodDescs) {
+            methods.computeIfAbsent(methodDesc.getClassName(), (k) -> new HashMap<>())
+                    .computeIfAbsent(methodDesc.getMethodName(), (k) -> new HashSet<>())
+                    .add(methodDesc.getDesc());
+        }
+        int bits = Integer.highestOneBit(Math.max(MIN_BLOOM_BITS, methods.size() * BLOOM_BITS_PER_CLASS) * 2 - 1);
+        classBloom = new long[bits / Long.SIZE];
+        bloomShift = Integer.SIZE - Integer.numberOfTrailingZeros(bits);
+        for (String className : methods.keySet()) {
+            int hash = className.hashCode();
+            setBit(firstBit(hash));
+            setBit(secondBit(hash));
+        }
+    }
+
+    /**
+     * @return true if there is a method with the class name, the method name and the descriptor
+     */
+    public boolean contains(String className, String methodName, String desc) {
+        Set<String> descs = descs(className, methodName);
+        return descs != null && descs.contains(desc);
+    }
+
+    /**
+     * @return true if there is a method with the class name and the method name, whatever the descriptor is
+     */
+    public boolean contains(String className, String methodName) {
+        return descs(className, methodName) != null;
+    }
+
+    /**
+     * @return false if there is no method of the class, true if there may be
+     */
+    public boolean mayContainClass(String className) {
+        int hash = className.hashCode();
+        return getBit(firstBit(hash)) && getBit(secondBit(hash));
+    }
+
+    private Set<String> descs(String className, String methodName) {
+        if (className == null || methodName == null || !mayContainClass(className)) {
+            return null;
+        }
+        Map<String, Set<String>> methodNames = methods.get(className);
+        return methodNames == null ? null : methodNames.get(methodName);
+    }
+
+    private int firstBit(int hash) {
+        return (hash * 0x9E3779B9) >>> bloomShift;
+    }
+
+    private int secondBit(int hash) {
+        return (Integer.rotateLeft(hash, 16) * 0x85EBCA6B) >>> bloomShift;
+    }
+
+    private void setBit(int bit) {
+        classBloom[bit >>> 6] |= 1L << bit;
+    }
+
+    private boolean getBit(int bit) {
+        return (classBloom[bit >>> 6] & (1L << bit)) != 0;
+    }
+}
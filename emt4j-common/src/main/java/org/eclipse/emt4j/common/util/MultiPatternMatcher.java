@@ -0,0 +1,223 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Match a text against a list of regular expressions in one pass.
+ * <p>
+ * Most patterns start with a literal part (e.g. {@code java\.util\.concurrent\.} of
+ * {@code java\.util\.concurrent\.CompletableFuture\.runAsync}). The literal prefixes are put in a trie, the text is
+ * walked down the trie once to find the patterns whose prefix matches, then only these patterns are evaluated.
+ * A pattern without a literal prefix is always evaluated.
+ * <p>
+ * The matcher can be shared by threads. It records how many times each pattern is evaluated and how long it takes,
+ * see {@link #getMetrics()}.
+ */
+public class MultiPatternMatcher {
+    private static final String META_CHARS = ".[]{}()*+?^$|\\";
+    private static final String QUANTIFIERS = "*+?{";
+
+    private final Pattern[] patterns;
+    private final Node root = new Node();
+    private final LongAdder[] evaluated;
+    private final LongAdder[] matched;
+    private final LongAdder[] nanos;
+
+    public MultiPatternMatcher(List<String> regexList) {
+        patterns = new Pattern[regexList.size()];
+        evaluated = new LongAdder[patterns.length];
+        matched = new LongAdder[patterns.length];
+        nanos = new LongAdder[patterns.length];
+        for (int i = 0; i < patterns.length; i++) {
+            String regex = regexList.get(i);
+            patterns[i] = Pattern.compile(regex);
+            evaluated[i] = new LongAdder();
+            matched[i] = new LongAdder();
+            nanos[i] = new LongAdder();
+            root.add(literalPrefix(regex), 0, i);
+        }
+    }
+
+    /**
+     * @return the index of the first pattern in the list that matches the whole text, or -1 if no pattern matches
+     */
+    public int match(CharSequence text) {
+        int[] candidates = root.ids;
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            node = node.child(text.charAt(i));
+            if (node == null) {
+                break;
+            }
+            if (node.ids.length > 0) {
+                candidates = merge(candidates, node.ids);
+            }
+        }
+        for (int id : candidates) {
+            long start = System.nanoTime();
+            boolean matches = patterns[id].matcher(text).matches();
+            nanos[id].add(System.nanoTime() - start);
+            evaluated[id].increment();
+            if (matches) {
+                matched[id].increment();
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    public String getPattern(int id) {
+        return patterns[id].pattern();
+    }
+
+    /**
+     * @return one line for each pattern that has been evaluated: the pattern, the times it's evaluated and matched,
+     * and the total time of evaluating it, the slowest pattern first
+     */
+    public List<String> getMetrics() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < patterns.length; i++) {
+            if (evaluated[i].sum() > 0) {
+                ids.add(i);
+            }
+        }
+        ids.sort((a, b) -> Long.compare(nanos[b].sum(), nanos[a].sum()));
+        List<String> metrics = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            metrics.add(patterns[id].pattern() + " evaluated=" + evaluated[id].sum() + " matched=" + matched[id].sum()
+                    + " time=" + TimeUnit.NANOSECONDS.toMillis(nanos[id].sum()) + "ms");
+        }
+        return metrics;
+    }
+
+    /**
+     * The literal characters that every text matched by the pattern starts with.
+     */
+    static String literalPrefix(String regex) {
+        if (hasAlternation(regex)) {
+            return "";
+        }
+        StringBuilder prefix = new StringBuilder();
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            int next;
+            char literal;
+            if (c == '\\') {
+                if (i + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                    // a character class (e.g. \d) or a quote (\Q)
+                    break;
+                }
+                literal = regex.charAt(i + 1);
+                next = i + 2;
+            } else if (META_CHARS.indexOf(c) >= 0) {
+                break;
+            } else {
+                literal = c;
+                next = i + 1;
+            }
+            if (next < regex.length() && QUANTIFIERS.indexOf(regex.charAt(next)) >= 0) {
+                // the character may not appear
+                break;
+            }
+            prefix.append(literal);
+            i = next;
+        }
+        return prefix.toString();
+    }
+
+    private static boolean hasAlternation(String regex) {
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '|') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Merge two sorted arrays of distinct ids.
+     */
+    private static int[] merge(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        int[] merged = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j >= b.length || (i < a.length && a[i] < b[j])) {
+                merged[n++] = a[i++];
+            } else {
+                merged[n++] = b[j++];
+            }
+        }
+        return merged;
+    }
+
+    private static class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        // the ids of the patterns whose prefix ends at this node, sorted
+        private int[] ids = new int[0];
+
+        void add(String prefix, int index, int id) {
+            if (index == prefix.length()) {
+                ids = Arrays.copyOf(ids, ids.length + 1);
+                ids[ids.length - 1] = id;
+                return;
+            }
+            char c = prefix.charAt(index);
+            Node child = child(c);
+            if (child == null) {
+                int pos = -Arrays.binarySearch(keys, c) - 1;
+                keys = insert(keys, pos, c);
+                Node[] newChildren = new Node[children.length + 1];
+                System.arraycopy(children, 0, newChildren, 0, pos);
+                System.arraycopy(children, pos, newChildren, pos + 1, children.length - pos);
+                child = new Node();
+                newChildren[pos] = child;
+                children = newChildren;
+            }
+            child.add(prefix, index + 1, id);
+        }
+
+        Node child(char c) {
+            int pos = Arrays.binarySearch(keys, c);
+            return pos < 0 ? null : children[pos];
+        }
+
+        private static char[] insert(char[] array, int pos, char c) {
+            char[] result = new char[array.length + 1];
+            System.arraycopy(array, 0, result, 0, pos);
+            result[pos] = c;
+            System.arraycopy(array, pos, result, pos + 1, array.length - pos);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A trie of package names, each package may be mapped to a value (e.g. the module that exports it).
+ * <p>
+ * It answers which package of the list a class or a package belongs to, by walking the name once instead of
+ * creating the substring of each parent package and looking it up in a set. The queries take a {@link CharSequence}
+ * and an end index, so a class name can be queried by its package part without creating the package string.
+ * <p>
+ * The trie can't be changed after created, so the tries read from the rule data files are cached and shared
+ * by all rules that read the same file, see {@link #ofPackages(String)} and {@link #ofPackageToModule(String)}.
+ */
+public class PackageTrie {
+    private static final Map<String, PackageTrie> CACHE = new ConcurrentHashMap<>();
+
+    private final Node root = new Node();
+    private final String[] packages;
+    private final String[] values;
+
+    /**
+     * @param packageToValue the packages and their values, the value can be null
+     */
+    public PackageTrie(Map<String, String> packageToValue) {
+        packages = new String[packageToValue.size()];
+        values = new String[packageToValue.size()];
+        int id = 0;
+        for (Map.Entry<String, String> entry : packageToValue.entrySet()) {
+            packages[id] = entry.getKey();
+            values[id] = entry.getValue();
+            root.add(entry.getKey(), 0, id);
+            id++;
+        }
+    }
+
+    /**
+     * @param resourcePath a resource file that has one package per line
+     */
+    public static PackageTrie ofPackages(String resourcePath) {
+        return CACHE.computeIfAbsent("packages:" + resourcePath, (k) -> {
+            Map<String, String> packageToValue = new LinkedHashMap<>();
+            for (String line : FileUtil.readPlainTextFromResource(resourcePath, false)) {
+                String packageName = line.trim();
+                if (!packageName.isEmpty()) {
+                    packageToValue.put(packageName, null);
+                }
+            }
+            return new PackageTrie(packageToValue);
+        });
+    }
+
+    /**
+     * @param resourcePath a resource file that has one "package,module" per line
+     */
+    public static PackageTrie ofPackageToModule(String resourcePath) {
+        return CACHE.computeIfAbsent("modules:" + resourcePath, (k) -> {
+            Map<String, String> packageToValue = new LinkedHashMap<>();
+            for (String line : FileUtil.readPlainTextFromResource(resourcePath, false)) {
+                String[] arr = line.split(",");
+                if (arr.length >= 2) {
+                    packageToValue.put(arr[0].trim(), arr[1].trim());
+                }
+            }
+            return new PackageTrie(packageToValue);
+        });
+    }
+
+    /**
+     * @return the index of the last '.' in the name, which is also the end of the package part of a class name,
+     * or -1 if there is no '.'
+     */
+    public static int packageEnd(CharSequence name) {
+        for (int i = name.length() - 1; i >= 0; i--) {
+            if (name.charAt(i) == '.') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the longest package in the trie that is <code>name[0, end)</code> or one of its parent packages.
+     *
+     * @return the id of the package, or -1 if not found
+     */
+    public int longestMatch(CharSequence name, int end) {
+        int found = -1;
+        Node node = root;
+        for (int i = 0; i < end; i++) {
+            char c = name.charAt(i);
+            if (c == '.' && node.id != -1) {
+                found = node.id;
+            }
+            node = node.child(c);
+            if (node == null) {
+                return found;
+            }
+        }
+        return node.id != -1 ? node.id : found;
+    }
+
+    /**
+     * Find the longest package in the trie that the class belongs to, including the parent packages of the class's
+     * package.
+     *
+     * @return the id of the package, or -1 if not found
+     */
+    public int longestMatchOfClass(CharSequence className) {
+        int end = packageEnd(className);
+        return end == -1 ? -1 : longestMatch(className, end);
+    }
+
+    /**
+     * @return the id of <code>name[0, end)</code> if it's in the trie, or -1 if not found
+     */
+    public int find(CharSequence name, int end) {
+        Node node = root;
+        for (int i = 0; i < end && node != null; i++) {
+            node = node.child(name.charAt(i));
+        }
+        return node == null ? -1 : node.id;
+    }
+
+    public boolean contains(CharSequence packageName) {
+        return find(packageName, packageName.length()) != -1;
+    }
+
+    public String getPackage(int id) {
+        return packages[id];
+    }
+
+    public String getValue(int id) {
+        return values[id];
+    }
+
+    public List<String> getPackages() {
+        return new ArrayList<>(Arrays.asList(packages));
+    }
+
+    public int size() {
+        return packages.length;
+    }
+
+    private static class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        // the id of the package that ends at this node
+        private int id = -1;
+
+        void add(String packageName, int index, int id) {
+            if (index == packageName.length()) {
+                this.id = id;
+                return;
+            }
+            char c = packageName.charAt(index);
+            Node child = child(c);
+            if (child == null) {
+                int pos = -Arrays.binarySearch(keys, c) - 1;
+                char[] newKeys = new char[keys.length + 1];
+                System.arraycopy(keys, 0, newKeys, 0, pos);
+                newKeys[pos] = c;
+                System.arraycopy(keys, pos, newKeys, pos + 1, keys.length - pos);
+                Node[] newChildren = new Node[children.length + 1];
+                System.arraycopy(children, 0, newChildren, 0, pos);
+                System.arraycopy(children, pos, newChildren, pos + 1, children.length - pos);
+                child = new Node();
+                newChildren[pos] = child;
+                keys = newKeys;
+                children = newChildren;
+            }
+            child.add(packageName, index + 1, id);
+        }
+
+        Node child(char c) {
+            int pos = Arrays.binarySearch(keys, c);
+            return pos < 0 ? null : children[pos];
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Give each distinct symbol an int id, and keep one canonical instance of each symbol.
+ * <p>
+ * The ids start at 0 and are dense, so a set of symbols can be stored as an array of ints.
+ * Looking up a symbol doesn't take any lock, only adding a new symbol does.
+ * A symbol is never removed, so the tables should only hold things that are shared by many classes,
+ * like class names and methods.
+ * <p>
+ * A table created by {@link #scoped()} is cleared when the last open scope is closed, so a global table doesn't
+ * grow for the whole life of the JVM. The ids given in a scope must not be used after the scope is closed.
+ * A scope that stays open for a long time can bound the tables with {@link #clearScoped()} instead.
+ */
+public class SymbolTable<T> {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final List<SymbolTable<?>> SCOPED_TABLES = new ArrayList<>();
+    private static int openScopes;
+
+    private final ConcurrentHashMap<T, Integer> ids = new ConcurrentHashMap<>();
+    private volatile Object[] symbols = new Object[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * @return the id of the symbol, a new id is given if the symbol is not in the table before
+     */
+    public int intern(T symbol) {
+        Integer id = ids.get(symbol);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(symbol);
+            if (id != null) {
+                return id;
+            }
+            Object[] current = symbols;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+            }
+            // the symbol must be in the array before its id can be seen by other threads
+            current[size] = symbol;
+            symbols = current;
+            ids.put(symbol, size);
+            return size++;
+        }
+    }
+
+    /**
+     * @return the id of the symbol, or -1 if the symbol is not in the table
+     */
+    public int lookup(Object symbol) {
+        Integer id = ids.get(symbol);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @return the canonical instance that equals the symbol
+     */
+    public T canonical(T symbol) {
+        return get(intern(symbol));
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int id) {
+        return (T) symbols[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * @return a new table that is cleared when the last open scope is closed
+     */
+    public static <T> SymbolTable<T> scoped() {
+        SymbolTable<T> table = new SymbolTable<>();
+        synchronized (SymbolTable.class) {
+            SCOPED_TABLES.add(table);
+        }
+        return table;
+    }
+
+    /**
+     * Begin a scope that uses the scoped tables, it must be closed by {@link #closeScope()}.
+     * The scopes can be opened by more than one thread at the same time.
+     */
+    public static synchronized void openScope() {
+        openScopes++;
+    }
+
+    /**
+     * End a scope, the scoped tables are cleared if no other scope is open.
+     */
+    public static synchronized void closeScope() {
+        if (openScopes <= 0) {
+            throw new IllegalStateException("No open scope");
+        }
+        if (--openScopes == 0) {
+            clearScoped();
+        }
+    }
+
+    /**
+     * @return how many symbols the scoped tables hold
+     */
+    public static synchronized int scopedSize() {
+        int size = 0;
+        for (SymbolTable<?> table : SCOPED_TABLES) {
+            size += table.size();
+        }
+        return size;
+    }
+
+    /**
+     * Clear the scoped tables while a scope is still open.
+     * The caller must make sure no id given before is used after, so no other thread may be using the tables.
+     */
+    public static synchronized void clearScoped() {
+        for (SymbolTable<?> table : SCOPED_TABLES) {
+            table.clear();
+        }
+    }
+
+    private synchronized void clear() {
+        ids.clear();
+        symbols = new Object[INITIAL_CAPACITY];
+        size = 0;
+    }
+}
@@ -0,0 +1,78 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common;
+
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestDependencyDeduplicator {
+
+    @Test
+    public void testIgnoreBytecode() throws Exception {
+        DependencyDeduplicator deduplicator = new DependencyDeduplicator();
+        Dependency a = wholeClass();
+        a.setCurrClassBytecode(new byte[]{1, 2, 3});
+        Dependency b = wholeClass();
+        b.setCurrClassBytecode(new byte[]{4, 5, 6});
+        assertTrue(deduplicator.firstSeen(a));
+        assertFalse(deduplicator.firstSeen(b));
+        assertEquals(DependencyFingerprint.of(a), DependencyFingerprint.of(b));
+    }
+
+    @Test
+    public void testDifferentIdentity() throws Exception {
+        DependencyDeduplicator deduplicator = new DependencyDeduplicator();
+        assertTrue(deduplicator.firstSeen(wholeClass()));
+        assertTrue(deduplicator.firstSeen(new Dependency(new URL("file:/a.jar!/a/A.class"), new DependTarget.Class("a.A", DependType.CLASS), null, "/a.jar")));
+        assertTrue(deduplicator.firstSeen(new Dependency(new URL("file:/b.jar!/a/A.class"), new DependTarget.Class("a.A", DependType.WHOLE_CLASS), null, "/b.jar")));
+        Dependency withCaller = wholeClass();
+        withCaller.setCallerMethod("foo");
+        assertTrue(deduplicator.firstSeen(withCaller));
+        assertEquals(4, deduplicator.size());
+    }
+
+    @Test
+    public void testManyFingerprints() {
+        DependencyDeduplicator deduplicator = new DependencyDeduplicator();
+        Random random = new Random(0);
+        long[] highs = new long[100000];
+        long[] lows = new long[highs.length];
+        for (int i = 0; i < highs.length; i++) {
+            highs[i] = random.nextLong();
+            lows[i] = random.nextLong();
+            assertTrue(deduplicator.firstSeen(highs[i], lows[i]));
+        }
+        for (int i = 0; i < highs.length; i++) {
+            assertFalse(deduplicator.firstSeen(highs[i], lows[i]));
+        }
+        assertTrue(deduplicator.firstSeen(0, 0));
+        assertFalse(deduplicator.firstSeen(0, 0));
+        assertEquals(highs.length + 1, deduplicator.size());
+    }
+
+    private Dependency wholeClass() throws Exception {
+        return new Dependency(new URL("file:/a.jar!/a/A.class"), new DependTarget.Class("a.A", DependType.WHOLE_CLASS), null, "/a.jar");
+    }
+}
@@ -20,6 +20,7 @@ package org.eclipse.emt4j.common.rule;
 
 import org.eclipse.emt4j.common.DependTarget;
 import org.eclipse.emt4j.common.DependType;
+import org.eclipse.emt4j.common.classanalyze.AsmClassMethodsAccessor;
 import org.eclipse.emt4j.common.classanalyze.ClassInspectorInstance;
 import org.eclipse.emt4j.common.ClassSymbol;
 import org.junit.Test;
@@ -28,6 +29,8 @@ import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.time.Period;
@@ -80,6 +83,41 @@ public class TestClassMethodsAccessor {
         assertTrue(symbol.getCallMethodSet().contains(new DependTarget.Method("javax.script.ScriptEngineManager", "getEngineByName", "(Ljava/lang/String;)Ljavax/script/ScriptEngine;", DependType.METHOD)));
     }
 
+    @Test
+    public void testFastSymbol() throws Exception {
+        byte[] bytecode = Files.readAllBytes(Paths.get(TestClassMethodsAccessor.class.getResource("TestClassMethodsAccessor.class").toURI()));
+        ClassSymbol symbol = new AsmClassMethodsAccessor(true).getSymbolInClass(bytecode);
+        String[] expectedClasses = new String[]{
+                "java.lang.ClassNotFoundException",
+                "java.io.File",
+                "java.lang.Class",
+                "java.time.Period",
+                "java.text.DateFormat",
+                "java.text.SimpleDateFormat",
+                "java.util.SortedMap",
+                "org.eclipse.emt4j.common.rule.TestClassMethodsAccessor",
+                "java.util.Queue",
+                "java.util.PriorityQueue",
+                "java.util.Set",
+                "java.util.HashSet",
+                "java.util.Calendar",
+                "java.util.TimeZone",
+                "java.util.Locale",
+                "java.util.HashMap"
+        };
+        for (String expected : expectedClasses) {
+            assertTrue(expected + " not found!Found classes is : " + String.join(",", symbol.getTypeSet()), symbol.getTypeSet().contains(expected));
+        }
+        assertTrue(symbol.getConstantPoolSet().contains("java.time.LocalDate"));
+        assertTrue(symbol.getConstantPoolSet().contains("a.txt"));
+        assertTrue(symbol.getConstantPoolSet().contains("yyyy"));
+        assertTrue(symbol.getConstantPoolSet().contains("nashorn"));
+
+        assertTrue(symbol.getCallMethodSet().contains(new DependTarget.Method("java.lang.Class", "forName", "(Ljava/lang/String;)Ljava/lang/Class;", DependType.METHOD)));
+        assertTrue(symbol.getCallMethodSet().contains(new DependTarget.Method("java.util.Queue", "size", "()I", DependType.METHOD)));
+        assertTrue(symbol.getCallMethodSet().contains(new DependTarget.Method("javax.script.ScriptEngineManager", "getEngineByName", "(Ljava/lang/String;)Ljavax/script/ScriptEngine;", DependType.METHOD)));
+    }
+
     private File foo(BufferedWriter a, AtomicBoolean b) throws ClassNotFoundException {
         //by reflection
         Class c = Class.forName("java.time.LocalDate");
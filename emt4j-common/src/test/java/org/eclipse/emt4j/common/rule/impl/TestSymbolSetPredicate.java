@@ -0,0 +1,142 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common.rule.impl;
+
+import org.eclipse.emt4j.common.ClassSymbol;
+import org.eclipse.emt4j.common.DependTarget;
+import org.eclipse.emt4j.common.DependType;
+import org.eclipse.emt4j.common.classanalyze.AsmClassMethodsAccessor;
+import org.eclipse.emt4j.common.util.FileUtil;
+import org.junit.Test;
+
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestSymbolSetPredicate {
+
+    @Test
+    public void testLower() {
+        String[] files = {"/default/rule/8to11/data/mvel2-rule-castarraysaslisttoarray.cfg",
+                "/default/rule/8to11/data/mvel2-rule-castsystemclassloadertourlclassloader.cfg",
+                "/default/rule/8to11/data/mvel2-rule-cldrcalendarfirstdayofweek.cfg",
+                "/default/rule/8to11/data/mvel2-rule-cldrdateformat.cfg",
+                "/default/rule/8to11/data/mvel2-rule-cldrnumberformat.cfg",
+                "/default/rule/8to11/data/mvel2-rule-getjavaversion.cfg",
+                "/default/rule/8to11/data/mvel2-rule-patterncompile.cfg",
+                "/default/rule/11to17/data/mvel2-nashorn.cfg"};
+        for (String file : files) {
+            assertNotNull(file, SymbolSetPredicate.lower(String.join(" ", FileUtil.readPlainTextFromResource(file, false))));
+        }
+        assertNull(SymbolSetPredicate.lower("!methodSet.contains('a.b')"));
+        assertNull(SymbolSetPredicate.lower("methodSet.size() > 1"));
+        assertNull(SymbolSetPredicate.lower(null));
+        assertNull(SymbolSetPredicate.lower("methodSet.contains('a.b') &&"));
+        assertNull(SymbolSetPredicate.lower("(methodSet.contains('a.b')"));
+        assertNull(SymbolSetPredicate.lower("methodSetX.contains('a.b')"));
+    }
+
+    @Test
+    public void testEval() {
+        SymbolSetPredicate predicate = SymbolSetPredicate.lower(
+                "methodSet.contains('java.lang.System.getProperty') && (cpSet.contains('java.version') || typeSet.contains(\"java.lang.Runtime\"))");
+        ClassSymbol.Builder builder = new ClassSymbol.Builder();
+        builder.addMethod(new DependTarget.Method("java.lang.System", "getProperty", "(Ljava/lang/String;)Ljava/lang/String;", DependType.METHOD));
+        assertFalse(predicate.test(builder.build("A")));
+        builder.addConstant("java.version");
+        assertTrue(predicate.test(builder.build("A")));
+
+        builder = new ClassSymbol.Builder();
+        builder.addMethod(new DependTarget.Method("java.lang.System", "getProperties", "()Ljava/util/Properties;", DependType.METHOD));
+        builder.addType("java.lang.Runtime");
+        assertFalse(predicate.test(builder.build("B")));
+        builder.addMethod(new DependTarget.Method("java.lang.System", "getProperty", "(Ljava/lang/String;Ljava/lang/String;)Ljava/lang/String;", DependType.METHOD));
+        assertTrue(predicate.test(builder.build("B")));
+    }
+
+    @Test
+    public void testCallerMethods() {
+        SymbolSetPredicate predicate = SymbolSetPredicate.lower(
+                "methodSet.contains('java.util.Arrays.asList') && methodSet.contains('java.util.List.toArray')");
+        ClassSymbol.Builder builder = new ClassSymbol.Builder();
+        builder.setCallerMethod("a", "()V");
+        builder.addMethod(new DependTarget.Method("java.util.Arrays", "asList", "([Ljava/lang/Object;)Ljava/util/List;", DependType.METHOD));
+        builder.setCallerMethod("b", "(I)V");
+        builder.addMethod(new DependTarget.Method("java.lang.String", "valueOf", "(I)Ljava/lang/String;", DependType.METHOD));
+        builder.setCallerMethod("c", "()[Ljava/lang/String;");
+        builder.addMethod(new DependTarget.Method("java.util.List", "toArray", "()[Ljava/lang/Object;", DependType.METHOD));
+        builder.addMethod(new DependTarget.Method("java.util.Arrays", "asList", "([Ljava/lang/Object;)Ljava/util/List;", DependType.METHOD));
+        ClassSymbol symbol = builder.build("A");
+        assertTrue(predicate.test(symbol));
+        assertEquals(new HashSet<>(Arrays.asList("a()V", "c()[Ljava/lang/String;")), predicate.callerMethods(symbol));
+
+        // the callers are unknown
+        builder = new ClassSymbol.Builder();
+        builder.addMethod(new DependTarget.Method("java.util.Arrays", "asList", "([Ljava/lang/Object;)Ljava/util/List;", DependType.METHOD));
+        assertNull(predicate.callerMethods(builder.build("B")));
+    }
+
+    @Test
+    public void testStaticFieldReaders() {
+        // the value returned by the method in the rule is stored in a static field and cast in another method
+        SymbolSetPredicate predicate = SymbolSetPredicate.lower(String.join(" ", FileUtil.readPlainTextFromResource(
+                "/default/rule/8to11/data/mvel2-rule-castsystemclassloadertourlclassloader.cfg", false)));
+        ClassSymbol symbol = new AsmClassMethodsAccessor().getSymbolInClass(SystemClassLoaderHolder.class);
+        assertTrue(predicate.test(symbol));
+        assertEquals(new HashSet<>(Arrays.asList("<clinit>()V", "urlClassLoader()Ljava/net/URLClassLoader;",
+                "copy()V", "copyClassLoader()Ljava/net/URLClassLoader;")), predicate.callerMethods(symbol));
+
+        // the fields read by a method that calls none of the methods in the rule
+        ClassSymbol.Builder builder = new ClassSymbol.Builder();
+        builder.setCallerMethod("a", "()V");
+        builder.addMethod(new DependTarget.Method("java.lang.ClassLoader", "getSystemClassLoader", "()Ljava/lang/ClassLoader;", DependType.METHOD));
+        builder.setCallerMethod("b", "()V");
+        builder.addStaticFieldWrite("A", "f");
+        builder.setCallerMethod("c", "()V");
+        builder.addStaticFieldRead("A", "f");
+        assertEquals(new HashSet<>(Arrays.asList("a()V")), predicate.callerMethods(builder.build("A")));
+    }
+
+    private static class SystemClassLoaderHolder {
+        private static final ClassLoader CL = ClassLoader.getSystemClassLoader();
+        private static ClassLoader copy;
+
+        static URLClassLoader urlClassLoader() {
+            return (URLClassLoader) CL;
+        }
+
+        static void copy() {
+            copy = CL;
+        }
+
+        static URLClassLoader copyClassLoader() {
+            return (URLClassLoader) copy;
+        }
+
+        static int unrelated() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common.util;
+
+import org.eclipse.emt4j.common.MethodDesc;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestMethodIndex {
+
+    @Test
+    public void testContains() {
+        MethodIndex index = new MethodIndex(Arrays.asList(
+                new MethodDesc("java/lang/Class", "java.lang.Class", "forName", "(Ljava/lang/String;)Ljava/lang/Class;"),
+                new MethodDesc("java/lang/Class", "java.lang.Class", "getField", "(Ljava/lang/String;)Ljava/lang/reflect/Field;"),
+                new MethodDesc("java/util/Queue", "java.util.Queue", "size", "()I")));
+        assertTrue(index.contains("java.lang.Class", "forName", "(Ljava/lang/String;)Ljava/lang/Class;"));
+        assertFalse(index.contains("java.lang.Class", "forName", "(Ljava/lang/String;ZLjava/lang/ClassLoader;)Ljava/lang/Class;"));
+        assertTrue(index.contains("java.lang.Class", "getField"));
+        assertTrue(index.contains("java.util.Queue", "size"));
+        assertFalse(index.contains("java.util.Queue", "forName"));
+        assertFalse(index.contains("java.util.List", "size"));
+        assertFalse(index.contains(null, "size"));
+    }
+
+    @Test
+    public void testClassFilter() {
+        List<MethodDesc> methods = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            methods.add(new MethodDesc("a/C" + i, "a.C" + i, "m", "()V"));
+        }
+        MethodIndex index = new MethodIndex(methods);
+        int mayContain = 0;
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(index.mayContainClass("a.C" + i));
+            assertTrue(index.contains("a.C" + i, "m", "()V"));
+            if (index.mayContainClass("b.C" + i)) {
+                mayContain++;
+            }
+        }
+        // the filter should reject most of the classes that are not in the index
+        assertTrue("false positives: " + mayContain, mayContain < 100);
+    }
+}
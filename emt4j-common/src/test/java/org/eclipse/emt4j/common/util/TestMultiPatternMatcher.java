@@ -0,0 +1,69 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestMultiPatternMatcher {
+
+    @Test
+    public void testLiteralPrefix() {
+        assertEquals("java.util.stream.", MultiPatternMatcher.literalPrefix("java\\.util\\.stream\\.[a-zA-Z0-9-_]*Stream\\.parallel"));
+        assertEquals("java.util.Arrays.parallelSort", MultiPatternMatcher.literalPrefix("java\\.util\\.Arrays\\.parallelSort"));
+        assertEquals("ab", MultiPatternMatcher.literalPrefix("abc?d"));
+        assertEquals("", MultiPatternMatcher.literalPrefix("a|b"));
+        assertEquals("", MultiPatternMatcher.literalPrefix("(?i)abc"));
+        assertEquals("a", MultiPatternMatcher.literalPrefix("a\\d+"));
+    }
+
+    @Test
+    public void testSameAsEachPattern() {
+        List<String> regexList = Arrays.asList(
+                "java\\.util\\.stream\\.[a-zA-Z0-9-_]*Stream\\.parallel",
+                "java\\.util\\.[a-zA-Z0-9-_]*Collection\\.parallelStream",
+                "java\\.util\\.[a-zA-Z0-9-_]*List\\.parallelStream",
+                "java\\.util\\.concurrent\\.CompletableFuture\\.runAsync",
+                "java\\.util\\.Arrays\\.parallelSort",
+                ".*\\.forName",
+                "java\\.lang\\.(Class|ClassLoader)\\.get.*");
+        MultiPatternMatcher matcher = new MultiPatternMatcher(regexList);
+        String[] names = {
+                "java.util.stream.IntStream.parallel", "java.util.stream.IntStream.sequential",
+                "java.util.ArrayList.parallelStream", "java.util.Collection.parallelStream",
+                "java.util.concurrent.CompletableFuture.runAsync", "java.util.concurrent.CompletableFuture.supplyAsync",
+                "java.util.Arrays.parallelSort", "java.util.Arrays.parallelSortX", "java.lang.Class.forName",
+                "java.lang.ClassLoader.getParent", "java.lang.Object.getClass", "", "java"};
+        for (String name : names) {
+            int expected = -1;
+            for (int i = 0; i < regexList.size(); i++) {
+                if (Pattern.compile(regexList.get(i)).matcher(name).matches()) {
+                    expected = i;
+                    break;
+                }
+            }
+            assertEquals(name, expected, matcher.match(name));
+        }
+    }
+}
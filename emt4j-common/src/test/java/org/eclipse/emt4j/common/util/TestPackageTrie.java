@@ -0,0 +1,84 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common.util;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestPackageTrie {
+
+    @Test
+    public void testLongestMatch() {
+        Map<String, String> packageToModule = new LinkedHashMap<>();
+        packageToModule.put("sun.misc", "jdk.unsupported");
+        packageToModule.put("sun.security", "java.base");
+        packageToModule.put("sun.security.x509", "java.base");
+        packageToModule.put("com.sun.beans", "java.desktop");
+        PackageTrie trie = new PackageTrie(packageToModule);
+
+        int id = trie.longestMatchOfClass("sun.security.x509.X509CertImpl");
+        assertEquals("sun.security.x509", trie.getPackage(id));
+        id = trie.longestMatchOfClass("sun.security.util.DerValue");
+        assertEquals("sun.security", trie.getPackage(id));
+        assertEquals("java.base", trie.getValue(id));
+        id = trie.longestMatchOfClass("com.sun.beans.decoder.DocumentHandler");
+        assertEquals("java.desktop", trie.getValue(id));
+
+        assertEquals(-1, trie.longestMatchOfClass("sun.miscellaneous.Foo"));
+        assertEquals(-1, trie.longestMatchOfClass("sun.Foo"));
+        assertEquals(-1, trie.longestMatchOfClass("sun.misc"));
+        assertEquals(-1, trie.longestMatchOfClass("Foo"));
+        assertEquals(-1, trie.longestMatchOfClass(""));
+    }
+
+    @Test
+    public void testFind() {
+        Map<String, String> packages = new LinkedHashMap<>();
+        packages.put("sun.misc", null);
+        packages.put("sun.security.x509", null);
+        PackageTrie trie = new PackageTrie(packages);
+
+        String className = "sun.misc.Unsafe";
+        assertEquals("sun.misc", trie.getPackage(trie.find(className, PackageTrie.packageEnd(className))));
+        className = "sun.security.Foo";
+        assertEquals(-1, trie.find(className, PackageTrie.packageEnd(className)));
+        assertTrue(trie.contains("sun.security.x509"));
+        assertFalse(trie.contains("sun.security"));
+        assertFalse(trie.contains("sun.misc.Unsafe"));
+    }
+
+    @Test
+    public void testShared() {
+        PackageTrie trie = PackageTrie.ofPackages("/default/rule/8to11/data/jdk_internals.cfg");
+        assertSame(trie, PackageTrie.ofPackages("/default/rule/8to11/data/jdk_internals.cfg"));
+        for (String packageName : trie.getPackages()) {
+            assertEquals(packageName, trie.getPackage(trie.longestMatchOfClass(packageName + ".Foo")));
+        }
+
+        PackageTrie modules = PackageTrie.ofPackageToModule("/default/rule/8to11/data/jdk11moduleexport.cfg");
+        assertEquals("java.desktop", modules.getValue(modules.longestMatchOfClass("com.sun.beans.decoder.DocumentHandler")));
+    }
+}
@@ -0,0 +1,87 @@
+/********************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+package org.eclipse.emt4j.common.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestSymbolTable {
+
+    @Test
+    public void testIntern() {
+        SymbolTable<String> table = new SymbolTable<>();
+        assertEquals(0, table.intern("a"));
+        assertEquals(1, table.intern("b"));
+        assertEquals(0, table.intern(new String("a")));
+        assertEquals(-1, table.lookup("c"));
+        assertEquals("b", table.get(1));
+        String a = table.get(0);
+        assertSame(a, table.canonical(new String("a")));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    public void testClearedWhenLastScopeClosed() {
+        SymbolTable<String> table = SymbolTable.scoped();
+        SymbolTable.openScope();
+        table.intern("a");
+        SymbolTable.openScope();
+        table.intern("b");
+        SymbolTable.closeScope();
+        // still used by the first scope
+        assertEquals(1, table.lookup("b"));
+        SymbolTable.closeScope();
+        assertEquals(0, table.size());
+        assertEquals(-1, table.lookup("a"));
+        assertEquals(0, table.intern("b"));
+    }
+
+    @Test
+    public void testClearScopedInOpenScope() {
+        SymbolTable<String> table = SymbolTable.scoped();
+        SymbolTable.openScope();
+        try {
+            table.intern("a");
+            table.intern("b");
+            assertTrue(SymbolTable.scopedSize() >= 2);
+            SymbolTable.clearScoped();
+            assertEquals(0, table.size());
+            assertEquals(0, table.intern("b"));
+        } finally {
+            SymbolTable.closeScope();
+        }
+    }
+
+    @Test
+    public void testUnscopedNotCleared() {
+        SymbolTable<String> table = new SymbolTable<>();
+        table.intern("a");
+        SymbolTable.openScope();
+        SymbolTable.closeScope();
+        assertEquals(0, table.lookup("a"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCloseWithoutOpen() {
+        SymbolTable.closeScope();
+    }
+}
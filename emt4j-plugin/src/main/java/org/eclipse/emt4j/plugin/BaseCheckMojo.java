@@ -80,6 +80,45 @@ abstract class BaseCheckMojo extends BaseMojo {
     @Parameter(property = "externalTools")
     protected List<String> externalTools;
 
+    /**
+     * Indicate how many threads are used to analyze the files. Default is the number of available processors.
+     */
+    @Parameter(property = "threads")
+    protected Integer threads;
+
+    /**
+     * Indicate how many threads are used to check the dependencies with the rules. Default is the number of available processors.
+     */
+    @Parameter(property = "ruleThreads")
+    protected Integer ruleThreads;
+
+    /**
+     * Indicate whether to cache the analysis results of jars, so an unchanged jar is not analyzed again.
+     * The results are cached in {@code ~/.emt4j/cache} unless cacheDir is set.
+     */
+    @Parameter(property = "cache", defaultValue = "false")
+    protected boolean cache;
+
+    /**
+     * Indicate where the analysis results of jars are cached. Setting it also turns on the cache.
+     */
+    @Parameter(property = "cacheDir")
+    protected String cacheDir;
+
+    /**
+     * Indicate whether to only analyze the class files changed since the last check. The results of the class files
+     * are saved to {@code emt4j-incremental.dat} under the build directory of the top level project.
+     */
+    @Parameter(property = "incremental", defaultValue = "false")
+    protected boolean incremental;
+
+    /**
+     * Indicate whether to read the symbols of classes from the constant pool only. It's faster, but the line numbers
+     * are not reported.
+     */
+    @Parameter(property = "fastSymbol", defaultValue = "false")
+    protected boolean fastSymbol;
+
     @Override
     void doExecute() throws MojoExecutionException {
         try {
@@ -203,6 +242,23 @@ abstract class BaseCheckMojo extends BaseMojo {
         if (priority != null) {
             param(args, "-priority", priority);
         }
+        if (threads != null) {
+            param(args, "-threads", String.valueOf(threads));
+        }
+        if (ruleThreads != null) {
+            param(args, "-rule-threads", String.valueOf(ruleThreads));
+        }
+        if (cacheDir != null) {
+            param(args, "-cache-dir", cacheDir);
+        } else if (cache) {
+            args.add("-cache");
+        }
+        if (fastSymbol) {
+            args.add("-fast-symbol");
+        }
+        if (incremental) {
+            param(args, "-incremental", new File(session.getTopLevelProject().getBuild().getDirectory(), "emt4j-incremental.dat").getAbsolutePath());
+        }
         args.addAll(getCheckTargets());
         return args.toArray(new String[0]);
     }